@@ -0,0 +1,129 @@
+package othello.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import othello.BitBoard;
+import othello.Board;
+import othello.Coordinate;
+import othello.Squares;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 盤面操作のベンチマーク.
+ * <p>
+ * 1回の計測で局面集のすべての局面に対して操作を行う. {@link Board} と {@link BitBoard} の同等の操作を並べて計測する.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+  /**
+   * 局面の段階.
+   */
+  @Param({"OPENING", "MIDGAME", "ENDGAME"})
+  public PositionCorpus.Phase phase;
+
+  /**
+   * 計測対象の盤面.
+   */
+  private Board[] boards;
+  /**
+   * 計測対象の盤面と同じ局面のビットボード.
+   */
+  private BitBoard[] bitBoards;
+  /**
+   * 各局面で最初に見つかる合法手.
+   */
+  private Coordinate[] moves;
+
+  @Setup
+  public void setUp() {
+    List<Board> positions = PositionCorpus.positions(phase);
+    boards = positions.toArray(new Board[0]);
+    bitBoards = new BitBoard[boards.length];
+    moves = new Coordinate[boards.length];
+    for (int i = 0; i < boards.length; i++) {
+      bitBoards[i] = BitBoard.valueOf(boards[i]);
+      moves[i] = Squares.toCoordinate(Squares.first(boards[i].getLegalMoves()));
+    }
+  }
+
+  @Benchmark
+  public void canPutPiece(Blackhole blackhole) {
+    for (Board board : boards) {
+      for (int square = 0; square < Squares.SIZE; square++) {
+        blackhole.consume(board.canPutPiece(Squares.toCoordinate(square)));
+      }
+    }
+  }
+
+  @Benchmark
+  public void getLegalMoves(Blackhole blackhole) {
+    for (Board board : boards) {
+      blackhole.consume(board.getLegalMoves());
+    }
+  }
+
+  @Benchmark
+  public void processToPutPieceAndGoBack(Blackhole blackhole) {
+    for (int i = 0; i < boards.length; i++) {
+      boards[i].processToPutPiece(moves[i]);
+      boards[i].nextTurn();
+      boards[i].goBack(1);
+      blackhole.consume(boards[i].getHash());
+    }
+  }
+
+  @Benchmark
+  public void getEachPiecesCnt(Blackhole blackhole) {
+    for (Board board : boards) {
+      blackhole.consume(board.getEachPiecesCnt());
+    }
+  }
+
+  @Benchmark
+  public void bitBoardCanPutPiece(Blackhole blackhole) {
+    for (BitBoard board : bitBoards) {
+      for (int square = 0; square < Squares.SIZE; square++) {
+        blackhole.consume(board.canPutPiece(Squares.toCoordinate(square)));
+      }
+    }
+  }
+
+  @Benchmark
+  public void bitBoardGetLegalMoves(Blackhole blackhole) {
+    for (BitBoard board : bitBoards) {
+      blackhole.consume(board.getLegalMoves());
+    }
+  }
+
+  @Benchmark
+  public void bitBoardMakeAndUnmakeMove(Blackhole blackhole) {
+    for (int i = 0; i < bitBoards.length; i++) {
+      blackhole.consume(bitBoards[i].makeMove(Squares.toSquare(moves[i])));
+      bitBoards[i].unmakeMove();
+    }
+  }
+
+  @Benchmark
+  public void bitBoardGetEachPiecesCnt(Blackhole blackhole) {
+    for (BitBoard board : bitBoards) {
+      blackhole.consume(board.getEachPiecesCnt());
+    }
+  }
+}
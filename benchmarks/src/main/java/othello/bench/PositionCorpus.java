@@ -0,0 +1,98 @@
+package othello.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import othello.Board;
+import othello.Squares;
+
+/**
+ * ベンチマークで使用する固定の局面集.
+ * <p>
+ * 固定のシードによるランダムな対局を指定した手数まで進めて局面を作るため, 実行ごとに同じ局面が得られる. 各局面は手番側がコマを置ける状態となっている.
+ */
+public final class PositionCorpus {
+
+  /**
+   * 局面集に含める局面の段階.
+   */
+  public enum Phase {
+    /**
+     * 序盤. 8手目の局面.
+     */
+    OPENING(8),
+    /**
+     * 中盤. 30手目の局面.
+     */
+    MIDGAME(30),
+    /**
+     * 終盤. 48手目の局面.
+     */
+    ENDGAME(48);
+
+    /**
+     * 初期状態から進める手数.
+     */
+    private final int plies;
+
+    Phase(int plies) {
+      this.plies = plies;
+    }
+  }
+
+  /**
+   * 段階ごとの局面の数.
+   */
+  public static final int SIZE = 16;
+
+  private PositionCorpus() {
+    // インスタンス化しない
+  }
+
+  /**
+   * 指定した段階の局面を生成する.
+   *
+   * @param phase 局面の段階
+   * @return 局面の一覧. 要素数は {@link #SIZE}
+   */
+  public static List<Board> positions(final Phase phase) {
+    List<Board> boards = new ArrayList<>();
+    long seed = phase.ordinal() * 1000L;
+    while (boards.size() < SIZE) {
+      Board board = play(new Random(seed++), phase.plies);
+      if (board != null) {
+        boards.add(board);
+      }
+    }
+    return boards;
+  }
+
+  /**
+   * ランダムな対局を指定した手数まで進める.
+   *
+   * @param random 手の選択に使う乱数
+   * @param plies  進める手数
+   * @return 進めた局面. 途中で終局した場合は {@code null}
+   */
+  private static Board play(final Random random, final int plies) {
+    Board board = new Board();
+    for (int i = 0; i <= plies; i++) {
+      if (!board.canPutForCurrentTurn()) {
+        board.nextTurn();
+        if (!board.canPutForCurrentTurn()) {
+          return null;
+        }
+      }
+      if (i == plies) {
+        break;
+      }
+      long moves = board.getLegalMoves();
+      for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+        moves = Squares.removeFirst(moves);
+      }
+      board.processToPutPiece(Squares.toCoordinate(Squares.first(moves)));
+      board.nextTurn();
+    }
+    return board;
+  }
+}
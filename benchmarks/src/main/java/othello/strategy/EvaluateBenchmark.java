@@ -0,0 +1,85 @@
+package othello.strategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import othello.BitBoard;
+import othello.Board;
+import othello.bench.PositionCorpus;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * AIの盤面評価のベンチマーク.
+ * <p>
+ * パッケージプライベートの {@link StrongAI#evaluate(BitBoard)} を呼ぶため, AIと同じパッケージに置いている.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluateBenchmark {
+
+  /**
+   * 局面の段階.
+   */
+  @Param({"OPENING", "MIDGAME", "ENDGAME"})
+  public PositionCorpus.Phase phase;
+
+  /**
+   * 計測対象の局面.
+   */
+  private BitBoard[] bitBoards;
+  /**
+   * 局面ごとの手番側のAI.
+   */
+  private StrongAI[] strongAIs;
+  /**
+   * 局面ごとの手番側のパターン評価のAI. 重みの値は速度に影響しないため, すべて0の重みを用いる.
+   */
+  private PatternAI[] patternAIs;
+
+  @Setup
+  public void setUp() {
+    List<Board> positions = PositionCorpus.positions(phase);
+    bitBoards = new BitBoard[positions.size()];
+    strongAIs = new StrongAI[positions.size()];
+    patternAIs = new PatternAI[positions.size()];
+    PatternEvaluator evaluator = new PatternEvaluator(
+        new short[PatternEvaluator.PHASES][PatternEvaluator.tableSize()]);
+    for (int i = 0; i < positions.size(); i++) {
+      bitBoards[i] = BitBoard.valueOf(positions.get(i));
+      strongAIs[i] = new StrongAI(positions.get(i).getCurrentTurn(),
+          new TranspositionTable(1, ReplacementPolicy.ALWAYS));
+      patternAIs[i] = new PatternAI(positions.get(i).getCurrentTurn(),
+          new TranspositionTable(1, ReplacementPolicy.ALWAYS), NormalAI.DEFAULT_MAX_DEPTH,
+          NormalAI.NO_TIME_LIMIT, 1, null, NormalAI.DEFAULT_ENDGAME_EMPTIES, evaluator);
+    }
+  }
+
+  @Benchmark
+  public void strongEvaluate(Blackhole blackhole) {
+    for (int i = 0; i < bitBoards.length; i++) {
+      blackhole.consume(strongAIs[i].evaluate(bitBoards[i]));
+    }
+  }
+
+  @Benchmark
+  public void patternEvaluate(Blackhole blackhole) {
+    for (int i = 0; i < bitBoards.length; i++) {
+      blackhole.consume(patternAIs[i].evaluate(bitBoards[i]));
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package othello.strategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import othello.Board;
+import othello.bench.PositionCorpus;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * AIの探索のベンチマーク.
+ * <p>
+ * 前回の計測の結果が置換表に残らないよう, 計測のたびに置換表を消去する.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+  /**
+   * 置換表のメモリ量(MB).
+   */
+  private static final int TABLE_MEGABYTES = 4;
+
+  /**
+   * 局面の段階.
+   */
+  @Param({"OPENING", "MIDGAME", "ENDGAME"})
+  public PositionCorpus.Phase phase;
+  /**
+   * 探索の深さ.
+   */
+  @Param({"4"})
+  public int depth;
+
+  /**
+   * 計測対象の盤面.
+   */
+  private Board[] boards;
+  /**
+   * 盤面ごとの手番側のAI.
+   */
+  private NormalAI[] normalAIs;
+  /**
+   * 盤面ごとの手番側のAI.
+   */
+  private StrongAI[] strongAIs;
+  /**
+   * 盤面ごとの手番側のAI.
+   */
+  private PvsAI[] pvsAIs;
+  /**
+   * 各AIの置換表.
+   */
+  private TranspositionTable[] tables;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<Board> positions = PositionCorpus.positions(phase);
+    boards = positions.toArray(new Board[0]);
+    normalAIs = new NormalAI[boards.length];
+    strongAIs = new StrongAI[boards.length];
+    pvsAIs = new PvsAI[boards.length];
+    tables = new TranspositionTable[boards.length * 3];
+    for (int i = 0; i < tables.length; i++) {
+      tables[i] = new TranspositionTable(TABLE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+    for (int i = 0; i < boards.length; i++) {
+      normalAIs[i] = new NormalAI(boards[i].getCurrentTurn(), tables[i * 3]);
+      strongAIs[i] = new StrongAI(boards[i].getCurrentTurn(), tables[i * 3 + 1]);
+      pvsAIs[i] = new PvsAI(boards[i].getCurrentTurn(), tables[i * 3 + 2]);
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void clearTables() {
+    for (TranspositionTable table : tables) {
+      table.clear();
+    }
+  }
+
+  @Benchmark
+  public void normalDecideCoordinate(Blackhole blackhole) {
+    for (int i = 0; i < boards.length; i++) {
+      blackhole.consume(normalAIs[i].decideCoordinate(boards[i], depth, NormalAI.NO_TIME_LIMIT));
+    }
+  }
+
+  @Benchmark
+  public void strongDecideCoordinate(Blackhole blackhole) {
+    for (int i = 0; i < boards.length; i++) {
+      blackhole.consume(strongAIs[i].decideCoordinate(boards[i], depth, NormalAI.NO_TIME_LIMIT));
+    }
+  }
+
+  @Benchmark
+  public void pvsDecideCoordinate(Blackhole blackhole) {
+    for (int i = 0; i < boards.length; i++) {
+      blackhole.consume(pvsAIs[i].decideCoordinate(boards[i], depth, NormalAI.NO_TIME_LIMIT));
+    }
+  }
+}
@@ -0,0 +1,604 @@
+package othello;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * オセロのフィールドを2つの64bit整数(ビットボード)で保持するクラス.
+ * <p>
+ * {@link Board} と同じ公開メソッドを持ち, AIの探索のように大量の局面を扱う処理で {@link Board} の代わりに使用する. 黒と白のコマの配置をそれぞれ
+ * {@code long} のビット列で表し, 合法手の生成とコマの反転をビットシフトとマスク演算で行う.
+ * <p>
+ * マス番号とビットの対応は {@link Squares} を参照.
+ */
+public class BitBoard {
+
+  /**
+   * フィールドの行を表す全アルファベット.
+   */
+  private static final String ROW_ALPHABETS = "ABCDEFGH";
+  /**
+   * フィールドの列を表す全番号.
+   */
+  private static final String COL_NUMBERS = "12345678";
+  /**
+   * フィールドの行数.
+   */
+  private static final int ROW = 8;
+  /**
+   * フィールドの列数.
+   */
+  private static final int COL = 8;
+  /**
+   * 1列目(左端)以外のマスを表すマスク.
+   */
+  private static final long NOT_LEFT_EDGE = 0xfefefefefefefefeL;
+  /**
+   * 8列目(右端)以外のマスを表すマスク.
+   */
+  private static final long NOT_RIGHT_EDGE = 0x7f7f7f7f7f7f7f7fL;
+  /**
+   * 各方向へ1マス移動する場合のシフト量. 正の値は左シフト, 負の値は右シフトを表す.
+   * <p>
+   * 右, 左, 下, 上, 右下, 左下, 右上, 左上の順.
+   */
+  private static final int[] SHIFTS = {1, -1, 8, -8, 9, 7, -7, -9};
+  /**
+   * 各方向へ移動した際に左右の端を越えて反対側へ回り込んだビットを取り除くマスク.
+   */
+  private static final long[] SHIFT_MASKS = {
+      NOT_LEFT_EDGE, NOT_RIGHT_EDGE, -1L, -1L,
+      NOT_LEFT_EDGE, NOT_RIGHT_EDGE, NOT_LEFT_EDGE, NOT_RIGHT_EDGE
+  };
+  /**
+   * ログの初期容量.
+   */
+  private static final int INITIAL_LOG_CAPACITY = 64;
+  /**
+   * 全方向. {@link Vector#values()} は呼び出しのたびに配列を生成するため保持しておく.
+   */
+  private static final Vector[] VECTORS = Vector.values();
+  /**
+   * 黒のコマの配置.
+   */
+  private long black;
+  /**
+   * 白のコマの配置.
+   */
+  private long white;
+  /**
+   * 現在の手番.
+   */
+  private PieceType currentTurn;
+  /**
+   * 現在の局面のハッシュ値. コマの設置, 反転, 手番の移動のたびに差分更新される.
+   *
+   * @see Zobrist
+   */
+  private long hash;
+  /**
+   * 手ごとにコマを置いたマスのビットを保持するログ. パスの場合は0.
+   */
+  private long[] placedLogger;
+  /**
+   * 手ごとにひっくり返したコマのビットを保持するログ.
+   */
+  private long[] flippedLogger;
+  /**
+   * ログに積まれている手の数.
+   */
+  private int logSize;
+
+  /**
+   * オセロの初期状態のフィールドを生成する.
+   * <p>
+   * 手番は黒となる.
+   */
+  public BitBoard() {
+    this(1L << Squares.toSquare(4, 3) | 1L << Squares.toSquare(3, 4),
+        1L << Squares.toSquare(3, 3) | 1L << Squares.toSquare(4, 4),
+        PieceType.BLACK);
+  }
+
+  /**
+   * コマの配置と手番を指定してフィールドを生成する.
+   *
+   * @param black       黒のコマの配置
+   * @param white       白のコマの配置
+   * @param currentTurn 手番
+   * @throws IllegalArgumentException 黒と白のコマが重なっている場合, 手番が空きの場合
+   */
+  public BitBoard(final long black, final long white, final PieceType currentTurn) {
+    if ((black & white) != 0) {
+      throw new IllegalArgumentException("黒と白のコマが重なっています");
+    }
+    if (currentTurn == PieceType.EMPTY) {
+      throw new IllegalArgumentException("手番に空きは指定できません");
+    }
+    this.black = black;
+    this.white = white;
+    this.currentTurn = currentTurn;
+    this.hash = Zobrist.hash(black, white, currentTurn);
+    this.placedLogger = new long[INITIAL_LOG_CAPACITY];
+    this.flippedLogger = new long[INITIAL_LOG_CAPACITY];
+    this.logSize = 0;
+  }
+
+  /**
+   * {@link Board} の現在の盤面と手番を持つビットボードを生成する.
+   * <p>
+   * 盤面のコマは複製せず, {@link Board#snapshot()} から生成する.
+   *
+   * @param board 変換元の盤面
+   * @return 同じ盤面と手番を持つビットボード
+   */
+  public static BitBoard valueOf(final Board board) {
+    return valueOf(board.snapshot());
+  }
+
+  /**
+   * 切り出した盤面と手番を持つビットボードを生成する.
+   *
+   * @param snapshot 変換元の盤面と手番
+   * @return 同じ盤面と手番を持つビットボード
+   */
+  public static BitBoard valueOf(final BoardSnapshot snapshot) {
+    return new BitBoard(snapshot.getBits(PieceType.BLACK), snapshot.getBits(PieceType.WHITE),
+        snapshot.getCurrentTurn());
+  }
+
+  /**
+   * アルファベットを対応する行番号に変換する.
+   *
+   * @param alphabet 行番号に変換する対象のアルファベット
+   * @return 対応する行番号(対応する行番号がない場合 - 1)
+   * @see Board#toRowNumber(String)
+   */
+  public static int toRowNumber(final String alphabet) {
+    return Board.toRowNumber(alphabet);
+  }
+
+  /**
+   * 番号を対応する列番号に変換する.
+   *
+   * @param col 変換対象の番号
+   * @return 対応する列番号(対応する列番号が存在しない場合 - 1)
+   * @see Board#toColNumber(String)
+   */
+  public static int toColNumber(final String col) {
+    return Board.toColNumber(col);
+  }
+
+  /**
+   * 手番側のコマの配置と相手のコマの配置から, 手番側がコマを置くことができるマスをすべて求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return コマを置くことができるマスのビットが立った値
+   */
+  public static long legalMoves(final long own, final long opponent) {
+    final long empty = ~(own | opponent);
+    long moves = 0L;
+    for (int d = 0; d < SHIFTS.length; d++) {
+      // 自分のコマから相手のコマが連続する限り同じ方向へ伸ばし, その先の空きマスが候補となる.
+      long line = shift(own, d) & opponent;
+      line |= shift(line, d) & opponent;
+      line |= shift(line, d) & opponent;
+      line |= shift(line, d) & opponent;
+      line |= shift(line, d) & opponent;
+      line |= shift(line, d) & opponent;
+      moves |= shift(line, d) & empty;
+    }
+    return moves;
+  }
+
+  /**
+   * 指定したマスに手番側がコマを置いた場合にひっくり返る相手のコマを求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param square   コマを置くマス番号
+   * @return ひっくり返るコマのビットが立った値
+   */
+  public static long flips(final long own, final long opponent, final int square) {
+    long flipped = 0L;
+    for (Vector vector : VECTORS) {
+      final long ray = vector.getRayMask(square);
+      // 置いたマスから見て最初の相手のコマでないマス. 相手のコマの連続の先にあたる.
+      final long blockers = ray & ~opponent;
+      final long first = vector.isAscending()
+          ? blockers & -blockers
+          : Long.highestOneBit(blockers);
+      // 相手のコマの連続の先に自分のコマがある場合のみ挟んでいる.
+      if ((first & own) != 0) {
+        final long between = vector.isAscending()
+            ? first - 1
+            : ~(first | (first - 1));
+        flipped |= ray & between;
+      }
+    }
+    return flipped;
+  }
+
+  /**
+   * ビット列を指定した方向へ1マス移動させる.
+   *
+   * @param bits      移動させるビット列
+   * @param direction 方向の番号
+   * @return 移動後のビット列. フィールドの外へ出たビットは取り除かれる
+   */
+  private static long shift(final long bits, final int direction) {
+    final int amount = SHIFTS[direction];
+    if (amount > 0) {
+      return (bits << amount) & SHIFT_MASKS[direction];
+    }
+    return (bits >>> -amount) & SHIFT_MASKS[direction];
+  }
+
+  /**
+   * 本インスタンスの複製を生成する.
+   * <p>
+   * 複製時点のフィールドの状態と手番が保持される.
+   *
+   * @return 本インスタンスの複製
+   */
+  public BitBoard cloneInstance() {
+    return new BitBoard(black, white, currentTurn);
+  }
+
+  /**
+   * 現在の盤面と手番を不変のオブジェクトとして切り出す.
+   *
+   * @return 現在の盤面と手番
+   */
+  public BoardSnapshot snapshot() {
+    return new BoardSnapshot(black, white, currentTurn, hash);
+  }
+
+  /**
+   * 保持している盤面の状態を {@link Piece} の2次元配列として複製する.
+   *
+   * @return 現在の盤面の複製
+   */
+  public Piece[][] cloneField() {
+    Piece[][] newField = new Piece[ROW][COL];
+
+    for (int r = 0; r < ROW; r++) {
+      for (int c = 0; c < COL; c++) {
+        newField[r][c] = new Piece();
+        newField[r][c].setState(getStateAt(Squares.toSquare(r, c)));
+      }
+    }
+
+    return newField;
+  }
+
+  /**
+   * 現在の手番を返す.
+   *
+   * @return 現在の手番を表すコマの種類
+   */
+  public PieceType getCurrentTurn() {
+    return currentTurn;
+  }
+
+  /**
+   * 現在の局面のハッシュ値を返す.
+   * <p>
+   * 同じ盤面と手番を持つ {@link Board} の {@link Board#getHash()} と同じ値となる.
+   *
+   * @return 64bitのハッシュ値
+   * @see Zobrist
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * 指定した種類のコマの配置を返す.
+   *
+   * @param pieceType コマの種類
+   * @return コマが置かれているマスのビットが立った値. 空きを指定した場合は空きマス
+   */
+  public long getBits(final PieceType pieceType) {
+    switch (pieceType) {
+      case BLACK:
+        return black;
+      case WHITE:
+        return white;
+      default:
+        return ~(black | white);
+    }
+  }
+
+  /**
+   * 白、黒、空きそれぞれの数を返す.
+   *
+   * @return 白、黒、空きのコマの数を格納したオブジェクト
+   */
+  public Map<PieceType, Integer> getEachPiecesCnt() {
+    Map<PieceType, Integer> piecesCnt = new EnumMap<>(PieceType.class);
+    piecesCnt.put(PieceType.WHITE, Long.bitCount(white));
+    piecesCnt.put(PieceType.BLACK, Long.bitCount(black));
+    piecesCnt.put(PieceType.EMPTY, Long.bitCount(~(black | white)));
+    return piecesCnt;
+  }
+
+  /**
+   * ゲームが終了したかどうかを判定する.
+   * <p>
+   * {@link Board#isGameOver()} と異なり, 判定によって手番は変化しない.
+   *
+   * @return 両者ともコマを置くことができない場合 {@code true}
+   */
+  public boolean isGameOver() {
+    return legalMoves(black, white) == 0 && legalMoves(white, black) == 0;
+  }
+
+  /**
+   * 手番がコマを置ける座標があるか調べる.
+   *
+   * @return コマを置くことができる場合 {@code true}
+   */
+  public boolean canPutForCurrentTurn() {
+    return getLegalMoves() != 0;
+  }
+
+  /**
+   * 手番がコマを置くことができるマスをすべて求める.
+   * <p>
+   * 含まれるマスの列挙には {@link Squares#first(long)}, {@link Squares#removeFirst(long)} を使用する.
+   *
+   * @return コマを置くことができるマスのビットが立った値
+   */
+  public long getLegalMoves() {
+    return legalMoves(getOwn(), getOpponent());
+  }
+
+  /**
+   * 手番を次に移す.
+   */
+  public void nextTurn() {
+    currentTurn = PieceType.getEnemyType(currentTurn);
+    hash ^= Zobrist.turnKey();
+  }
+
+  /**
+   * 指定した座標にコマを置くことができるかどうかを判定する.
+   *
+   * <p>
+   * フィールドの範囲外の座標を指定しても例外は排出しない.
+   *
+   * @param coordinate 置く座標
+   * @return コマを置くことができる場合 {@code true}
+   */
+  public boolean canPutPiece(final Coordinate coordinate) {
+    return (getLegalMoves() & Squares.toBit(coordinate)) != 0;
+  }
+
+  /**
+   * コマを置く場合に必要な処理を行う. 具体的には
+   * <ol>
+   *     <li>コマを指定の座標に置く</li>
+   *     <li>挟んだコマをひっくり返す</li>
+   *     <li>置いたマスとひっくり返したコマをログに積む</li>
+   * </ol>
+   * 手番は変化しない.
+   *
+   * @param coordinate 置く座標
+   * @throws IllegalArgumentException フィールド外の座標を指定した場合
+   */
+  public void processToPutPiece(final Coordinate coordinate) {
+    if (Squares.toBit(coordinate) == 0) {
+      throw new IllegalArgumentException("指定した座標には置けません");
+    }
+    putPiece(Squares.toSquare(coordinate));
+  }
+
+  /**
+   * 手番のコマを指定したマスに置き, 手番を次に移す.
+   * <p>
+   * 探索用の操作であり, {@link #unmakeMove()} で元に戻すことができる. 記録されるのは置いたマスとひっくり返したコマのみで,
+   * オブジェクトは生成しない. マスが合法手であるかは検査しない.
+   *
+   * @param square コマを置くマス番号
+   * @return ひっくり返したコマのビットが立った値
+   */
+  public long makeMove(final int square) {
+    final long flipped = putPiece(square);
+    nextTurn();
+    return flipped;
+  }
+
+  /**
+   * 手番をパスし, 次に移す.
+   * <p>
+   * {@link #unmakeMove()} で元に戻すことができる.
+   */
+  public void makePass() {
+    logMove(0L, 0L);
+    nextTurn();
+  }
+
+  /**
+   * 直前の {@link #makeMove(int)} または {@link #makePass()} を取り消す.
+   *
+   * @throws IllegalStateException 取り消す手がない場合
+   */
+  public void unmakeMove() {
+    if (logSize == 0) {
+      throw new IllegalStateException("取り消す手がありません");
+    }
+    goBack(1);
+  }
+
+  /**
+   * コマを置いた結果を表示する.
+   *
+   * @param coordinate コマの情報を表示する座標
+   * @see Board#printResult(Coordinate)
+   */
+  public void printResult(Coordinate coordinate) {
+    printField();
+    printPutCoordinate(coordinate);
+    printCurrentScores();
+  }
+
+  /**
+   * 指定された座標の行と列の情報を表示する.
+   *
+   * @param coordinate 表示する座標
+   */
+  public void printPutCoordinate(Coordinate coordinate) {
+    final String row = ROW_ALPHABETS.split("")[coordinate.getRow()];
+    final String col = COL_NUMBERS.split("")[coordinate.getCol()];
+    System.out.println(String.format("row = %s, col = %s", row, col));
+  }
+
+  /**
+   * フィールドの描画を行う.
+   */
+  public void printField() {
+    System.out.println(toString());
+  }
+
+  /**
+   * 現在の黒と白のコマの数をそれぞれ標準出力する.
+   */
+  public void printCurrentScores() {
+    System.out.println(PieceType.BLACK + " : " + Long.bitCount(black));
+    System.out.println(PieceType.WHITE + " : " + Long.bitCount(white));
+  }
+
+  /**
+   * 手番の情報を表示する.
+   */
+  public void printCurrentTurn() {
+    System.out.println(currentTurn + "の手番です");
+  }
+
+  /**
+   * ログをさかのぼりフィールドの状態を戻す.
+   * <p>
+   * {@link Board#goBack(int)} と同様に, 1つ戻すごとに手番も入れ替わる. 置いたコマを取り除き, ひっくり返したコマを反転し直すだけなので
+   * 戻す手数に比例した時間で済む.
+   *
+   * @param howMany いくつ前の状態に戻すか
+   */
+  public void goBack(int howMany) {
+    for (int i = 0; i < howMany; i++) {
+      if (logSize == 0) {
+        return;
+      }
+      nextTurn();
+      logSize--;
+
+      final long placed = placedLogger[logSize];
+      final long flipped = flippedLogger[logSize];
+      if (placed != 0) {
+        final PieceType placedType = (black & placed) != 0 ? PieceType.BLACK : PieceType.WHITE;
+        hash ^= Zobrist.pieceKey(placedType, Squares.first(placed));
+      }
+      hash ^= Zobrist.flipKey(flipped);
+      black = (black & ~placed) ^ flipped;
+      white = (white & ~placed) ^ flipped;
+    }
+  }
+
+  /**
+   * フィールドを文字列化して返す.
+   *
+   * @return 行番号, 列番号, フィールドの状態を文字列として表現したもの
+   */
+  @Override
+  public String toString() {
+    final String lineSeparator = System.lineSeparator();
+    final String[] rowAlphabets = ROW_ALPHABETS.split("");
+    final String colNumbers = "  " + String.join(" ", COL_NUMBERS.split(""));
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(colNumbers).append(lineSeparator);
+    for (int r = 0; r < ROW; r++) {
+      sb.append(rowAlphabets[r]).append(" ");
+      for (int c = 0; c < COL; c++) {
+        sb.append(getStateAt(Squares.toSquare(r, c))).append(" ");
+      }
+      sb.append(rowAlphabets[r]).append(lineSeparator);
+    }
+    sb.append(colNumbers).append(lineSeparator);
+
+    return sb.toString();
+  }
+
+  /**
+   * 手番側のコマの配置を返す.
+   *
+   * @return 手番側のコマの配置
+   */
+  private long getOwn() {
+    return currentTurn == PieceType.BLACK ? black : white;
+  }
+
+  /**
+   * 手番でない側のコマの配置を返す.
+   *
+   * @return 相手のコマの配置
+   */
+  private long getOpponent() {
+    return currentTurn == PieceType.BLACK ? white : black;
+  }
+
+  /**
+   * 指定したマスのコマの状態を返す.
+   *
+   * @param square マス番号
+   * @return コマの状態
+   */
+  private PieceType getStateAt(final int square) {
+    final long bit = 1L << square;
+    if ((black & bit) != 0) {
+      return PieceType.BLACK;
+    } else if ((white & bit) != 0) {
+      return PieceType.WHITE;
+    }
+    return PieceType.EMPTY;
+  }
+
+  /**
+   * 手番のコマを指定したマスに置き, 挟んだコマをひっくり返してログに積む.
+   *
+   * @param square コマを置くマス番号
+   * @return ひっくり返したコマのビットが立った値
+   */
+  private long putPiece(final int square) {
+    final long move = 1L << square;
+    final long flipped = flips(getOwn(), getOpponent(), square);
+    if (currentTurn == PieceType.BLACK) {
+      black |= move | flipped;
+      white &= ~flipped;
+    } else {
+      white |= move | flipped;
+      black &= ~flipped;
+    }
+    hash ^= Zobrist.pieceKey(currentTurn, square) ^ Zobrist.flipKey(flipped);
+    logMove(move, flipped);
+    return flipped;
+  }
+
+  /**
+   * 1手分の変化をログに積む.
+   *
+   * @param placed  コマを置いたマスのビット
+   * @param flipped ひっくり返したコマのビット
+   */
+  private void logMove(final long placed, final long flipped) {
+    if (logSize == placedLogger.length) {
+      placedLogger = Arrays.copyOf(placedLogger, logSize * 2);
+      flippedLogger = Arrays.copyOf(flippedLogger, logSize * 2);
+    }
+    placedLogger[logSize] = placed;
+    flippedLogger[logSize] = flipped;
+    logSize++;
+  }
+}
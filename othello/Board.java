@@ -1,7 +1,6 @@
 package othello;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -35,17 +34,47 @@ public class Board {
    */
   private static final int COL = 8;
   /**
-   * フィールド本体.
+   * 全方向. {@link Vector#values()} は呼び出しのたびに配列を生成するため保持しておく.
    */
-  private Piece[][] field;
+  private static final Vector[] VECTORS = Vector.values();
   /**
-   * フィールドのログを保持するオブジェクト.
+   * ログの初期容量.
    */
-  private Deque<Piece[][]> fieldLogger;
+  private static final int INITIAL_LOG_CAPACITY = 64;
+  /**
+   * 黒のコマの配置. フィールドの状態はこのビット列と白のビット列のみで表す.
+   */
+  private long black;
+  /**
+   * 白のコマの配置.
+   */
+  private long white;
+  /**
+   * 手ごとにコマを置いたマスのビットを保持するログ.
+   */
+  private long[] placedLogger;
+  /**
+   * 手ごとにひっくり返したコマのビットを保持するログ.
+   */
+  private long[] flippedLogger;
+  /**
+   * ログに積まれている手の数.
+   */
+  private int logSize;
   /**
    * 現在の手番.
    */
   private PieceType currentTurn;
+  /**
+   * 現在の局面のハッシュ値. コマの設置, 反転, 手番の移動のたびに差分更新される.
+   *
+   * @see Zobrist
+   */
+  private long hash;
+  /**
+   * {@link #snapshot()} で切り出した盤面と手番. 盤面を変更すると破棄し, 次に切り出すときまで作らない.
+   */
+  private volatile BoardSnapshot snapshot;
 
   /**
    * オセロのフィールドを生成する.
@@ -58,21 +87,33 @@ public class Board {
    * </ul>
    */
   public Board() {
-    fieldLogger = new ArrayDeque<>();
-    field = new Piece[ROW][COL];
-
-    for (int r = 0; r < ROW; r++) {
-      for (int c = 0; c < COL; c++) {
-        field[r][c] = new Piece();
-      }
-    }
-
-    field[3][3].setState(PieceType.WHITE);
-    field[4][3].setState(PieceType.BLACK);
-    field[3][4].setState(PieceType.BLACK);
-    field[4][4].setState(PieceType.WHITE);
+    placedLogger = new long[INITIAL_LOG_CAPACITY];
+    flippedLogger = new long[INITIAL_LOG_CAPACITY];
+    logSize = 0;
 
     currentTurn = PieceType.BLACK;
+    black = 1L << Squares.toSquare(4, 3) | 1L << Squares.toSquare(3, 4);
+    white = 1L << Squares.toSquare(3, 3) | 1L << Squares.toSquare(4, 4);
+    hash = Zobrist.hash(black, white, currentTurn);
+  }
+
+  /**
+   * コマの配置と手番を指定してフィールドを生成する. ログは空となる.
+   *
+   * @param black       黒のコマの配置
+   * @param white       白のコマの配置
+   * @param currentTurn 手番
+   * @param hash        局面のハッシュ値
+   */
+  private Board(final long black, final long white, final PieceType currentTurn,
+      final long hash) {
+    placedLogger = new long[INITIAL_LOG_CAPACITY];
+    flippedLogger = new long[INITIAL_LOG_CAPACITY];
+    logSize = 0;
+    this.black = black;
+    this.white = white;
+    this.currentTurn = currentTurn;
+    this.hash = hash;
   }
 
   /**
@@ -108,16 +149,34 @@ public class Board {
   /**
    * 本インスタンスの複製を生成する.
    * <p>
-   * 複製時点のフィールドの状態と手番が保持される.
+   * 複製時点のフィールドの状態と手番が保持される. ログは複製しない.
+   * <p>
+   * 盤面を読むだけであれば, コマを複製しない {@link #snapshot()} を使用すること.
    *
    * @return 本インスタンスの複製
    */
   public Board cloneInstance() {
-    Board newBoard = new Board();
-    newBoard.field = cloneField();
-    newBoard.currentTurn = currentTurn;
+    return new Board(black, white, currentTurn, hash);
+  }
 
-    return newBoard;
+  /**
+   * 現在の盤面と手番を不変のオブジェクトとして切り出す.
+   * <p>
+   * コマの配置は常にビット列で保持しているため, 複製せずに定数時間で生成できる. 生成したオブジェクトは次に盤面を変更するまで使い回し,
+   * 変更のたびには生成しないため, 探索のようにコマを置いて戻す処理は切り出さない限りオブジェクトを生成しない.
+   * 以降に盤面を変更しても切り出したオブジェクトは変わらない.
+   * <p>
+   * 盤面を変更するスレッドから呼ぶこと. 観戦者や解析用のスレッドなど他のスレッドには, 切り出したオブジェクトを渡して共有する.
+   *
+   * @return 現在の盤面と手番
+   */
+  public BoardSnapshot snapshot() {
+    BoardSnapshot current = snapshot;
+    if (current == null) {
+      current = new BoardSnapshot(black, white, currentTurn, hash);
+      snapshot = current;
+    }
+    return current;
   }
 
   /**
@@ -131,13 +190,31 @@ public class Board {
     for (int r = 0; r < ROW; r++) {
       for (int c = 0; c < COL; c++) {
         newField[r][c] = new Piece();
-        newField[r][c].setState(field[r][c].getState());
+        newField[r][c].setState(getStateAt(Squares.toSquare(r, c)));
       }
     }
 
     return newField;
   }
 
+  /**
+   * フィールドを指定した局面に設定する.
+   * <p>
+   * ログは消去される. 検証用のツールから局面を再現するために使用する.
+   *
+   * @param black       黒のコマの配置
+   * @param white       白のコマの配置
+   * @param currentTurn 手番
+   */
+  void setUp(final long black, final long white, final PieceType currentTurn) {
+    this.black = black;
+    this.white = white;
+    this.currentTurn = currentTurn;
+    this.hash = Zobrist.hash(black, white, currentTurn);
+    this.logSize = 0;
+    invalidate();
+  }
+
   /**
    * 現在の手番を返す.
    *
@@ -147,6 +224,18 @@ public class Board {
     return currentTurn;
   }
 
+  /**
+   * 現在の局面のハッシュ値を返す.
+   * <p>
+   * 同じ盤面かつ同じ手番の局面は同じ値となる. 置換表や定石の検索キーとして使用する.
+   *
+   * @return 64bitのハッシュ値
+   * @see Zobrist
+   */
+  public long getHash() {
+    return hash;
+  }
+
   /**
    * 白、黒、空きそれぞれの数を返す.
    *
@@ -154,18 +243,9 @@ public class Board {
    */
   public Map<PieceType, Integer> getEachPiecesCnt() {
     Map<PieceType, Integer> PiecesCnt = new EnumMap<>(PieceType.class);
-    // 初期化が必要. 初期化しなければフィールドに存在しないキーが登録されない.
-    for (PieceType pieceType : PieceType.values()) {
-      PiecesCnt.put(pieceType, 0);
-    }
-
-    // 各フィールドの数をカウントする
-    for (int r = 0; r < ROW; r++) {
-      for (int c = 0; c < COL; c++) {
-        PieceType key = field[r][c].getState();
-        PiecesCnt.put(key, PiecesCnt.get(key) + 1);
-      }
-    }
+    PiecesCnt.put(PieceType.BLACK, Long.bitCount(black));
+    PiecesCnt.put(PieceType.WHITE, Long.bitCount(white));
+    PiecesCnt.put(PieceType.EMPTY, Long.bitCount(~(black | white)));
     return PiecesCnt;
   }
 
@@ -175,15 +255,10 @@ public class Board {
    * @return ゲームが終わった場合 {@code true}
    */
   public boolean isGameOver() {
-    if (canPutForCurrentTurn()) {
-      return false;
-    }
-    nextTurn();
-    if (canPutForCurrentTurn()) {
-      nextTurn();
-      return false;
-    }
-    return true;
+    // 手番を入れ替えずに調べるため, 切り出した盤面は破棄しない.
+    final long own = getBits(currentTurn);
+    final long opponent = getBits(PieceType.getEnemyType(currentTurn));
+    return BitBoard.legalMoves(own, opponent) == 0 && BitBoard.legalMoves(opponent, own) == 0;
   }
 
   /**
@@ -192,21 +267,27 @@ public class Board {
    * @return コマを置くことができる場合 {@code true}
    */
   public boolean canPutForCurrentTurn() {
-    for (int r = 0; r < ROW; r++) {
-      for (int c = 0; c < COL; c++) {
-        if (canPutPiece(Coordinate.valueOf(r, c))) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return getLegalMoves() != 0;
+  }
+
+  /**
+   * 手番がコマを置くことができるマスをすべて求める.
+   * <p>
+   * 黒と白の配置のビット列から全方向の合法手を一括で計算する. 座標ごとに {@link #canPutPiece(Coordinate)} を呼ぶ場合と異なり
+   * オブジェクトを生成しない. 含まれるマスの列挙には {@link Squares#first(long)}, {@link Squares#removeFirst(long)} を使用する.
+   *
+   * @return コマを置くことができるマスのビットが立った値
+   */
+  public long getLegalMoves() {
+    return BitBoard.legalMoves(getBits(currentTurn), getBits(PieceType.getEnemyType(currentTurn)));
   }
 
   /**
    * 手番を次に移す.
    */
   public void nextTurn() {
-    currentTurn = PieceType.getEnemyType(currentTurn);
+    switchTurn();
+    invalidate();
   }
 
   /**
@@ -224,12 +305,12 @@ public class Board {
       return false;
     }
     // すでにコマが置かれていた場合
-    if (!getFieldPieceAt(coordinate).isEmpty()) {
+    if (getStateAt(Squares.toSquare(coordinate)) != PieceType.EMPTY) {
       return false;
     }
 
     // 置いたコマから見て周囲8方向に挟むコマがあるかどうかを調べる
-    for (Vector vector : Vector.values()) {
+    for (Vector vector : VECTORS) {
       // 自分のコマが調べる方向の先にあるか
       if (existOwnPieceAhead(coordinate, vector)) {
         return true;
@@ -243,15 +324,19 @@ public class Board {
    * <ol>
    *     <li>コマを指定の座標に置く</li>
    *     <li>挟んだコマをひっくり返す</li>
-   *     <li>フィールドのログを取る</li>
+   *     <li>置いたマスとひっくり返したコマをログに積む</li>
    * </ol>
    *
    * @param coordinate 置く座標
    */
   public void processToPutPiece(final Coordinate coordinate) {
     putPiece(coordinate);
-    flipPiecesFrom(coordinate);
-    logField();
+    final long flipped = flipPiecesFrom(coordinate);
+    black ^= flipped;
+    white ^= flipped;
+    hash ^= Zobrist.flipKey(flipped);
+    logMove(Squares.toBit(coordinate), flipped);
+    invalidate();
   }
 
   /**
@@ -308,17 +393,47 @@ public class Board {
 
   /**
    * ログをさかのぼりフィールドの状態を戻す.
+   * <p>
+   * 1手ごとに置いたコマを取り除き, ひっくり返したコマだけを元に戻す. 1つ戻すごとに手番も入れ替わる.
    *
    * @param howMany いくつ前の状態に戻すか
    */
   public void goBack(int howMany) {
     for (int i = 0; i < howMany; i++) {
-      if (fieldLogger.isEmpty()) {
-        return;
+      if (logSize == 0) {
+        break;
+      }
+      switchTurn();
+      logSize--;
+
+      final long placed = placedLogger[logSize];
+      if (placed != 0) {
+        final int square = Squares.first(placed);
+        hash ^= Zobrist.pieceKey(getStateAt(square), square);
+        black &= ~placed;
+        white &= ~placed;
       }
-      currentTurn = PieceType.getEnemyType(currentTurn);
-      field = fieldLogger.removeFirst();
+      final long flipped = flippedLogger[logSize];
+      black ^= flipped;
+      white ^= flipped;
+      hash ^= Zobrist.flipKey(flipped);
     }
+    invalidate();
+  }
+
+  /**
+   * ログに積まれている手を, コマを置いた順にマス番号で返す.
+   * <p>
+   * パスは含まない. {@link #goBack(int)} で戻した手は含まない.
+   *
+   * @return マス番号の配列
+   */
+  public int[] getMoveHistory() {
+    final int[] moves = new int[logSize];
+    for (int i = 0; i < logSize; i++) {
+      moves[i] = Squares.first(placedLogger[i]);
+    }
+    return moves;
   }
 
   /**
@@ -343,7 +458,7 @@ public class Board {
     for (int r = 0; r < ROW; r++) {
       sb.append(rowAlphabets[r]).append(" ");
       for (int c = 0; c < COL; c++) {
-        sb.append(field[r][c]).append(" ");
+        sb.append(getStateAt(Squares.toSquare(r, c))).append(" ");
       }
       sb.append(rowAlphabets[r]).append(lineSeparator);
     }
@@ -360,27 +475,26 @@ public class Board {
    * @return 相手のコマを挟んでいる場合 {@code true}
    */
   private boolean existOwnPieceAhead(final Coordinate coordinate, final Vector vector) {
-    // 調べる対象の座標. 入力の座標から指定した方向へ移動させる.
-    Coordinate target = coordinate.move(vector);
+    // 調べる対象のマスの列. 入力の座標から指定した方向へ盤端まで並んでいる.
+    final int[] ray = vector.getRay(Squares.toSquare(coordinate));
 
-    if (!isInsideField(target)) {
+    if (ray.length < 2) {
       return false;
     }
-    if (getFieldPieceAt(target).getState() != PieceType.getEnemyType(currentTurn)) {
+    if (getStateAt(ray[0]) != PieceType.getEnemyType(currentTurn)) {
       // となりのコマは相手のコマでなければならない.
       return false;
     }
-    target = target.move(vector);
 
-    while (isInsideField(target)) {
+    for (int i = 1; i < ray.length; i++) {
       // 2つ以降離れている場合、コマが途切れている場合は相手のコマを挟んでいない.
       // 自分のコマである場合相手のコマを挟んでいる.
-      if (getFieldPieceAt(target).getState() == PieceType.EMPTY) {
+      final PieceType state = getStateAt(ray[i]);
+      if (state == PieceType.EMPTY) {
         return false;
-      } else if (getFieldPieceAt(target).getState() == currentTurn) {
+      } else if (state == currentTurn) {
         return true;
       }
-      target = target.move(vector);
     }
     return false;
   }
@@ -398,60 +512,119 @@ public class Board {
     if (!isInsideField(coordinate)) {
       throw new IllegalArgumentException("指定した座標には置けません");
     }
-    getFieldPieceAt(coordinate).setState(currentTurn);
+    final int square = Squares.toSquare(coordinate);
+    hash ^= Zobrist.pieceKey(getStateAt(square), square);
+    hash ^= Zobrist.pieceKey(currentTurn, square);
+    black &= ~(1L << square);
+    white &= ~(1L << square);
+    if (currentTurn == PieceType.BLACK) {
+      black |= 1L << square;
+    } else {
+      white |= 1L << square;
+    }
   }
 
   /**
-   * 指定したコマの座標から見て周囲8方向に対して自分のコマで挟んでいる相手のコマをひっくり返す.
+   * 指定したコマの座標から見て周囲8方向に対して自分のコマで挟んでいる, ひっくり返す相手のコマを求める.
    * <p>
-   * 前提として手番のコマを置いた後に使用すること. 空の状態の座標を指定してもエラーは排出しない. この場合でも周囲8方向の先に手番のコマがある場合 相手のコマをひっくり返す.
+   * 前提として手番のコマを置いた後に使用すること. 空の状態の座標を指定してもエラーは排出しない. この場合でも周囲8方向の先に手番のコマがある場合 相手のコマを含める.
    *
    * @param coordinate ひっくり返す始点となるコマの座標
+   * @return ひっくり返すコマのビットが立った値
    */
-  private void flipPiecesFrom(final Coordinate coordinate) {
-    for (Vector vector : Vector.values()) {
+  private long flipPiecesFrom(final Coordinate coordinate) {
+    long flipped = 0L;
+    for (Vector vector : VECTORS) {
       if (existOwnPieceAhead(coordinate, vector)) {
-        // 挟むコマがあると判定された方向に向かって相手のコマをひっくり返す
-        flipBetweenOwnPieces(coordinate, vector);
+        // 挟むコマがあると判定された方向に向かって相手のコマを集める
+        flipped |= flipBetweenOwnPieces(coordinate, vector);
       }
     }
+    return flipped;
   }
 
   /**
-   * 座標と方向を指定して, 挟んでいる相手のコマをひっくり返す.
+   * 座標と方向を指定して, 挟んでいる相手のコマを求める.
    *
    * <p>
    * このメソッドはすでに調べる方向の先に自分のコマがあることが判明していることが前提となっている. そのためフィールドの外部に座標を指定するとエラーを排出する.
    *
    * @param coordinate ひっくり返す始点となる座標
    * @param vector     ひっくり返す方向
+   * @return ひっくり返すコマのビットが立った値
    */
-  private void flipBetweenOwnPieces(final Coordinate coordinate, final Vector vector) {
-    // 移動していく座標の変数
-    Coordinate target = coordinate.move(vector);
+  private long flipBetweenOwnPieces(final Coordinate coordinate, final Vector vector) {
+    // ひっくり返していくマスの列
+    final int[] ray = vector.getRay(Squares.toSquare(coordinate));
+    long flipped = 0L;
 
-    // 自分のコマにたどり着くまで相手のコマをひっくり返していく
-    while (getFieldPieceAt(target).getState() != currentTurn) {
-      getFieldPieceAt(target).flip();
-      target = target.move(vector);
+    // 自分のコマにたどり着くまでの相手のコマを集める. ビット列への反映は呼び出し元でまとめて行う.
+    for (int i = 0; getStateAt(ray[i]) != currentTurn; i++) {
+      flipped |= 1L << ray[i];
     }
+    return flipped;
   }
 
   /**
-   * 現在のフィールドを複製してログを保持するオブジェクトに登録する.
+   * 1手分の変化をログに積む.
+   * <p>
+   * 盤面全体ではなく, 置いたマスとひっくり返したコマのみを記録する.
+   *
+   * @param placed  コマを置いたマスのビット
+   * @param flipped ひっくり返したコマのビット
    */
-  private void logField() {
-    fieldLogger.addFirst(cloneField());
+  private void logMove(final long placed, final long flipped) {
+    if (logSize == placedLogger.length) {
+      placedLogger = Arrays.copyOf(placedLogger, logSize * 2);
+      flippedLogger = Arrays.copyOf(flippedLogger, logSize * 2);
+    }
+    placedLogger[logSize] = placed;
+    flippedLogger[logSize] = flipped;
+    logSize++;
   }
 
   /**
-   * 指定した座標におけるフィールドのコマを取得する.
+   * 手番を次に移す. 盤面は公開しない.
+   */
+  private void switchTurn() {
+    currentTurn = PieceType.getEnemyType(currentTurn);
+    hash ^= Zobrist.turnKey();
+  }
+
+  /**
+   * 切り出した盤面を破棄する. 盤面を変更する処理の最後に呼ぶ.
+   */
+  private void invalidate() {
+    // 切り出していない間は書き込まない.
+    if (snapshot != null) {
+      snapshot = null;
+    }
+  }
+
+  /**
+   * 指定した色のコマの配置を返す.
    *
-   * @param coordinate コマの状態を取得する対象の座標
-   * @return コマの状態を保持するオブジェクト
+   * @param pieceType 黒または白
+   * @return コマの配置
    */
-  private Piece getFieldPieceAt(Coordinate coordinate) {
-    return field[coordinate.getRow()][coordinate.getCol()];
+  private long getBits(final PieceType pieceType) {
+    return pieceType == PieceType.BLACK ? black : white;
+  }
+
+  /**
+   * 指定したマスにおけるコマの状態を取得する.
+   *
+   * @param square コマの状態を取得する対象のマス番号
+   * @return コマの状態
+   */
+  private PieceType getStateAt(final int square) {
+    final long bit = 1L << square;
+    if ((black & bit) != 0) {
+      return PieceType.BLACK;
+    } else if ((white & bit) != 0) {
+      return PieceType.WHITE;
+    }
+    return PieceType.EMPTY;
   }
 
   /**
@@ -0,0 +1,157 @@
+package othello;
+
+/**
+ * ある時点の盤面と手番を保持する不変のクラス.
+ * <p>
+ * 黒と白のコマの配置をビット列で, 手番とハッシュ値とともに保持する. {@link Board#snapshot()} と {@link BitBoard#snapshot()}
+ * はコマの配置を複製せずに定数時間で生成する. インスタンスは変更されないため, 観戦者への配信や解析用のスレッド, AIの探索などで
+ * 元の盤面を複製したりロックしたりせずに共有できる.
+ * <p>
+ * マス番号とビットの対応は {@link Squares} を参照.
+ */
+public final class BoardSnapshot {
+
+  /**
+   * 黒のコマの配置.
+   */
+  private final long black;
+  /**
+   * 白のコマの配置.
+   */
+  private final long white;
+  /**
+   * 手番.
+   */
+  private final PieceType currentTurn;
+  /**
+   * 局面のハッシュ値.
+   *
+   * @see Zobrist
+   */
+  private final long hash;
+
+  /**
+   * コマの配置と手番を指定して生成する.
+   *
+   * @param black       黒のコマの配置
+   * @param white       白のコマの配置
+   * @param currentTurn 手番
+   * @throws IllegalArgumentException 黒と白のコマが重なっている場合, 手番が空きの場合
+   */
+  public BoardSnapshot(final long black, final long white, final PieceType currentTurn) {
+    this(black, white, currentTurn, hash(black, white, currentTurn));
+  }
+
+  /**
+   * 差分更新済みのハッシュ値を引き継いで生成する. 盤面から切り出す場合に使用する.
+   */
+  BoardSnapshot(final long black, final long white, final PieceType currentTurn,
+      final long hash) {
+    this.black = black;
+    this.white = white;
+    this.currentTurn = currentTurn;
+    this.hash = hash;
+  }
+
+  /**
+   * 引数を検査してハッシュ値を計算する.
+   *
+   * @param black       黒のコマの配置
+   * @param white       白のコマの配置
+   * @param currentTurn 手番
+   * @return ハッシュ値
+   * @throws IllegalArgumentException 黒と白のコマが重なっている場合, 手番が空きの場合
+   */
+  private static long hash(final long black, final long white, final PieceType currentTurn) {
+    if ((black & white) != 0) {
+      throw new IllegalArgumentException("黒と白のコマが重なっています");
+    }
+    if (currentTurn == PieceType.EMPTY) {
+      throw new IllegalArgumentException("手番に空きは指定できません");
+    }
+    return Zobrist.hash(black, white, currentTurn);
+  }
+
+  /**
+   * 手番を返す.
+   *
+   * @return 手番を表すコマの種類
+   */
+  public PieceType getCurrentTurn() {
+    return currentTurn;
+  }
+
+  /**
+   * 局面のハッシュ値を返す. 同じ盤面と手番の {@link Board#getHash()} と同じ値となる.
+   *
+   * @return 64bitのハッシュ値
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * 指定した種類のコマの配置を返す.
+   *
+   * @param pieceType コマの種類
+   * @return コマが置かれているマスのビットが立った値. 空きを指定した場合は空きマス
+   */
+  public long getBits(final PieceType pieceType) {
+    switch (pieceType) {
+      case BLACK:
+        return black;
+      case WHITE:
+        return white;
+      default:
+        return ~(black | white);
+    }
+  }
+
+  /**
+   * 手番がコマを置くことができるマスをすべて求める.
+   *
+   * @return コマを置くことができるマスのビットが立った値
+   */
+  public long getLegalMoves() {
+    return currentTurn == PieceType.BLACK
+        ? BitBoard.legalMoves(black, white)
+        : BitBoard.legalMoves(white, black);
+  }
+
+  /**
+   * 両者ともコマを置くことができないかどうかを判定する.
+   *
+   * @return 終局している場合 {@code true}
+   */
+  public boolean isGameOver() {
+    return BitBoard.legalMoves(black, white) == 0 && BitBoard.legalMoves(white, black) == 0;
+  }
+
+  /**
+   * 同じ盤面と手番を持つ, ログが空の {@link Board} を生成する.
+   *
+   * @return 盤面
+   */
+  public Board toBoard() {
+    final Board board = new Board();
+    board.setUp(black, white, currentTurn);
+    return board;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BoardSnapshot)) {
+      return false;
+    }
+    BoardSnapshot other = (BoardSnapshot) o;
+    return black == other.black && white == other.white && currentTurn == other.currentTurn;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(hash);
+  }
+}
@@ -2,6 +2,7 @@ package othello;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.reflect.InvocationTargetException;
@@ -109,24 +110,20 @@ class BoardTest {
 
   /**
    * 初期値の時点ではゲームオーバーではない コマが片方無くなったか、コマが白黒で埋まったかでゲームオーバー.
-   *
-   * @throws NoSuchFieldException   フィールド名がない場合.
-   * @throws IllegalAccessException アクセス権がない場合.
+   * <p>
+   * 判定の前後で手番と切り出した盤面は変わらない.
    */
   @org.junit.jupiter.api.Test
-  void isGameOver() throws NoSuchFieldException, IllegalAccessException {
+  void isGameOver() {
     boolean result = othello.isGameOver();
     assertFalse(result);
 
-    Class<?> ref = othello.getClass();
-    java.lang.reflect.Field field = ref.getDeclaredField("field");
-    field.setAccessible(true);
-    Piece[][] pieces = (Piece[][]) field.get(othello);
-    pieces[3][3].setState(PieceType.BLACK);
-    pieces[4][4].setState(PieceType.BLACK);
-
+    othello.setUp(allBlackCenter(), 0L, PieceType.BLACK);
+    BoardSnapshot before = othello.snapshot();
     result = othello.isGameOver();
     assertTrue(result);
+    assertEquals(PieceType.BLACK, othello.getCurrentTurn());
+    assertSame(before, othello.snapshot());
   }
 
   @org.junit.jupiter.api.Test
@@ -134,16 +131,11 @@ class BoardTest {
   }
 
   @org.junit.jupiter.api.Test
-  void canPutForCurrentTurn() throws NoSuchFieldException, IllegalAccessException {
+  void canPutForCurrentTurn() {
     boolean canPut = othello.canPutForCurrentTurn();
     assertTrue(canPut);
 
-    Class<?> othelloClass = othello.getClass();
-    java.lang.reflect.Field ref = othelloClass.getDeclaredField("field");
-    ref.setAccessible(true);
-    Piece[][] field = (Piece[][]) ref.get(othello);
-    field[3][3].setState(PieceType.BLACK);
-    field[4][4].setState(PieceType.BLACK);
+    othello.setUp(allBlackCenter(), 0L, PieceType.BLACK);
 
     canPut = othello.canPutForCurrentTurn();
     assertFalse(canPut);
@@ -158,31 +150,99 @@ class BoardTest {
     assertFalse(canPut);
   }
 
+  /**
+   * 初期状態の黒の合法手は4つで, canPutPieceの結果と一致する.
+   */
+  @org.junit.jupiter.api.Test
+  void getLegalMoves() {
+    long moves = othello.getLegalMoves();
+    assertEquals(4, Long.bitCount(moves));
+
+    for (int r = 0; r < 8; r++) {
+      for (int c = 0; c < 8; c++) {
+        boolean inMask = (moves & 1L << Squares.toSquare(r, c)) != 0;
+        assertEquals(othello.canPutPiece(Coordinate.valueOf(r, c)), inMask);
+      }
+    }
+  }
+
+  /**
+   * ハッシュ値はコマを置くと変化し, 戻すと元の値に戻る. また最初から計算した値と一致する.
+   */
+  @org.junit.jupiter.api.Test
+  void getHash() {
+    long initial = othello.getHash();
+
+    othello.processToPutPiece(Coordinate.valueOf(4, 5));
+    othello.nextTurn();
+    long black = 0L;
+    long white = 1L << Squares.toSquare(3, 3);
+    for (int[] rc : new int[][]{{3, 4}, {4, 3}, {4, 4}, {4, 5}}) {
+      black |= 1L << Squares.toSquare(rc[0], rc[1]);
+    }
+    assertEquals(Zobrist.hash(black, white, PieceType.WHITE), othello.getHash());
+
+    othello.goBack(1);
+    assertEquals(initial, othello.getHash());
+  }
+
+  /**
+   * 切り出した盤面はコマを置いても戻しても, 同じ時点のフィールドを走査した結果と一致し, 後の変更の影響を受けない.
+   * 変更するまでは同じオブジェクトが返る.
+   */
+  @org.junit.jupiter.api.Test
+  void snapshot() {
+    BoardSnapshot initial = othello.snapshot();
+    // 盤面を変更するまでは同じオブジェクトを使い回す.
+    assertSame(initial, othello.snapshot());
+
+    othello.processToPutPiece(Coordinate.valueOf(4, 5));
+    othello.nextTurn();
+    othello.processToPutPiece(Coordinate.valueOf(5, 5));
+    othello.nextTurn();
+    BoardSnapshot played = othello.snapshot();
+    Piece[][] field = othello.cloneField();
+    long black = 0L;
+    long white = 0L;
+    for (int r = 0; r < 8; r++) {
+      for (int c = 0; c < 8; c++) {
+        if (field[r][c].getState() == PieceType.BLACK) {
+          black |= 1L << Squares.toSquare(r, c);
+        } else if (field[r][c].getState() == PieceType.WHITE) {
+          white |= 1L << Squares.toSquare(r, c);
+        }
+      }
+    }
+    assertEquals(new BoardSnapshot(black, white, othello.getCurrentTurn()), played);
+    assertEquals(othello.getHash(), played.getHash());
+    assertEquals(othello.getLegalMoves(), played.getLegalMoves());
+
+    othello.goBack(2);
+    assertEquals(initial, othello.snapshot());
+    assertEquals(60, Long.bitCount(initial.getBits(PieceType.EMPTY)));
+    assertEquals(played, played.toBoard().snapshot());
+  }
+
   @org.junit.jupiter.api.Test
   void flipPiecesFromPlaced() {
   }
 
   @Ignore
   @org.junit.jupiter.api.Test
-  void putPiece() throws NoSuchFieldException, IllegalAccessException {
-    Class<?> othelloClass = othello.getClass();
-    java.lang.reflect.Field ref = othelloClass.getDeclaredField("field");
-    ref.setAccessible(true);
-    Piece[][] field = (Piece[][]) ref.get(othello);
-    field[4][5].setState(PieceType.BLACK);
+  void putPiece() {
+    othello.processToPutPiece(Coordinate.valueOf(4, 5));
 
-    assertEquals(PieceType.BLACK, field[4][5].getState());
+    assertEquals(PieceType.BLACK, othello.cloneField()[4][5].getState());
   }
 
   @org.junit.jupiter.api.Test
   void testExistOwnPieceAhead() throws NoSuchMethodException,
       InvocationTargetException,
-      IllegalAccessException, NoSuchFieldException {
+      IllegalAccessException {
     Class<?> othelloClass = othello.getClass();
-    java.lang.reflect.Field refField = othelloClass.getDeclaredField("field");
-    refField.setAccessible(true);
-    Piece[][] field = (Piece[][]) refField.get(othello);
-    field[4][5].setState(PieceType.BLACK);
+    BoardSnapshot initial = othello.snapshot();
+    othello.setUp(initial.getBits(PieceType.BLACK) | 1L << Squares.toSquare(4, 5),
+        initial.getBits(PieceType.WHITE), PieceType.BLACK);
     Method refMethod = othelloClass.getDeclaredMethod("existOwnPieceAhead",
         Coordinate.class,
         Vector.class);
@@ -207,5 +267,15 @@ class BoardTest {
     assertEquals(expected.get(PieceType.EMPTY), 60);
   }
 
+  /**
+   * 中央の4マスがすべて黒の配置を返す. どちらの手番も置くことができない.
+   *
+   * @return 黒のコマの配置
+   */
+  private static long allBlackCenter() {
+    return 1L << Squares.toSquare(3, 3) | 1L << Squares.toSquare(3, 4)
+        | 1L << Squares.toSquare(4, 3) | 1L << Squares.toSquare(4, 4);
+  }
+
 
 }
\ No newline at end of file
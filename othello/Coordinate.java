@@ -1,9 +1,5 @@
 package othello;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * 座標を表すクラス.
  * <p>
@@ -12,9 +8,17 @@ import java.util.List;
 public final class Coordinate implements Comparable<Coordinate> {
 
   /**
-   * 生成された座標を保持するリスト.
+   * フィールドの行数.
+   */
+  private static final int ROW = 8;
+  /**
+   * フィールドの列数.
+   */
+  private static final int COL = 8;
+  /**
+   * フィールド内の全座標. クラスの読み込み時に生成し, 以降は変更しない.
    */
-  private static final List<Coordinate> coordinates = new ArrayList<>();
+  private static final Coordinate[][] coordinates = new Coordinate[ROW][COL];
   /**
    * 行番号.
    */
@@ -35,56 +39,29 @@ public final class Coordinate implements Comparable<Coordinate> {
     this.col = col;
   }
 
+  static {
+    for (int r = 0; r < ROW; r++) {
+      for (int c = 0; c < COL; c++) {
+        coordinates[r][c] = new Coordinate(r, c);
+      }
+    }
+  }
+
   /**
    * 本インスタンスを返すファクトリメソッド.
    * <p>
-   * 指定した行番号と列番号に一致するオブジェクトがすでに保持されている場合それを返す. 新規であれば新しくオブジェクトを生成して返す.
+   * フィールド内の座標は事前に生成したオブジェクトを返すため, 同じ座標は常に同じオブジェクトとなる. フィールド外の座標は保持せず,
+   * 呼び出しのたびに新しいオブジェクトを生成して返す. いずれの場合もロックは取得しないため, 複数のスレッドから同時に呼び出すことができる.
    *
    * @param row 行番号
    * @param col 列番号
    * @return インスタンス
    */
-  synchronized public static Coordinate valueOf(final int row, final int col) {
-    int index = binarySearch(row, col);
-    if (index >= 0) {
-      return coordinates.get(index);
-    }
-
-    Coordinate newCoordinate = new Coordinate(row, col);
-    coordinates.add(newCoordinate);
-    Collections.sort(coordinates);
-    return newCoordinate;
-  }
-
-  /**
-   * 指定した行番号と列番号を持つ座標を二分探索する.
-   *
-   * @param row 探索する行番号
-   * @param col 探索する列番号
-   * @return 見つかった場合そのインデックス, そうでない場合は-1
-   */
-  private static int binarySearch(final int row, final int col) {
-    int low = 0;
-    int high = coordinates.size() - 1;
-
-    while (low <= high) {
-      int mid = (low + high) / 2;
-      Coordinate target = coordinates.get(mid);
-      if (target.getRow() < row) {
-        low = mid + 1;
-      } else if (target.getRow() > row) {
-        high = mid - 1;
-      } else {
-        if (target.getCol() < col) {
-          low = mid + 1;
-        } else if (target.getCol() > col) {
-          high = mid - 1;
-        } else {
-          return mid;
-        }
-      }
+  public static Coordinate valueOf(final int row, final int col) {
+    if (0 <= row && row < ROW && 0 <= col && col < COL) {
+      return coordinates[row][col];
     }
-    return -(low + 1);
+    return new Coordinate(row, col);
   }
 
   /**
@@ -135,6 +112,36 @@ public final class Coordinate implements Comparable<Coordinate> {
     }
   }
 
+  /**
+   * 行番号と列番号が等しいかどうかを判定する.
+   * <p>
+   * フィールド外の座標は同じ値でも別のオブジェクトとなるため, 比較には本メソッドを使用する.
+   *
+   * @param o 比較対象
+   * @return 行番号と列番号が等しい場合 {@code true}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Coordinate)) {
+      return false;
+    }
+    Coordinate other = (Coordinate) o;
+    return row == other.row && col == other.col;
+  }
+
+  /**
+   * ハッシュ値を返す.
+   *
+   * @return 行番号と列番号から求めたハッシュ値
+   */
+  @Override
+  public int hashCode() {
+    return 31 * row + col;
+  }
+
   /**
    * 座標の情報を返す.
    *
@@ -0,0 +1,300 @@
+package othello;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import othello.strategy.SearchScheduler;
+import othello.strategy.StrategyInterface;
+
+/**
+ * 1つのプロセスで多数の対局を同時に受け持つ対局サーバ.
+ * <p>
+ * ローカルのソケットで接続を待ち受け, 接続ごとに1つの {@link GameSession} が1局ずつ盤面を保持する. 接続の読み書きは接続ごとのスレッドで行い,
+ * Java 21以降では仮想スレッドを使用するため, 同時に数千の接続を保持できる. AIの思考は接続のスレッドとは別に {@link SearchScheduler}
+ * で固定数のスレッドに割り当て, 思考の遅い対局があっても接続の読み書きが滞らないようにする. 思考を待つ手が増えると探索の深さを下げる.
+ * 対局は始めるときに思考の待ち行列の枠を1つ予約し, 終局または切断まで保持する. 同時に行える対局の数は待ち行列の長さの上限までとなり,
+ * 枠が残っていない間は新しい対局を受け付けない. 始まった対局は混雑により打ち切られることはない.
+ * AIのインスタンスは思考用のスレッドごと, 戦略とコマの種類ごとに生成し, 対局をまたいで使い回す.
+ * <p>
+ * 通信は1行1コマンドのテキスト(UTF-8)で行う. 行と列は {@link othello.strategy.Player} の入力と同じく, 行を a～h, 列を 1～8 で表す.
+ * <pre>
+ * クライアント → サーバ
+ *   NEW 色 戦略     新しい対局を始める. 色はクライアントの色(X: 黒, O: 白), 戦略はAIの戦略(weak, normal, strong, pvs, pattern. 例: strong:4. 深さは1～60)
+ *   MOVE 行 列      コマを置く(例: MOVE c 4)
+ *   BOARD           盤面を問い合わせる
+ *   STATS           思考の待ち状況を問い合わせる
+ *   QUIT            切断する
+ * サーバ → クライアント
+ *   OK              コマンドを受け付けた
+ *   MOVE 行 列      AIがコマを置いた
+ *   PASS 色         手番の色が置けないためパスした
+ *   TURN 色         クライアントの手番になった
+ *   END 黒の数 白の数 対局が終了した
+ *   BOARD 盤面 手番  盤面(X: 黒, O: 白, -: 空き. A1, A2, ..., H8の順の64文字)と手番
+ *   STATS 待ち数 思考中の数 平均待ち時間 最大待ち時間 拒否数
+ *                   思考の待ち行列の長さ, 思考中の手の数, 待ち時間(ミリ秒), 混雑のため受け付けなかった対局の数
+ *   ERROR 理由      コマンドを受け付けられなかった. 混雑している間のNEWもこれを返し, 対局は始まらない
+ * </pre>
+ * <p>
+ * 使い方:
+ * <pre>
+ * java othello.GameServer [-port ポート番号] [-threads 思考スレッド数] [-time ミリ秒] [-queue 待ち数]
+ * </pre>
+ * <ul>
+ * <li>-port: 待ち受けるポート番号. 既定は {@value #DEFAULT_PORT}</li>
+ * <li>-threads: AIの思考に使用するスレッド数. 既定はCPUのコア数</li>
+ * <li>-time: AIの1手あたりの探索時間の上限(ミリ秒). 既定は {@value #DEFAULT_TIME_LIMIT_MILLIS}</li>
+ * <li>-queue: 思考の待ち行列の長さの上限. 同時に行える対局の数の上限を兼ねる. 既定は {@value #DEFAULT_QUEUE_CAPACITY}</li>
+ * </ul>
+ */
+public final class GameServer implements Closeable {
+
+  /**
+   * 既定のポート番号.
+   */
+  private static final int DEFAULT_PORT = 5000;
+  /**
+   * 既定のAIの1手あたりの探索時間の上限(ミリ秒).
+   */
+  private static final long DEFAULT_TIME_LIMIT_MILLIS = 1000L;
+  /**
+   * 既定の思考の待ち行列の長さの上限.
+   */
+  private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+  /**
+   * 接続の待ち行列の長さ.
+   */
+  private static final int BACKLOG = 1024;
+  /**
+   * 思考用のスレッドごとに保持するAIの数の上限. AIはそれぞれ置換表を持つため, 使われていないものから破棄する.
+   */
+  private static final int MAX_ENGINES_PER_THREAD = 8;
+  /**
+   * 接続を待ち受けるソケット.
+   */
+  private final ServerSocket serverSocket;
+  /**
+   * 接続ごとの読み書きを行うスレッド.
+   */
+  private final ExecutorService sessions;
+  /**
+   * AIの思考を割り当てるスケジューラ.
+   */
+  private final SearchScheduler scheduler;
+  /**
+   * 思考用のスレッドごとの, 揃えた戦略の名前とコマの種類に対応するAI. 最近使われた順に {@value #MAX_ENGINES_PER_THREAD} 個まで保持する.
+   */
+  private final ThreadLocal<Map<String, StrategyInterface>> engines =
+      ThreadLocal.withInitial(GameServer::newEngineCache);
+  /**
+   * AIの1手あたりの探索時間の上限(ミリ秒).
+   */
+  private final long timeLimitMillis;
+  /**
+   * 接続中のセッションの数.
+   */
+  private final AtomicInteger activeSessions = new AtomicInteger();
+
+  /**
+   * 待ち受けるポートと思考の条件を指定して生成する. 接続は {@link #serve()} を呼ぶまで受け付けない.
+   *
+   * @param port            ポート番号. 0の場合は空いているポートを使用する
+   * @param threads         AIの思考に使用するスレッド数
+   * @param timeLimitMillis AIの1手あたりの探索時間の上限(ミリ秒)
+   * @param queueCapacity   思考の待ち行列の長さの上限. 同時に行える対局の数の上限を兼ねる
+   * @throws IOException 待ち受けを開始できない場合
+   */
+  public GameServer(int port, int threads, long timeLimitMillis, int queueCapacity)
+      throws IOException {
+    this.scheduler = new SearchScheduler(threads, queueCapacity);
+    this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    this.sessions = newSessionExecutor();
+    this.timeLimitMillis = timeLimitMillis;
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = DEFAULT_PORT;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long timeLimitMillis = DEFAULT_TIME_LIMIT_MILLIS;
+    int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "-port":
+          port = Integer.parseInt(args[++i]);
+          break;
+        case "-threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        case "-time":
+          timeLimitMillis = Long.parseLong(args[++i]);
+          break;
+        case "-queue":
+          queueCapacity = Integer.parseInt(args[++i]);
+          break;
+        default:
+          printUsage();
+          return;
+      }
+    }
+
+    try (GameServer server = new GameServer(port, threads, timeLimitMillis, queueCapacity)) {
+      System.out.println("ポート " + server.getPort() + " で接続を待ち受けます");
+      server.serve();
+    }
+  }
+
+  /**
+   * 接続ごとのスレッドを実行するエグゼキュータを生成する.
+   * <p>
+   * 仮想スレッドはJava 21以降でのみ使用できるため, リフレクションで取得する. 使用できない場合は接続ごとに通常のスレッドを生成する.
+   *
+   * @return エグゼキュータ
+   */
+  private static ExecutorService newSessionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "GameServer-session");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * 思考用のスレッドで使用するAIの入れ物を生成する. 上限を超えると最も長く使われていないAIを破棄する.
+   *
+   * @return AIの入れ物
+   */
+  private static Map<String, StrategyInterface> newEngineCache() {
+    return new LinkedHashMap<String, StrategyInterface>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, StrategyInterface> eldest) {
+        return size() > MAX_ENGINES_PER_THREAD;
+      }
+    };
+  }
+
+  /**
+   * 待ち受けているポート番号を返す.
+   *
+   * @return ポート番号
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * 接続中のセッションの数を返す.
+   *
+   * @return セッションの数
+   */
+  public int getActiveSessions() {
+    return activeSessions.get();
+  }
+
+  /**
+   * AIの思考を割り当てるスケジューラを返す. 待ち行列の長さと待ち時間の確認に使用する.
+   *
+   * @return スケジューラ
+   */
+  public SearchScheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * {@link #close()} が呼ばれるまで接続を受け付ける.
+   *
+   * @throws IOException 接続の受け付けに失敗した場合
+   */
+  public void serve() throws IOException {
+    while (!serverSocket.isClosed()) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (SocketException e) {
+        // close() によりソケットが閉じられた.
+        if (serverSocket.isClosed()) {
+          return;
+        }
+        throw e;
+      }
+      activeSessions.incrementAndGet();
+      sessions.execute(() -> {
+        try {
+          new GameSession(socket, this).run();
+        } finally {
+          activeSessions.decrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * AIにコマを置く座標を決めさせる.
+   * <p>
+   * 思考はスケジューラに依頼し, 呼び出し元のスレッドは結果が出るまで待つ. 1手あたりの探索時間の上限を期限とするため,
+   * 待ち時間が長いほど探索は浅くなる. 盤面は思考が終わるまで変更しないこと. 呼び出し元は対局の開始時に
+   * {@link SearchScheduler#tryReserve()} で枠を予約しておくこと.
+   *
+   * @param name    戦略の名前
+   * @param me      AIのコマの種類
+   * @param othello 盤面
+   * @return コマを置く座標
+   * @throws InterruptedException 待っている間に割り込まれた場合
+   * @throws IllegalArgumentException 該当する戦略がない場合, 探索の深さが範囲外の場合
+   * @throws IllegalStateException AIの生成中または思考中にエラーが発生した場合
+   * @throws RejectedExecutionException スケジューラが終了している場合
+   */
+  Coordinate think(final String name, final PieceType me, final Board othello)
+      throws InterruptedException {
+    // 表記の揺れごとにAIを作らないよう, 揃えた名前で引く.
+    final String normalized = Tournament.normalize(name);
+    final Function<PieceType, StrategyInterface> factory =
+        Tournament.engine(normalized, timeLimitMillis);
+    final Future<Coordinate> future = scheduler.submit(() -> engines.get()
+        .computeIfAbsent(normalized + " " + me, key -> factory.apply(me)), othello,
+        System.nanoTime() + timeLimitMillis * 1_000_000);
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("AIの思考中にエラーが発生しました", e.getCause());
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    }
+  }
+
+  /**
+   * 接続の受け付けを終了し, 接続ごとのスレッドと思考用のスレッドを停止する.
+   *
+   * @throws IOException ソケットを閉じられない場合
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    sessions.shutdownNow();
+    scheduler.close();
+  }
+
+  /**
+   * 使い方を表示する.
+   */
+  private static void printUsage() {
+    System.out.println("使い方: java othello.GameServer [-port ポート番号] [-threads 思考スレッド数] [-time ミリ秒] [-queue 待ち数]");
+  }
+}
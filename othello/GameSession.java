@@ -0,0 +1,280 @@
+package othello;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import othello.strategy.SearchScheduler;
+
+/**
+ * 対局サーバの1つの接続を受け持ち, コマンドに従って対局を進めるクラス.
+ * <p>
+ * コマンドの形式は {@link GameServer} を参照. 1つのインスタンスは1つの接続のスレッドからのみ使用する.
+ */
+final class GameSession implements Runnable {
+
+  /**
+   * 接続.
+   */
+  private final Socket socket;
+  /**
+   * AIの思考を依頼するサーバ.
+   */
+  private final GameServer server;
+  /**
+   * 応答の書き込み先.
+   */
+  private PrintWriter out;
+  /**
+   * 対局中の盤面. 対局していない場合は {@code null}.
+   */
+  private Board board;
+  /**
+   * AIのコマの種類.
+   */
+  private PieceType aiColor;
+  /**
+   * AIの戦略の名前. {@link Tournament#normalize(String)} で揃えたもの.
+   */
+  private String engine;
+  /**
+   * 思考の枠を予約している場合 {@code true}. 対局を始めるときに予約し, 終局または切断で返す.
+   */
+  private boolean reserved;
+
+  GameSession(final Socket socket, final GameServer server) {
+    this.socket = socket;
+    this.server = server;
+  }
+
+  @Override
+  public void run() {
+    try (Socket closing = socket;
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(closing.getInputStream(), StandardCharsets.UTF_8))) {
+      out = new PrintWriter(new OutputStreamWriter(closing.getOutputStream(),
+          StandardCharsets.UTF_8), true);
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (!handle(line.trim().split("\\s+"))) {
+          return;
+        }
+      }
+    } catch (IOException e) {
+      // 接続が切れた場合はセッションを終了する.
+    } catch (InterruptedException e) {
+      // サーバの停止により割り込まれた.
+      Thread.currentThread().interrupt();
+    } finally {
+      finish();
+    }
+  }
+
+  /**
+   * コマンドを1つ処理する.
+   *
+   * @param tokens 空白で区切ったコマンド
+   * @return 接続を続ける場合 {@code true}
+   * @throws InterruptedException AIの思考を待つ間に割り込まれた場合
+   */
+  private boolean handle(final String[] tokens) throws InterruptedException {
+    switch (tokens[0].toUpperCase(Locale.ROOT)) {
+      case "NEW":
+        start(tokens);
+        return true;
+      case "MOVE":
+        move(tokens);
+        return true;
+      case "BOARD":
+        out.println(board == null ? "ERROR 対局していません" : "BOARD " + describe(board));
+        return true;
+      case "STATS":
+        out.println("STATS " + describe(server.getScheduler()));
+        return true;
+      case "QUIT":
+        out.println("OK");
+        return false;
+      default:
+        out.println("ERROR 不明なコマンドです: " + tokens[0]);
+        return true;
+    }
+  }
+
+  /**
+   * 新しい対局を始める.
+   *
+   * @param tokens NEW 色 戦略
+   * @throws InterruptedException AIの思考を待つ間に割り込まれた場合
+   */
+  private void start(final String[] tokens) throws InterruptedException {
+    if (tokens.length != 3 || toPieceType(tokens[1]) == null) {
+      out.println("ERROR 形式: NEW 色(X または O) 戦略");
+      return;
+    }
+    final String name;
+    try {
+      name = Tournament.normalize(tokens[2]);
+    } catch (IllegalArgumentException e) {
+      out.println("ERROR " + e.getMessage());
+      return;
+    }
+    // 対局中に思考が拒否されないよう, 枠を予約できない間は新しい対局を受け付けない.
+    if (!reserved && !server.getScheduler().tryReserve()) {
+      out.println("ERROR 混雑しているため対局を開始できません");
+      return;
+    }
+    reserved = true;
+    board = new Board();
+    aiColor = PieceType.getEnemyType(toPieceType(tokens[1]));
+    engine = name;
+    out.println("OK");
+    advance();
+  }
+
+  /**
+   * クライアントのコマを置く.
+   *
+   * @param tokens MOVE 行 列
+   * @throws InterruptedException AIの思考を待つ間に割り込まれた場合
+   */
+  private void move(final String[] tokens) throws InterruptedException {
+    if (board == null) {
+      out.println("ERROR 対局していません");
+      return;
+    }
+    if (tokens.length != 3) {
+      out.println("ERROR 形式: MOVE 行 列");
+      return;
+    }
+    final Coordinate coordinate =
+        Coordinate.valueOf(Board.toRowNumber(tokens[1]), Board.toColNumber(tokens[2]));
+    if (!board.canPutPiece(coordinate)) {
+      out.println("ERROR 置くことができません");
+      return;
+    }
+    board.processToPutPiece(coordinate);
+    board.nextTurn();
+    out.println("OK");
+    advance();
+  }
+
+  /**
+   * クライアントの手番になるか終局するまで, パスとAIの手を進める.
+   *
+   * @throws InterruptedException AIの思考を待つ間に割り込まれた場合
+   */
+  private void advance() throws InterruptedException {
+    while (true) {
+      if (board.isGameOver()) {
+        final Map<PieceType, Integer> counts = board.getEachPiecesCnt();
+        out.println("END " + counts.get(PieceType.BLACK) + " " + counts.get(PieceType.WHITE));
+        finish();
+        return;
+      }
+      if (!board.canPutForCurrentTurn()) {
+        out.println("PASS " + toSymbol(board.getCurrentTurn()));
+        board.nextTurn();
+        continue;
+      }
+      if (board.getCurrentTurn() != aiColor) {
+        out.println("TURN " + toSymbol(board.getCurrentTurn()));
+        return;
+      }
+      final Coordinate coordinate;
+      try {
+        coordinate = server.think(engine, aiColor, board);
+      } catch (RejectedExecutionException e) {
+        // 枠を予約しているため, 拒否されるのはサーバを停止した場合のみ.
+        out.println("ERROR サーバを停止しているため対局を終了します");
+        finish();
+        return;
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        out.println("ERROR AIの思考中にエラーが発生したため対局を終了します");
+        finish();
+        return;
+      }
+      board.processToPutPiece(coordinate);
+      board.nextTurn();
+      out.println("MOVE " + (char) ('a' + coordinate.getRow()) + " " + (coordinate.getCol() + 1));
+    }
+  }
+
+  /**
+   * 対局を終え, 予約している思考の枠を返す.
+   */
+  private void finish() {
+    board = null;
+    if (reserved) {
+      reserved = false;
+      server.getScheduler().release();
+    }
+  }
+
+  /**
+   * 盤面と手番を文字列で表す.
+   *
+   * @param othello 盤面
+   * @return 64文字の盤面と手番を空白で区切った文字列
+   */
+  private static String describe(final Board othello) {
+    final BoardSnapshot snapshot = othello.snapshot();
+    final long black = snapshot.getBits(PieceType.BLACK);
+    final long white = snapshot.getBits(PieceType.WHITE);
+    final StringBuilder builder = new StringBuilder(Squares.SIZE + 2);
+    for (int square = 0; square < Squares.SIZE; square++) {
+      if ((black & 1L << square) != 0) {
+        builder.append('X');
+      } else if ((white & 1L << square) != 0) {
+        builder.append('O');
+      } else {
+        builder.append('-');
+      }
+    }
+    return builder.append(' ').append(toSymbol(othello.getCurrentTurn())).toString();
+  }
+
+  /**
+   * 思考の待ち状況を文字列で表す.
+   *
+   * @param scheduler スケジューラ
+   * @return 待ち数, 思考中の数, 平均と最大の待ち時間(ミリ秒), 拒否数を空白で区切った文字列
+   */
+  private static String describe(final SearchScheduler scheduler) {
+    return String.format(Locale.ROOT, "%d %d %.1f %.1f %d", scheduler.getQueueLength(),
+        scheduler.getInFlight(), scheduler.getAverageWaitMillis(), scheduler.getMaxWaitMillis(),
+        scheduler.getRejected());
+  }
+
+  /**
+   * 色を表す記号をコマの種類に変換する.
+   *
+   * @param symbol X または O
+   * @return コマの種類. 該当しない場合は {@code null}
+   */
+  private static PieceType toPieceType(final String symbol) {
+    switch (symbol.toUpperCase(Locale.ROOT)) {
+      case "X":
+        return PieceType.BLACK;
+      case "O":
+        return PieceType.WHITE;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * コマの種類を色を表す記号に変換する.
+   *
+   * @param pieceType コマの種類
+   * @return X または O
+   */
+  private static String toSymbol(final PieceType pieceType) {
+    return pieceType == PieceType.BLACK ? "X" : "O";
+  }
+}
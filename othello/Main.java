@@ -1,15 +1,22 @@
 package othello;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import othello.record.GameRecord;
+import othello.record.GameRecordWriter;
 import othello.strategy.GameMode;
 import othello.strategy.StrategyMgr;
 
 /**
  * オセロのゲームを進行するメインクラス.
+ * <p>
+ * 引数に棋譜ファイルを指定すると, 終局後に対局の棋譜を追記する.
  */
 public class Main {
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     Board othello = new Board();
+    final long startedAt = System.currentTimeMillis();
 
     System.out.println("ゲーム開始");
     StrategyMgr strategyMgr = new StrategyMgr(GameMode.choiceGameMode());
@@ -42,6 +49,14 @@ public class Main {
     }
 
     System.out.println("ゲーム終了");
+
+    if (args.length > 0) {
+      try (GameRecordWriter records = new GameRecordWriter(Paths.get(args[0]), true)) {
+        records.write(GameRecord.of(strategyMgr.getName(PieceType.BLACK),
+            strategyMgr.getName(PieceType.WHITE), startedAt, othello));
+      }
+      System.out.println("棋譜を " + args[0] + " に書き出しました");
+    }
   }
 }
 
@@ -0,0 +1,272 @@
+package othello;
+
+import java.util.Locale;
+
+/**
+ * 指定した深さまでの末端局面の数を数える(perft)ツール.
+ * <p>
+ * 合法手の生成とコマの反転が正しいかを既知の局面数と照合して確認するとともに, 1秒あたりの局面数で盤面操作の速度を測る. 手番側が置けない場合はパスを1手として数え,
+ * 指定した深さより前に終局した局面はその時点で末端局面として数える.
+ * <p>
+ * 使い方:
+ * <pre>
+ * java othello.Perft [-divide] [-verify] [-position 盤面 手番] 深さ
+ * </pre>
+ * <ul>
+ * <li>-divide: ルートの手ごとの局面数を表示する</li>
+ * <li>-verify: {@link BitBoard} と {@link Board} を並行して動かし, 全局面で合法手と盤面が一致することを確かめる</li>
+ * <li>-position: 開始局面を64文字の盤面(X: 黒, O: 白, -: 空き. A1, A2, ..., H8の順)と手番(X または O)で指定する</li>
+ * </ul>
+ */
+public final class Perft {
+
+  /**
+   * 初期局面からの既知の局面数. 添字が深さを表す.
+   */
+  private static final long[] KNOWN_COUNTS = {
+      1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L,
+      212258800L, 1939886636L, 18429641748L
+  };
+
+  private Perft() {
+    // インスタンス化しない
+  }
+
+  public static void main(String[] args) {
+    boolean divide = false;
+    boolean verify = false;
+    BitBoard board = new BitBoard();
+    boolean isInitial = true;
+    int depth = -1;
+
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "-divide":
+          divide = true;
+          break;
+        case "-verify":
+          verify = true;
+          break;
+        case "-position":
+          if (i + 2 >= args.length) {
+            printUsage();
+            return;
+          }
+          board = parse(args[i + 1], args[i + 2]);
+          isInitial = false;
+          i += 2;
+          break;
+        default:
+          depth = Integer.parseInt(args[i]);
+      }
+    }
+    if (depth < 0) {
+      printUsage();
+      return;
+    }
+
+    board.printField();
+    final long start = System.nanoTime();
+    final long nodes;
+    if (verify) {
+      nodes = verify(toBoard(board), board, depth);
+    } else if (divide) {
+      nodes = divide(board, depth);
+    } else {
+      nodes = perft(board, depth);
+    }
+    final double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.println(String.format(Locale.ROOT, "深さ %d: %d 局面 (%.3f 秒, %.0f 局面/秒)",
+        depth, nodes, seconds, nodes / Math.max(seconds, 1e-9)));
+    if (isInitial && depth < KNOWN_COUNTS.length) {
+      System.out.println(nodes == KNOWN_COUNTS[depth]
+          ? "既知の局面数と一致しました"
+          : "既知の局面数 " + KNOWN_COUNTS[depth] + " と一致しません");
+    }
+  }
+
+  /**
+   * 指定した深さまでの末端局面の数を数える.
+   *
+   * @param board 開始局面. 処理後は元の状態に戻る
+   * @param depth 深さ
+   * @return 末端局面の数
+   */
+  public static long perft(final BitBoard board, final int depth) {
+    if (depth == 0) {
+      return 1;
+    }
+    final long moves = board.getLegalMoves();
+    if (moves == 0) {
+      board.makePass();
+      // パスした側も置けなければ終局.
+      final long nodes = board.getLegalMoves() == 0 ? 1 : perft(board, depth - 1);
+      board.unmakeMove();
+      return nodes;
+    }
+    if (depth == 1) {
+      return Long.bitCount(moves);
+    }
+
+    long nodes = 0;
+    for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+      board.makeMove(Squares.first(rest));
+      nodes += perft(board, depth - 1);
+      board.unmakeMove();
+    }
+    return nodes;
+  }
+
+  /**
+   * 既知の局面数を返す.
+   *
+   * @param depth 初期局面からの深さ
+   * @return 局面数. 不明な場合は -1
+   */
+  public static long knownCount(final int depth) {
+    if (depth < 0 || depth >= KNOWN_COUNTS.length) {
+      return -1;
+    }
+    return KNOWN_COUNTS[depth];
+  }
+
+  /**
+   * ルートの手ごとに局面数を数えて表示する.
+   *
+   * @param board 開始局面
+   * @param depth 深さ
+   * @return 末端局面の合計
+   */
+  private static long divide(final BitBoard board, final int depth) {
+    final long moves = board.getLegalMoves();
+    if (depth == 0 || moves == 0) {
+      return perft(board, depth);
+    }
+
+    long nodes = 0;
+    for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      board.makeMove(square);
+      final long count = perft(board, depth - 1);
+      board.unmakeMove();
+
+      board.printPutCoordinate(Squares.toCoordinate(square));
+      System.out.println("  " + count);
+      nodes += count;
+    }
+    return nodes;
+  }
+
+  /**
+   * {@link Board} と {@link BitBoard} を並行して動かしながら局面数を数え, 各局面で合法手と盤面が一致するかを確かめる.
+   * <p>
+   * {@link Board} の合法手は座標ごとに {@link Board#canPutPiece(Coordinate)} で調べ, コマの反転は
+   * {@link Board#processToPutPiece(Coordinate)} の結果を用いる.
+   *
+   * @param reference 照合の基準とする盤面
+   * @param board     検証対象のビットボード
+   * @param depth     深さ
+   * @return 末端局面の数
+   * @throws IllegalStateException 不一致が見つかった場合
+   */
+  static long verify(final Board reference, final BitBoard board, final int depth) {
+    long referenceMoves = 0L;
+    for (int square = 0; square < Squares.SIZE; square++) {
+      if (reference.canPutPiece(Squares.toCoordinate(square))) {
+        referenceMoves |= 1L << square;
+      }
+    }
+    final long moves = board.getLegalMoves();
+    if (moves != referenceMoves) {
+      throw new IllegalStateException("合法手が一致しません" + System.lineSeparator() + board);
+    }
+    if (depth == 0) {
+      return 1;
+    }
+
+    if (moves == 0) {
+      reference.nextTurn();
+      board.makePass();
+      final long nodes = board.getLegalMoves() == 0 ? 1 : verify(reference, board, depth - 1);
+      board.unmakeMove();
+      reference.nextTurn();
+      return nodes;
+    }
+
+    long nodes = 0;
+    for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      reference.processToPutPiece(Squares.toCoordinate(square));
+      reference.nextTurn();
+      board.makeMove(square);
+      if (!reference.toString().equals(board.toString())
+          || reference.getHash() != board.getHash()) {
+        throw new IllegalStateException("盤面が一致しません" + System.lineSeparator() + board);
+      }
+
+      nodes += verify(reference, board, depth - 1);
+      board.unmakeMove();
+      reference.goBack(1);
+    }
+    return nodes;
+  }
+
+  /**
+   * 文字列で表した盤面と手番からビットボードを生成する.
+   *
+   * @param field 64文字の盤面. X: 黒, O: 白, -: 空き
+   * @param turn  手番. X または O
+   * @return ビットボード
+   * @throws IllegalArgumentException 形式が正しくない場合
+   */
+  static BitBoard parse(final String field, final String turn) {
+    if (field.length() != Squares.SIZE) {
+      throw new IllegalArgumentException("盤面は64文字で指定してください");
+    }
+    long black = 0L;
+    long white = 0L;
+    for (int square = 0; square < Squares.SIZE; square++) {
+      switch (Character.toUpperCase(field.charAt(square))) {
+        case 'X':
+          black |= 1L << square;
+          break;
+        case 'O':
+          white |= 1L << square;
+          break;
+        case '-':
+          break;
+        default:
+          throw new IllegalArgumentException("盤面に使用できない文字があります: " + field.charAt(square));
+      }
+    }
+    switch (turn.toUpperCase(Locale.ROOT)) {
+      case "X":
+        return new BitBoard(black, white, PieceType.BLACK);
+      case "O":
+        return new BitBoard(black, white, PieceType.WHITE);
+      default:
+        throw new IllegalArgumentException("手番は X または O で指定してください");
+    }
+  }
+
+  /**
+   * ビットボードと同じ局面の {@link Board} を生成する.
+   *
+   * @param board ビットボード
+   * @return 同じ局面の盤面
+   */
+  private static Board toBoard(final BitBoard board) {
+    Board reference = new Board();
+    reference.setUp(board.getBits(PieceType.BLACK), board.getBits(PieceType.WHITE),
+        board.getCurrentTurn());
+    return reference;
+  }
+
+  /**
+   * 使い方を表示する.
+   */
+  private static void printUsage() {
+    System.out.println("使い方: java othello.Perft [-divide] [-verify] [-position 盤面 手番] 深さ");
+  }
+}
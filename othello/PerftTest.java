@@ -0,0 +1,44 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+  /**
+   * 初期局面からの局面数が既知の値と一致すること.
+   */
+  @Test
+  void perftFromInitialPosition() {
+    BitBoard board = new BitBoard();
+    for (int depth = 0; depth <= 8; depth++) {
+      assertEquals(Perft.knownCount(depth), Perft.perft(board, depth));
+    }
+    // 数え終わった後は元の局面に戻っている.
+    assertEquals(new BitBoard().toString(), board.toString());
+    assertEquals(new BitBoard().getHash(), board.getHash());
+  }
+
+  /**
+   * パスを含む局面で {@link Board} と {@link BitBoard} の合法手と盤面が一致すること.
+   */
+  @Test
+  void verifyWithPass() {
+    // 白の置けるマスが少なく, 探索の途中でパスが発生する.
+    final String field = "XXXXXXXX"
+        + "XXXXXXXX"
+        + "XXXXXXXX"
+        + "XXXXOOOO"
+        + "XXXXO---"
+        + "XXXX----"
+        + "XXXX----"
+        + "XXXX----";
+    BitBoard board = Perft.parse(field, "X");
+    Board reference = new Board();
+    reference.setUp(board.getBits(PieceType.BLACK), board.getBits(PieceType.WHITE),
+        board.getCurrentTurn());
+
+    assertEquals(Perft.perft(board, 6), Perft.verify(reference, board, 6));
+  }
+}
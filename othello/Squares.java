@@ -0,0 +1,144 @@
+package othello;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * マス番号に関するユーティリティクラス.
+ * <p>
+ * ビットボードでは盤面の各マスを {@code 行番号 * 8 + 列番号} で表す0～63のマス番号で扱う. マス番号 n のマスは {@code 1L << n}
+ * のビットに対応する.
+ * <p>
+ * 合法手のマスクなどに含まれるマスを探索中に列挙する場合は, オブジェクトを生成しないよう次のように使用する.
+ * <pre>{@code
+ * for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+ *   int square = Squares.first(rest);
+ * }
+ * }</pre>
+ */
+public final class Squares {
+
+  /**
+   * フィールドの行数.
+   */
+  private static final int ROW = 8;
+  /**
+   * フィールドの列数.
+   */
+  private static final int COL = 8;
+  /**
+   * マスの総数.
+   */
+  public static final int SIZE = ROW * COL;
+
+  private Squares() {
+    // インスタンス化しない
+  }
+
+  /**
+   * 行番号と列番号をマス番号に変換する.
+   *
+   * @param row 行番号
+   * @param col 列番号
+   * @return マス番号
+   */
+  public static int toSquare(final int row, final int col) {
+    return row * COL + col;
+  }
+
+  /**
+   * 座標をマス番号に変換する.
+   *
+   * @param coordinate 変換対象の座標. フィールドの範囲内であること
+   * @return マス番号
+   */
+  public static int toSquare(final Coordinate coordinate) {
+    return toSquare(coordinate.getRow(), coordinate.getCol());
+  }
+
+  /**
+   * マス番号を座標に変換する.
+   *
+   * @param square マス番号
+   * @return 対応する座標
+   */
+  public static Coordinate toCoordinate(final int square) {
+    return Coordinate.valueOf(square / COL, square % COL);
+  }
+
+  /**
+   * 座標に対応するビットを返す.
+   * <p>
+   * フィールドの範囲外の座標を指定した場合は0を返す.
+   *
+   * @param coordinate 対象の座標
+   * @return 座標に対応するビットのみが立った値
+   */
+  public static long toBit(final Coordinate coordinate) {
+    if (!isInside(coordinate.getRow(), coordinate.getCol())) {
+      return 0L;
+    }
+    return 1L << toSquare(coordinate);
+  }
+
+  /**
+   * 行番号と列番号がフィールドの範囲内かどうかを判定する.
+   *
+   * @param row 行番号
+   * @param col 列番号
+   * @return フィールドの内部の場合 {@code true}
+   */
+  public static boolean isInside(final int row, final int col) {
+    return 0 <= row && row < ROW && 0 <= col && col < COL;
+  }
+
+  /**
+   * ビット列に含まれるマスのうち最も小さいマス番号を返す.
+   *
+   * @param bits 対象のビット列
+   * @return 最も小さいマス番号. ビットが1つも立っていない場合は64
+   */
+  public static int first(final long bits) {
+    return Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * ビット列から最も小さいマス番号のビットを取り除く.
+   *
+   * @param bits 対象のビット列
+   * @return 最下位のビットを取り除いたビット列
+   */
+  public static long removeFirst(final long bits) {
+    return bits & (bits - 1);
+  }
+
+  /**
+   * ビット列に含まれるマス番号を昇順に返すイテレータを生成する.
+   *
+   * @param bits 対象のビット列
+   * @return マス番号のイテレータ
+   */
+  public static PrimitiveIterator.OfInt iterator(final long bits) {
+    return new PrimitiveIterator.OfInt() {
+      /**
+       * まだ返していないマスのビット列.
+       */
+      private long rest = bits;
+
+      @Override
+      public boolean hasNext() {
+        return rest != 0;
+      }
+
+      @Override
+      public int nextInt() {
+        if (rest == 0) {
+          throw new NoSuchElementException();
+        }
+        final int square = first(rest);
+        rest = removeFirst(rest);
+        return square;
+      }
+    };
+  }
+}
@@ -0,0 +1,173 @@
+package othello;
+
+/**
+ * 盤面の8通りの対称変換(回転と反転)を表す列挙型クラス.
+ * <p>
+ * 各変換は対角線(A1-H8)での反転, 上下の反転, 左右の反転をこの順に組み合わせたものとして表し, 宣言の順番(ordinal)の3ビット目,
+ * 2ビット目, 1ビット目がそれぞれの反転を行うかどうかに対応する. 行番号の小さい側を上とする.
+ * <p>
+ * 対称な局面は同じ評価値と同じ最善手(を変換したもの)を持つため, {@link #canonical(long, long)} で選んだ代表の形(正規形)に揃えることで,
+ * 置換表や定石, 学習用の局面などに対称な局面を1つの記録として保持できる. 正規形で求めた手は {@link #inverse()} の変換で元の局面の手に戻す.
+ */
+public enum Symmetry {
+  IDENTITY(false, false, false),
+  FLIP_LEFT_RIGHT(false, false, true),
+  FLIP_UP_DOWN(false, true, false),
+  ROTATE_180(false, true, true),
+  TRANSPOSE(true, false, false),
+  ROTATE_90(true, false, true),
+  ROTATE_270(true, true, false),
+  ANTI_TRANSPOSE(true, true, true);
+
+  /**
+   * 全ての変換. {@link #values()} と異なり呼び出しごとに配列を複製しない.
+   */
+  private static final Symmetry[] VALUES = values();
+
+  /**
+   * 対角線(A1-H8)で反転する場合 {@code true}.
+   */
+  private final boolean transposes;
+  /**
+   * 上下に反転する場合 {@code true}.
+   */
+  private final boolean flipsUpDown;
+  /**
+   * 左右に反転する場合 {@code true}.
+   */
+  private final boolean flipsLeftRight;
+  /**
+   * マス番号ごとの変換先のマス番号.
+   */
+  private final int[] squares = new int[Squares.SIZE];
+
+  Symmetry(final boolean transposes, final boolean flipsUpDown, final boolean flipsLeftRight) {
+    this.transposes = transposes;
+    this.flipsUpDown = flipsUpDown;
+    this.flipsLeftRight = flipsLeftRight;
+    for (int square = 0; square < Squares.SIZE; square++) {
+      squares[square] = Squares.first(apply(1L << square));
+    }
+  }
+
+  /**
+   * 局面を正規形に移す変換を求める.
+   * <p>
+   * 正規形は, 変換後の手番側のコマの配置を符号なし整数として比べて最小のもの, 等しい場合は相手のコマの配置が最小のものとする.
+   * 複数の変換が同じ正規形を与える場合は宣言の順番が最も前の変換を返す.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 正規形に移す変換
+   */
+  public static Symmetry canonical(final long own, final long opponent) {
+    Symmetry best = IDENTITY;
+    long bestOwn = own;
+    long bestOpponent = opponent;
+    for (Symmetry symmetry : VALUES) {
+      final long transformedOwn = symmetry.apply(own);
+      final int compared = Long.compareUnsigned(transformedOwn, bestOwn);
+      if (compared > 0) {
+        continue;
+      }
+      final long transformedOpponent = symmetry.apply(opponent);
+      if (compared < 0 || Long.compareUnsigned(transformedOpponent, bestOpponent) < 0) {
+        best = symmetry;
+        bestOwn = transformedOwn;
+        bestOpponent = transformedOpponent;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * コマの配置を変換する.
+   *
+   * @param bits コマの配置
+   * @return 変換したコマの配置
+   */
+  public long apply(final long bits) {
+    long result = bits;
+    if (transposes) {
+      result = transpose(result);
+    }
+    if (flipsUpDown) {
+      result = Long.reverseBytes(result);
+    }
+    if (flipsLeftRight) {
+      result = mirror(result);
+    }
+    return result;
+  }
+
+  /**
+   * マス番号を変換する.
+   *
+   * @param square マス番号
+   * @return 変換先のマス番号
+   */
+  public int apply(final int square) {
+    return squares[square];
+  }
+
+  /**
+   * 座標を変換する.
+   *
+   * @param coordinate 座標
+   * @return 変換先の座標
+   * @throws IllegalArgumentException フィールド外の座標を指定した場合
+   */
+  public Coordinate apply(final Coordinate coordinate) {
+    if (!Squares.isInside(coordinate.getRow(), coordinate.getCol())) {
+      throw new IllegalArgumentException("フィールド外の座標は変換できません");
+    }
+    return Squares.toCoordinate(apply(Squares.toSquare(coordinate)));
+  }
+
+  /**
+   * 逆変換を返す.
+   * <p>
+   * 90度と270度の回転は互いの逆変換であり, それ以外の変換は自身が逆変換となる.
+   *
+   * @return 逆変換
+   */
+  public Symmetry inverse() {
+    switch (this) {
+      case ROTATE_90:
+        return ROTATE_270;
+      case ROTATE_270:
+        return ROTATE_90;
+      default:
+        return this;
+    }
+  }
+
+  /**
+   * 盤面を左右に反転する.
+   *
+   * @param bits コマの配置
+   * @return 反転したコマの配置
+   */
+  private static long mirror(final long bits) {
+    long result = (bits >>> 1 & 0x5555555555555555L) | (bits & 0x5555555555555555L) << 1;
+    result = (result >>> 2 & 0x3333333333333333L) | (result & 0x3333333333333333L) << 2;
+    return (result >>> 4 & 0x0f0f0f0f0f0f0f0fL) | (result & 0x0f0f0f0f0f0f0f0fL) << 4;
+  }
+
+  /**
+   * 盤面を左上から右下への対角線で反転する(行と列を入れ替える).
+   *
+   * @param bits コマの配置
+   * @return 反転したコマの配置
+   */
+  private static long transpose(final long bits) {
+    long result = bits;
+    long t = 0x0f0f0f0f00000000L & (result ^ result << 28);
+    result ^= t ^ t >>> 28;
+    t = 0x3333000033330000L & (result ^ result << 14);
+    result ^= t ^ t >>> 14;
+    t = 0x5500550055005500L & (result ^ result << 7);
+    result ^= t ^ t >>> 7;
+    return result;
+  }
+}
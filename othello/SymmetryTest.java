@@ -0,0 +1,50 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SymmetryTest {
+
+  /**
+   * 変換した座標とマスが逆変換で元に戻り, コマの配置の変換とも一致すること.
+   */
+  @Test
+  void inverseRestoresSquares() {
+    for (Symmetry symmetry : Symmetry.values()) {
+      for (int square = 0; square < Squares.SIZE; square++) {
+        final int transformed = symmetry.apply(square);
+        assertEquals(1L << transformed, symmetry.apply(1L << square));
+        assertEquals(square, symmetry.inverse().apply(transformed));
+
+        final Coordinate coordinate = Squares.toCoordinate(square);
+        assertEquals(coordinate, symmetry.inverse().apply(symmetry.apply(coordinate)));
+      }
+    }
+    // 行番号の小さい側を上として時計回りに回転する.
+    assertEquals(Coordinate.valueOf(0, 7), Symmetry.ROTATE_90.apply(Coordinate.valueOf(0, 0)));
+  }
+
+  /**
+   * 対称な局面はすべて同じ正規形に揃うこと.
+   */
+  @Test
+  void canonicalIsSharedBySymmetricPositions() {
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      final long occupied = random.nextLong();
+      final long own = occupied & random.nextLong();
+      final long opponent = occupied & ~own;
+      final Symmetry canonical = Symmetry.canonical(own, opponent);
+
+      for (Symmetry symmetry : Symmetry.values()) {
+        final long transformedOwn = symmetry.apply(own);
+        final long transformedOpponent = symmetry.apply(opponent);
+        final Symmetry other = Symmetry.canonical(transformedOwn, transformedOpponent);
+        assertEquals(canonical.apply(own), other.apply(transformedOwn));
+        assertEquals(canonical.apply(opponent), other.apply(transformedOpponent));
+      }
+    }
+  }
+}
@@ -0,0 +1,533 @@
+package othello;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import othello.record.GameRecord;
+import othello.record.GameRecordWriter;
+import othello.strategy.NormalAI;
+import othello.strategy.PatternAI;
+import othello.strategy.PatternEvaluator;
+import othello.strategy.PvsAI;
+import othello.strategy.StrategyInterface;
+import othello.strategy.StrongAI;
+import othello.strategy.TranspositionTable;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+import othello.strategy.WeakAI;
+
+/**
+ * 2つの戦略を盤面の表示や待ち時間なしに繰り返し対戦させ, 勝率を求めるツール.
+ * <p>
+ * 対局は2局ずつ組にし, 同じ序盤で先手と後手を入れ替えて打つ. 序盤の無作為な手は組の番号と乱数の種から決まるため, 同じ条件で実行すれば
+ * 同じ序盤が選ばれる. 戦略はスレッドごと, コマの種類ごとに生成し, 対局間で使い回す. 棋譜ファイルを指定すると, 終わった対局から順に棋譜を書き出す.
+ * <p>
+ * 使い方:
+ * <pre>
+ * java othello.Tournament [-games 対局数] [-threads スレッド数] [-random 手数] [-time ミリ秒] [-seed 乱数の種] [-record 棋譜ファイル] 戦略1 戦略2
+ * </pre>
+ * <ul>
+ * <li>戦略: weak, normal, strong, pvs, pattern のいずれか. {@code strong:4} のように探索の深さを指定できる</li>
+ * <li>-games: 対局数. 既定は {@value #DEFAULT_GAMES}</li>
+ * <li>-threads: 対局に使用するスレッド数. 既定はCPUのコア数</li>
+ * <li>-random: 序盤に無作為に打つ手数. 既定は {@value #DEFAULT_RANDOM_MOVES}</li>
+ * <li>-time: 1手あたりの探索時間の上限(ミリ秒). 既定は制限なし</li>
+ * <li>-seed: 序盤の乱数の種. 既定は {@value #DEFAULT_SEED}</li>
+ * <li>-record: 棋譜を書き出すファイル. 既に存在する場合は追記する. 既定は書き出さない</li>
+ * </ul>
+ */
+public final class Tournament {
+
+  /**
+   * 既定の対局数.
+   */
+  private static final int DEFAULT_GAMES = 100;
+  /**
+   * 既定の序盤に無作為に打つ手数.
+   */
+  private static final int DEFAULT_RANDOM_MOVES = 6;
+  /**
+   * 既定の序盤の乱数の種.
+   */
+  private static final long DEFAULT_SEED = 1L;
+  /**
+   * 戦略ごとの置換表のメモリ量(MB).
+   */
+  private static final int TABLE_MEGABYTES = 8;
+  /**
+   * 信頼区間95%に対応する標準正規分布の値.
+   */
+  private static final double Z_95 = 1.96;
+  /**
+   * 進捗を表示する間隔(対局数).
+   */
+  private static final int PROGRESS_INTERVAL = 100;
+  /**
+   * 戦略の名前で指定できる探索の深さの上限. 初期局面からの手数より深く読んでも結果は変わらない.
+   */
+  static final int MAX_DEPTH = GameRecord.MAX_MOVES;
+  /**
+   * 1つ目の戦略の名前.
+   */
+  private final String firstName;
+  /**
+   * 2つ目の戦略の名前.
+   */
+  private final String secondName;
+  /**
+   * 1つ目の戦略をコマの種類から生成する関数.
+   */
+  private final Function<PieceType, StrategyInterface> first;
+  /**
+   * 2つ目の戦略をコマの種類から生成する関数.
+   */
+  private final Function<PieceType, StrategyInterface> second;
+  /**
+   * 序盤に無作為に打つ手数.
+   */
+  private final int randomMoves;
+  /**
+   * 序盤の乱数の種.
+   */
+  private final long seed;
+
+  /**
+   * 対戦させる戦略と序盤の条件を指定して生成する.
+   * <p>
+   * 戦略はスレッドごとに生成するため, 生成する関数は呼び出しごとに新しいインスタンスを返すこと.
+   *
+   * @param first       1つ目の戦略をコマの種類から生成する関数
+   * @param second      2つ目の戦略をコマの種類から生成する関数
+   * @param randomMoves 序盤に無作為に打つ手数
+   * @param seed        序盤の乱数の種
+   * @throws IllegalArgumentException 手数が負の場合
+   */
+  public Tournament(Function<PieceType, StrategyInterface> first,
+      Function<PieceType, StrategyInterface> second, int randomMoves, long seed) {
+    this("first", first, "second", second, randomMoves, seed);
+  }
+
+  /**
+   * 棋譜に記録する戦略の名前を指定して生成する.
+   *
+   * @param firstName   1つ目の戦略の名前
+   * @param first       1つ目の戦略をコマの種類から生成する関数
+   * @param secondName  2つ目の戦略の名前
+   * @param second      2つ目の戦略をコマの種類から生成する関数
+   * @param randomMoves 序盤に無作為に打つ手数
+   * @param seed        序盤の乱数の種
+   * @throws IllegalArgumentException 手数が負の場合
+   */
+  public Tournament(String firstName, Function<PieceType, StrategyInterface> first,
+      String secondName, Function<PieceType, StrategyInterface> second, int randomMoves,
+      long seed) {
+    if (randomMoves < 0) {
+      throw new IllegalArgumentException("無作為に打つ手数は0以上を指定してください");
+    }
+    this.firstName = firstName;
+    this.secondName = secondName;
+    this.first = first;
+    this.second = second;
+    this.randomMoves = randomMoves;
+    this.seed = seed;
+  }
+
+  public static void main(String[] args) throws InterruptedException, IOException {
+    int games = DEFAULT_GAMES;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int randomMoves = DEFAULT_RANDOM_MOVES;
+    long timeLimitMillis = NormalAI.NO_TIME_LIMIT;
+    long seed = DEFAULT_SEED;
+    String record = null;
+    final List<String> engines = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "-games":
+          games = Integer.parseInt(args[++i]);
+          break;
+        case "-threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        case "-random":
+          randomMoves = Integer.parseInt(args[++i]);
+          break;
+        case "-time":
+          timeLimitMillis = Long.parseLong(args[++i]);
+          break;
+        case "-seed":
+          seed = Long.parseLong(args[++i]);
+          break;
+        case "-record":
+          record = args[++i];
+          break;
+        default:
+          engines.add(args[i]);
+      }
+    }
+    if (engines.size() != 2) {
+      printUsage();
+      return;
+    }
+
+    final Tournament tournament = new Tournament(engines.get(0),
+        engine(engines.get(0), timeLimitMillis), engines.get(1),
+        engine(engines.get(1), timeLimitMillis), randomMoves, seed);
+    final Result result;
+    if (record == null) {
+      result = tournament.play(games, threads);
+    } else {
+      try (GameRecordWriter records = new GameRecordWriter(Paths.get(record), true)) {
+        result = tournament.play(games, threads, records);
+      }
+    }
+    System.out.println(engines.get(0) + " 対 " + engines.get(1));
+    System.out.println(result);
+  }
+
+  /**
+   * 戦略の名前を検査し, 同じ戦略が同じ文字列となる形に揃える.
+   * <p>
+   * 探索の深さを省略した場合は既定の深さを補い, {@code strong:07} のような表記の揺れは {@code strong:7} に揃える.
+   * 深さを使用しない戦略は深さを取り除く.
+   *
+   * @param name 戦略の名前. {@code 名前:深さ} の形式で探索の深さを指定できる
+   * @return 揃えた名前
+   * @throws IllegalArgumentException 該当する戦略がない場合, 深さが1～{@value #MAX_DEPTH}でない場合
+   */
+  static String normalize(final String name) {
+    final int separator = name.indexOf(':');
+    final String kind = separator < 0 ? name : name.substring(0, separator);
+    final int depth;
+    try {
+      depth = separator < 0
+          ? NormalAI.DEFAULT_MAX_DEPTH
+          : Integer.parseInt(name.substring(separator + 1));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("探索の深さは数値で指定してください: " + name, e);
+    }
+    if (depth < 1 || depth > MAX_DEPTH) {
+      throw new IllegalArgumentException("探索の深さは1～" + MAX_DEPTH + "を指定してください: " + name);
+    }
+    switch (kind) {
+      case "weak":
+        return kind;
+      case "normal":
+      case "strong":
+      case "pvs":
+      case "pattern":
+        return kind + ":" + depth;
+      default:
+        throw new IllegalArgumentException("指定した戦略はありません: " + name);
+    }
+  }
+
+  /**
+   * 名前から戦略を生成する関数を求める.
+   *
+   * @param name            戦略の名前. {@code 名前:深さ} の形式で探索の深さを指定できる
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @return 戦略を生成する関数
+   * @throws IllegalArgumentException 該当する戦略がない場合, 深さが1～{@value #MAX_DEPTH}でない場合
+   */
+  static Function<PieceType, StrategyInterface> engine(final String name,
+      final long timeLimitMillis) {
+    final String normalized = normalize(name);
+    final int separator = normalized.indexOf(':');
+    final String kind = separator < 0 ? normalized : normalized.substring(0, separator);
+    final int depth = separator < 0
+        ? NormalAI.DEFAULT_MAX_DEPTH
+        : Integer.parseInt(normalized.substring(separator + 1));
+    switch (kind) {
+      case "weak":
+        return me -> new WeakAI();
+      case "normal":
+        return me -> new NormalAI(me, newTable(), depth, timeLimitMillis);
+      case "strong":
+        return me -> new StrongAI(me, newTable(), depth, timeLimitMillis);
+      case "pvs":
+        return me -> new PvsAI(me, newTable(), depth, timeLimitMillis);
+      case "pattern":
+        return me -> new PatternAI(me, newTable(), depth, timeLimitMillis, 1, null,
+            NormalAI.DEFAULT_ENDGAME_EMPTIES, PatternEvaluator.loadDefault());
+      default:
+        throw new IllegalArgumentException("指定した戦略はありません: " + name);
+    }
+  }
+
+  /**
+   * 戦略に使用させる置換表を生成する.
+   *
+   * @return 置換表
+   */
+  private static TranspositionTable newTable() {
+    return new TranspositionTable(TABLE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED);
+  }
+
+  /**
+   * 対局を行う.
+   * <p>
+   * 偶数番目の対局は1つ目の戦略が黒, 奇数番目の対局は2つ目の戦略が黒を持ち, 直前の対局と同じ序盤から打つ.
+   *
+   * @param games   対局数
+   * @param threads 対局に使用するスレッド数
+   * @return 1つ目の戦略から見た結果
+   * @throws InterruptedException 対局の終了を待つ間に割り込まれた場合
+   */
+  public Result play(final int games, final int threads) throws InterruptedException {
+    return play(games, threads, null);
+  }
+
+  /**
+   * 対局を行い, 終わった対局から順に棋譜を書き出す.
+   *
+   * @param games   対局数
+   * @param threads 対局に使用するスレッド数
+   * @param records 棋譜の書き出し先. {@code null} の場合は書き出さない
+   * @return 1つ目の戦略から見た結果
+   * @throws InterruptedException 対局の終了を待つ間に割り込まれた場合
+   * @throws UncheckedIOException 棋譜の書き出しに失敗した場合
+   */
+  public Result play(final int games, final int threads, final GameRecordWriter records)
+      throws InterruptedException {
+    final long start = System.nanoTime();
+    final AtomicInteger next = new AtomicInteger();
+    final AtomicInteger wins = new AtomicInteger();
+    final AtomicInteger draws = new AtomicInteger();
+    final AtomicInteger losses = new AtomicInteger();
+    final AtomicInteger finished = new AtomicInteger();
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(pool.submit(() -> {
+          final StrategyInterface firstBlack = first.apply(PieceType.BLACK);
+          final StrategyInterface firstWhite = first.apply(PieceType.WHITE);
+          final StrategyInterface secondBlack = second.apply(PieceType.BLACK);
+          final StrategyInterface secondWhite = second.apply(PieceType.WHITE);
+          for (int game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+            final boolean isFirstBlack = game % 2 == 0;
+            final long timestamp = System.currentTimeMillis();
+            final Board board = isFirstBlack
+                ? playGame(firstBlack, secondWhite, game / 2)
+                : playGame(secondBlack, firstWhite, game / 2);
+            final GameRecord record = isFirstBlack
+                ? GameRecord.of(firstName, secondName, timestamp, board)
+                : GameRecord.of(secondName, firstName, timestamp, board);
+            if (records != null) {
+              try {
+                records.write(record);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            }
+            final int blackScore = record.getResult();
+            final int score = isFirstBlack ? blackScore : -blackScore;
+            if (score > 0) {
+              wins.incrementAndGet();
+            } else if (score < 0) {
+              losses.incrementAndGet();
+            } else {
+              draws.incrementAndGet();
+            }
+            final int count = finished.incrementAndGet();
+            if (count % PROGRESS_INTERVAL == 0) {
+              System.out.println(count + " 局終了");
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof UncheckedIOException) {
+            throw (UncheckedIOException) e.getCause();
+          }
+          throw new IllegalStateException("対局中にエラーが発生しました", e.getCause());
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return new Result(wins.get(), draws.get(), losses.get(),
+        (System.nanoTime() - start) / 1e9);
+  }
+
+  /**
+   * 1局対戦する.
+   *
+   * @param black   黒の戦略
+   * @param white   白の戦略
+   * @param opening 序盤の番号. 同じ番号であれば同じ序盤となる
+   * @return 終局した盤面
+   * @throws IllegalStateException 戦略が置くことのできない座標を返した場合
+   */
+  private Board playGame(final StrategyInterface black, final StrategyInterface white,
+      final int opening) {
+    final Random random = new Random(seed * 31 + opening);
+    final Board board = new Board();
+    for (int moves = 0; !board.isGameOver(); moves++) {
+      if (!board.canPutForCurrentTurn()) {
+        board.nextTurn();
+      }
+      final Coordinate coordinate;
+      if (moves < randomMoves) {
+        coordinate = randomMove(board.getLegalMoves(), random);
+      } else if (board.getCurrentTurn() == PieceType.BLACK) {
+        coordinate = black.decideCoordinate(board);
+      } else {
+        coordinate = white.decideCoordinate(board);
+      }
+      if (!board.canPutPiece(coordinate)) {
+        throw new IllegalStateException("置くことのできない座標が選ばれました: " + coordinate);
+      }
+      board.processToPutPiece(coordinate);
+      board.nextTurn();
+    }
+    return board;
+  }
+
+  /**
+   * 置くことができるマスから無作為に1つ選ぶ.
+   *
+   * @param candidates 置くことができるマス
+   * @param random     乱数
+   * @return 選んだ座標
+   */
+  private static Coordinate randomMove(final long candidates, final Random random) {
+    long rest = candidates;
+    for (int i = random.nextInt(Long.bitCount(candidates)); i > 0; i--) {
+      rest = Squares.removeFirst(rest);
+    }
+    return Squares.toCoordinate(Squares.first(rest));
+  }
+
+  /**
+   * 使い方を表示する.
+   */
+  private static void printUsage() {
+    System.out.println("使い方: java othello.Tournament [-games 対局数] [-threads スレッド数] [-random 手数]"
+        + " [-time ミリ秒] [-seed 乱数の種] [-record 棋譜ファイル] 戦略1 戦略2");
+    System.out.println("  戦略: weak, normal, strong, pvs, pattern (例: strong:4)");
+  }
+
+  /**
+   * 対局の結果.
+   */
+  public static final class Result {
+
+    /**
+     * 勝ち数.
+     */
+    private final int wins;
+    /**
+     * 引き分けの数.
+     */
+    private final int draws;
+    /**
+     * 負け数.
+     */
+    private final int losses;
+    /**
+     * 全対局にかかった時間(秒).
+     */
+    private final double seconds;
+
+    Result(int wins, int draws, int losses, double seconds) {
+      this.wins = wins;
+      this.draws = draws;
+      this.losses = losses;
+      this.seconds = seconds;
+    }
+
+    public int getWins() {
+      return wins;
+    }
+
+    public int getDraws() {
+      return draws;
+    }
+
+    public int getLosses() {
+      return losses;
+    }
+
+    /**
+     * 対局数を返す.
+     *
+     * @return 対局数
+     */
+    public int getGames() {
+      return wins + draws + losses;
+    }
+
+    /**
+     * 勝ちを1, 引き分けを0.5, 負けを0とした得点率を返す.
+     *
+     * @return 得点率. 対局がない場合は0.5
+     */
+    public double getScore() {
+      final int games = getGames();
+      return games == 0 ? 0.5 : (wins + draws * 0.5) / games;
+    }
+
+    /**
+     * 得点率の95%信頼区間の幅の半分を返す.
+     * <p>
+     * 1局ごとの得点の分散から正規分布で近似して求める.
+     *
+     * @return 信頼区間の幅の半分
+     */
+    public double getMargin() {
+      final int games = getGames();
+      if (games == 0) {
+        return 0.5;
+      }
+      final double score = getScore();
+      final double variance = (wins * (1 - score) * (1 - score)
+          + draws * (0.5 - score) * (0.5 - score)
+          + losses * score * score) / games;
+      return Z_95 * Math.sqrt(variance / games);
+    }
+
+    /**
+     * 1秒あたりの対局数を返す.
+     *
+     * @return 1秒あたりの対局数
+     */
+    public double getGamesPerSecond() {
+      return getGames() / Math.max(seconds, 1e-9);
+    }
+
+    /**
+     * 得点率をイロレーティングの差に換算する.
+     *
+     * @param score 得点率
+     * @return レーティングの差. 得点率が0または1の場合は無限大
+     */
+    static double toElo(final double score) {
+      return 400 * Math.log10(score / (1 - score));
+    }
+
+    @Override
+    public String toString() {
+      final double score = getScore();
+      final double margin = getMargin();
+      return String.format(Locale.ROOT,
+          "%d 局: %d 勝 %d 分 %d 敗, 得点率 %.3f ± %.3f (レーティング差 %+.0f [%+.0f, %+.0f]),"
+              + " %.1f 秒, %.2f 局/秒",
+          getGames(), wins, draws, losses, score, margin, toElo(score),
+          toElo(Math.max(score - margin, 0)), toElo(Math.min(score + margin, 1)),
+          seconds, getGamesPerSecond());
+    }
+  }
+}
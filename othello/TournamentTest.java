@@ -0,0 +1,86 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import othello.Tournament.Result;
+
+class TournamentTest {
+
+  /**
+   * 全勝の場合は得点率が1, 信頼区間の幅が0となり, レーティング差は正の無限大となること.
+   */
+  @Test
+  void allWins() {
+    final Result result = new Result(10, 0, 0, 1);
+    assertEquals(1.0, result.getScore());
+    assertEquals(0.0, result.getMargin());
+    assertEquals(Double.POSITIVE_INFINITY, Result.toElo(result.getScore()));
+  }
+
+  /**
+   * 全敗の場合は得点率が0, 信頼区間の幅が0となり, レーティング差は負の無限大となること.
+   */
+  @Test
+  void allLosses() {
+    final Result result = new Result(0, 0, 10, 1);
+    assertEquals(0.0, result.getScore());
+    assertEquals(0.0, result.getMargin());
+    assertEquals(Double.NEGATIVE_INFINITY, Result.toElo(result.getScore()));
+  }
+
+  /**
+   * 全て引き分けの場合は得点率が0.5, 信頼区間の幅が0となり, レーティング差は0となること.
+   */
+  @Test
+  void allDraws() {
+    final Result result = new Result(0, 10, 0, 1);
+    assertEquals(0.5, result.getScore());
+    assertEquals(0.0, result.getMargin());
+    assertEquals(0.0, Result.toElo(result.getScore()));
+  }
+
+  /**
+   * 対局がない場合は得点率が0.5, 信頼区間が0～1全体となること.
+   */
+  @Test
+  void noGames() {
+    final Result result = new Result(0, 0, 0, 0);
+    assertEquals(0, result.getGames());
+    assertEquals(0.5, result.getScore());
+    assertEquals(0.5, result.getMargin());
+    assertEquals(0.0, result.getGamesPerSecond());
+  }
+
+  /**
+   * 勝ち負けが混ざる場合は1局ごとの得点の分散から信頼区間を求め, レーティング差が得点率に対応すること.
+   */
+  @Test
+  void mixedResults() {
+    final Result result = new Result(3, 0, 1, 2);
+    assertEquals(4, result.getGames());
+    assertEquals(0.75, result.getScore());
+    // 分散は (3 * 0.25^2 + 0.75^2) / 4 = 0.1875.
+    assertEquals(1.96 * Math.sqrt(0.1875 / 4), result.getMargin(), 1e-12);
+    assertEquals(400 * Math.log10(3), Result.toElo(result.getScore()), 1e-9);
+    assertEquals(2.0, result.getGamesPerSecond());
+  }
+
+  /**
+   * 戦略の名前は表記の揺れが揃えられ, 範囲外の深さや該当しない戦略は拒否されること.
+   */
+  @Test
+  void normalizeEngineNames() {
+    assertEquals("strong:7", Tournament.normalize("strong:07"));
+    assertEquals("strong:7", Tournament.normalize("strong:+7"));
+    assertEquals("pvs:6", Tournament.normalize("pvs"));
+    assertEquals("weak", Tournament.normalize("weak:3"));
+    assertEquals("normal:" + Tournament.MAX_DEPTH,
+        Tournament.normalize("normal:" + Tournament.MAX_DEPTH));
+    for (String name : new String[] {"strong:0", "normal:-3", "pattern:61", "pvs:x", "strongest"}) {
+      assertThrows(IllegalArgumentException.class, () -> Tournament.normalize(name), name);
+      assertThrows(IllegalArgumentException.class, () -> Tournament.engine(name, 0L), name);
+    }
+  }
+}
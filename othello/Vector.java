@@ -1,5 +1,7 @@
 package othello;
 
+import java.util.Arrays;
+
 /**
  * 方向を表すクラス.
  *
@@ -8,6 +10,10 @@ package othello;
  * <p>
  * 例 : 左上(行方向, 列方向) = (-1, -1). 例 : 上(行方向, 列方向) = (-1, 0) 例 : 右下(行方向, 列方向) = (1, 1).
  * </p>
+ * <p>
+ * また, 各マスからその方向へ盤端まで進んだマスの列(レイ)をマス番号の配列とビット列の両方で事前に計算して保持する. 方向ごとの走査で
+ * 座標の移動と範囲の判定を毎回行う代わりに使用する.
+ * </p>
  */
 public enum Vector {
   LEFT_UPPER(-1, -1),
@@ -27,10 +33,36 @@ public enum Vector {
    * 列方向.
    */
   private int col;
+  /**
+   * 各マスからこの方向へ進んだマスのマス番号を近い順に並べた配列.
+   */
+  private final int[][] rays;
+  /**
+   * 各マスからこの方向へ進んだマスのビット列.
+   */
+  private final long[] rayMasks;
 
   Vector(int row, int col) {
     this.row = row;
     this.col = col;
+    this.rays = new int[Squares.SIZE][];
+    this.rayMasks = new long[Squares.SIZE];
+
+    for (int square = 0; square < Squares.SIZE; square++) {
+      int[] ray = new int[Squares.SIZE];
+      int length = 0;
+      long mask = 0L;
+      int r = square / 8 + row;
+      int c = square % 8 + col;
+      while (Squares.isInside(r, c)) {
+        ray[length++] = Squares.toSquare(r, c);
+        mask |= 1L << Squares.toSquare(r, c);
+        r += row;
+        c += col;
+      }
+      rays[square] = Arrays.copyOf(ray, length);
+      rayMasks[square] = mask;
+    }
   }
 
   /**
@@ -50,4 +82,35 @@ public enum Vector {
   public int getCol() {
     return col;
   }
+
+  /**
+   * 指定したマスからこの方向へ盤端まで進んだマスのマス番号を返す.
+   * <p>
+   * 返す配列は共有されているため変更してはならない.
+   *
+   * @param square 始点のマス番号. 始点自体は含まない
+   * @return 始点に近い順に並んだマス番号
+   */
+  public int[] getRay(final int square) {
+    return rays[square];
+  }
+
+  /**
+   * 指定したマスからこの方向へ盤端まで進んだマスのビット列を返す.
+   *
+   * @param square 始点のマス番号. 始点自体は含まない
+   * @return 進んだマスのビットが立った値
+   */
+  public long getRayMask(final int square) {
+    return rayMasks[square];
+  }
+
+  /**
+   * この方向へ進むとマス番号が増えるかどうかを判定する.
+   *
+   * @return マス番号が増える方向の場合 {@code true}
+   */
+  public boolean isAscending() {
+    return row * 8 + col > 0;
+  }
 }
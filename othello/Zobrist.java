@@ -0,0 +1,109 @@
+package othello;
+
+import java.util.SplittableRandom;
+
+/**
+ * 局面のハッシュ値(Zobristハッシュ)を計算するためのクラス.
+ * <p>
+ * マスとコマの種類の組み合わせごと, および白の手番に対して固定の乱数を割り当て, 局面に含まれる要素の乱数の排他的論理和をハッシュ値とする.
+ * コマを置く, ひっくり返す, 手番を移すといった操作は対応する乱数との排他的論理和で差分更新できる.
+ * <p>
+ * 乱数は固定のシードから生成するため, 実行ごとに同じ局面は同じハッシュ値となる.
+ */
+public final class Zobrist {
+
+  /**
+   * 乱数生成に使用するシード.
+   */
+  private static final long SEED = 0x6f7468656c6c6fL;
+  /**
+   * 各マスに黒のコマがある場合の乱数.
+   */
+  private static final long[] BLACK_KEYS = new long[Squares.SIZE];
+  /**
+   * 各マスに白のコマがある場合の乱数.
+   */
+  private static final long[] WHITE_KEYS = new long[Squares.SIZE];
+  /**
+   * 各マスのコマをひっくり返す場合の乱数. 黒と白の乱数の排他的論理和.
+   */
+  private static final long[] FLIP_KEYS = new long[Squares.SIZE];
+  /**
+   * 白の手番である場合の乱数.
+   */
+  private static final long WHITE_TURN_KEY;
+
+  static {
+    SplittableRandom random = new SplittableRandom(SEED);
+    for (int square = 0; square < Squares.SIZE; square++) {
+      BLACK_KEYS[square] = random.nextLong();
+      WHITE_KEYS[square] = random.nextLong();
+      FLIP_KEYS[square] = BLACK_KEYS[square] ^ WHITE_KEYS[square];
+    }
+    WHITE_TURN_KEY = random.nextLong();
+  }
+
+  private Zobrist() {
+    // インスタンス化しない
+  }
+
+  /**
+   * 局面のハッシュ値を最初から計算する.
+   *
+   * @param black       黒のコマの配置
+   * @param white       白のコマの配置
+   * @param currentTurn 手番
+   * @return ハッシュ値
+   */
+  public static long hash(final long black, final long white, final PieceType currentTurn) {
+    long hash = currentTurn == PieceType.WHITE ? WHITE_TURN_KEY : 0L;
+    for (long rest = black; rest != 0; rest = Squares.removeFirst(rest)) {
+      hash ^= BLACK_KEYS[Squares.first(rest)];
+    }
+    for (long rest = white; rest != 0; rest = Squares.removeFirst(rest)) {
+      hash ^= WHITE_KEYS[Squares.first(rest)];
+    }
+    return hash;
+  }
+
+  /**
+   * 指定したマスにコマを置く, または取り除く場合の乱数を返す.
+   *
+   * @param pieceType コマの種類
+   * @param square    マス番号
+   * @return 乱数. 空きを指定した場合は0
+   */
+  public static long pieceKey(final PieceType pieceType, final int square) {
+    switch (pieceType) {
+      case BLACK:
+        return BLACK_KEYS[square];
+      case WHITE:
+        return WHITE_KEYS[square];
+      default:
+        return 0L;
+    }
+  }
+
+  /**
+   * 指定したマスのコマをすべてひっくり返す場合の乱数を返す.
+   *
+   * @param flipped ひっくり返すコマのビットが立った値
+   * @return 各マスの乱数の排他的論理和
+   */
+  public static long flipKey(final long flipped) {
+    long key = 0L;
+    for (long rest = flipped; rest != 0; rest = Squares.removeFirst(rest)) {
+      key ^= FLIP_KEYS[Squares.first(rest)];
+    }
+    return key;
+  }
+
+  /**
+   * 手番を入れ替える場合の乱数を返す.
+   *
+   * @return 乱数
+   */
+  public static long turnKey() {
+    return WHITE_TURN_KEY;
+  }
+}
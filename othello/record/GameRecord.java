@@ -0,0 +1,235 @@
+package othello.record;
+
+import java.util.Arrays;
+import java.util.Map;
+import othello.Board;
+import othello.PieceType;
+import othello.Squares;
+
+/**
+ * 1局分の棋譜を表すクラス.
+ * <p>
+ * 対局者の名前, 対局の開始時刻, 結果と, 初期局面から打たれた手をマス番号で保持する. パスは記録せず, 再現時に手番のコマが置けなければ
+ * パスしたものとして扱う. インスタンスは不変であり, 複数のスレッドで共有できる.
+ *
+ * @see GameRecordWriter
+ * @see GameRecordReader
+ */
+public final class GameRecord {
+
+  /**
+   * 1局の手数の上限.
+   */
+  public static final int MAX_MOVES = Squares.SIZE - 4;
+  /**
+   * 黒の対局者の名前.
+   */
+  private final String black;
+  /**
+   * 白の対局者の名前.
+   */
+  private final String white;
+  /**
+   * 対局の開始時刻(エポックからのミリ秒).
+   */
+  private final long timestamp;
+  /**
+   * 黒から見た最終的な石差.
+   */
+  private final int result;
+  /**
+   * 打たれた手のマス番号.
+   */
+  private final byte[] moves;
+
+  /**
+   * 棋譜の内容を指定して生成する.
+   *
+   * @param black     黒の対局者の名前
+   * @param white     白の対局者の名前
+   * @param timestamp 対局の開始時刻(エポックからのミリ秒)
+   * @param result    黒から見た最終的な石差
+   * @param moves     初期局面から打たれた手のマス番号
+   * @throws IllegalArgumentException 石差, 手数, マス番号が範囲外の場合
+   */
+  public GameRecord(String black, String white, long timestamp, int result, int[] moves) {
+    this(black, white, timestamp, result, toBytes(moves));
+  }
+
+  /**
+   * 棋譜ファイルから読み込んだ内容で生成する. 配列は複製しない.
+   *
+   * @throws IllegalArgumentException 石差, 手数, マス番号が範囲外の場合
+   */
+  GameRecord(String black, String white, long timestamp, int result, byte[] moves) {
+    if (Math.abs(result) > Squares.SIZE) {
+      throw new IllegalArgumentException("石差が範囲外です: " + result);
+    }
+    if (moves.length > MAX_MOVES) {
+      throw new IllegalArgumentException("手数が多すぎます: " + moves.length);
+    }
+    // byteは符号付きのため, 壊れたファイルの負の値もここで弾く.
+    for (byte move : moves) {
+      if (move < 0 || move >= Squares.SIZE) {
+        throw new IllegalArgumentException("マス番号が範囲外です: " + move);
+      }
+    }
+    this.black = black;
+    this.white = white;
+    this.timestamp = timestamp;
+    this.result = result;
+    this.moves = moves;
+  }
+
+  /**
+   * 終局した盤面から棋譜を生成する.
+   * <p>
+   * 手は盤面のログから, 結果は盤面のコマの数から求める. 盤面は初期局面から打ち進めたものであること.
+   *
+   * @param black     黒の対局者の名前
+   * @param white     白の対局者の名前
+   * @param timestamp 対局の開始時刻(エポックからのミリ秒)
+   * @param finished  終局した盤面
+   * @return 棋譜
+   */
+  public static GameRecord of(final String black, final String white, final long timestamp,
+      final Board finished) {
+    final Map<PieceType, Integer> counts = finished.getEachPiecesCnt();
+    return new GameRecord(black, white, timestamp,
+        counts.get(PieceType.BLACK) - counts.get(PieceType.WHITE), finished.getMoveHistory());
+  }
+
+  /**
+   * マス番号の配列を1手1バイトの配列に変換する.
+   *
+   * @param moves マス番号の配列
+   * @return 1手1バイトの配列
+   * @throws IllegalArgumentException マス番号が範囲外の場合
+   */
+  private static byte[] toBytes(final int[] moves) {
+    final byte[] bytes = new byte[moves.length];
+    for (int i = 0; i < moves.length; i++) {
+      if (moves[i] < 0 || moves[i] >= Squares.SIZE) {
+        throw new IllegalArgumentException("マス番号が範囲外です: " + moves[i]);
+      }
+      bytes[i] = (byte) moves[i];
+    }
+    return bytes;
+  }
+
+  /**
+   * 黒の対局者の名前を返す.
+   *
+   * @return 名前
+   */
+  public String getBlack() {
+    return black;
+  }
+
+  /**
+   * 白の対局者の名前を返す.
+   *
+   * @return 名前
+   */
+  public String getWhite() {
+    return white;
+  }
+
+  /**
+   * 対局の開始時刻を返す.
+   *
+   * @return エポックからのミリ秒
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * 黒から見た最終的な石差を返す.
+   *
+   * @return 石差
+   */
+  public int getResult() {
+    return result;
+  }
+
+  /**
+   * 手数を返す. パスは含まない.
+   *
+   * @return 手数
+   */
+  public int getMoveCount() {
+    return moves.length;
+  }
+
+  /**
+   * 指定した手のマス番号を返す.
+   *
+   * @param index 何手目か(0から数える)
+   * @return マス番号
+   */
+  public int getMove(final int index) {
+    return moves[index];
+  }
+
+  /**
+   * 棋譜ファイルに書き出すための手の配列を返す. 配列は変更しないこと.
+   */
+  byte[] moves() {
+    return moves;
+  }
+
+  /**
+   * 全ての手を初期局面から打ち進めた盤面を返す.
+   *
+   * @return 盤面
+   * @throws IllegalStateException 置くことのできない手が含まれる場合
+   */
+  public Board replay() {
+    return replay(moves.length);
+  }
+
+  /**
+   * 指定した手数だけ初期局面から打ち進めた盤面を返す.
+   * <p>
+   * 手番のコマが置けない場合はパスしてから次の手を打つ. 返す盤面の手番は最後の手を打った側の相手となる.
+   *
+   * @param plies 打ち進める手数
+   * @return 盤面
+   * @throws IllegalStateException 置くことのできない手が含まれる場合
+   */
+  public Board replay(final int plies) {
+    final Board board = new Board();
+    for (int i = 0; i < plies; i++) {
+      if (!board.canPutForCurrentTurn()) {
+        board.nextTurn();
+      }
+      if ((board.getLegalMoves() & 1L << moves[i]) == 0) {
+        throw new IllegalStateException((i + 1) + "手目は置くことができません: "
+            + Squares.toCoordinate(moves[i]));
+      }
+      board.processToPutPiece(Squares.toCoordinate(moves[i]));
+      board.nextTurn();
+    }
+    return board;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof GameRecord)) {
+      return false;
+    }
+    GameRecord other = (GameRecord) o;
+    return black.equals(other.black) && white.equals(other.white)
+        && timestamp == other.timestamp && result == other.result
+        && Arrays.equals(moves, other.moves);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(moves) * 31 + Long.hashCode(timestamp);
+  }
+}
@@ -0,0 +1,88 @@
+package othello.record;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 棋譜ファイルから棋譜を先頭から順に読み込むクラス.
+ * <p>
+ * 棋譜は1局ずつ読み込むため, 棋譜の数によらず使用するメモリは一定となる. 盤面の再現は {@link GameRecord#replay()} で行う.
+ * ファイルの形式は {@link GameRecordWriter} を参照.
+ */
+public final class GameRecordReader implements Closeable {
+
+  /**
+   * 読み込み元.
+   */
+  private final DataInputStream in;
+  /**
+   * 読み込んだ棋譜.
+   */
+  private GameRecord record;
+
+  /**
+   * 棋譜ファイルを開く.
+   *
+   * @param path 棋譜ファイルのパス
+   * @throws IOException 読み込みに失敗した場合, またはファイルの形式が正しくない場合
+   */
+  public GameRecordReader(final Path path) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+    try {
+      if (in.readInt() != GameRecordWriter.MAGIC) {
+        throw new IOException("棋譜ファイルではありません");
+      }
+      if (in.readInt() != GameRecordWriter.VERSION) {
+        throw new IOException("棋譜ファイルの形式のバージョンが異なります");
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * 次の棋譜を読み込む.
+   *
+   * @return 棋譜を読み込んだ場合 {@code true}. ファイルの終わりに達した場合 {@code false}
+   * @throws IOException 読み込みに失敗した場合, 棋譜の途中でファイルが終わっている場合, または棋譜の内容が正しくない場合
+   */
+  public boolean next() throws IOException {
+    final long timestamp;
+    try {
+      timestamp = in.readLong();
+    } catch (EOFException e) {
+      return false;
+    }
+    final String black = in.readUTF();
+    final String white = in.readUTF();
+    final int result = in.readByte();
+    final byte[] moves = new byte[in.readUnsignedByte()];
+    in.readFully(moves);
+    try {
+      record = new GameRecord(black, white, timestamp, result, moves);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("棋譜の内容が正しくありません", e);
+    }
+    return true;
+  }
+
+  /**
+   * 読み込んだ棋譜を返す.
+   *
+   * @return 棋譜. まだ読み込んでいない場合は {@code null}
+   */
+  public GameRecord getRecord() {
+    return record;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
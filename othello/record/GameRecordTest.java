@@ -0,0 +1,104 @@
+package othello.record;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import othello.BitBoard;
+import othello.Board;
+import othello.PieceType;
+import othello.Squares;
+
+class GameRecordTest {
+
+  /**
+   * 書き出した棋譜が追記をまたいでそのまま読み込め, 再現した盤面が元の対局の終局と一致すること.
+   */
+  @Test
+  void recordsSurviveRoundTrip(@TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("games.bin");
+    final Random random = new Random(0);
+    final List<GameRecord> records = new ArrayList<>();
+    final List<Board> boards = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      final Board board = playRandomGame(random);
+      boards.add(board);
+      records.add(GameRecord.of("black" + i, "白" + i, 1_000_000L * i, board));
+    }
+
+    try (GameRecordWriter writer = new GameRecordWriter(path)) {
+      for (GameRecord record : records.subList(0, 10)) {
+        writer.write(record);
+      }
+    }
+    try (GameRecordWriter writer = new GameRecordWriter(path, true)) {
+      for (GameRecord record : records.subList(10, 20)) {
+        writer.write(record);
+      }
+    }
+
+    try (GameRecordReader reader = new GameRecordReader(path)) {
+      for (int i = 0; i < records.size(); i++) {
+        assertTrue(reader.next());
+        final GameRecord record = reader.getRecord();
+        assertEquals(records.get(i), record);
+
+        final BitBoard expected = BitBoard.valueOf(boards.get(i));
+        final BitBoard replayed = BitBoard.valueOf(record.replay());
+        assertEquals(expected.getBits(PieceType.BLACK), replayed.getBits(PieceType.BLACK));
+        assertEquals(expected.getBits(PieceType.WHITE), replayed.getBits(PieceType.WHITE));
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * 範囲外のマス番号を含む棋譜ファイルは, 読み込み時に内容の誤りとして検出されること.
+   */
+  @Test
+  void corruptMoveIsRejected(@TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("games.bin");
+    try (GameRecordWriter writer = new GameRecordWriter(path)) {
+      writer.write(GameRecord.of("black", "white", 0L, playRandomGame(new Random(0))));
+    }
+    // 最後の手のバイトを, 符号付きでは負となる値に書き換える.
+    final byte[] bytes = Files.readAllBytes(path);
+    bytes[bytes.length - 1] = (byte) -63;
+    Files.write(path, bytes);
+
+    try (GameRecordReader reader = new GameRecordReader(path)) {
+      assertThrows(IOException.class, reader::next);
+    }
+  }
+
+  /**
+   * 無作為な手で終局まで打つ.
+   *
+   * @param random 乱数
+   * @return 終局した盤面
+   */
+  private static Board playRandomGame(final Random random) {
+    final Board board = new Board();
+    while (!board.isGameOver()) {
+      if (!board.canPutForCurrentTurn()) {
+        board.nextTurn();
+      }
+      long rest = board.getLegalMoves();
+      for (int i = random.nextInt(Long.bitCount(rest)); i > 0; i--) {
+        rest = Squares.removeFirst(rest);
+      }
+      board.processToPutPiece(Squares.toCoordinate(Squares.first(rest)));
+      board.nextTurn();
+    }
+    return board;
+  }
+}
@@ -0,0 +1,115 @@
+package othello.record;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 棋譜を棋譜ファイルに1局ずつ書き出すクラス.
+ * <p>
+ * 棋譜ファイルの形式は以下の通り(数値はすべてビッグエンディアン). 1手を1バイトで表すため, 1局あたりおよそ対局者の名前の長さ + 72バイトとなる.
+ * <ol>
+ *     <li>識別子 {@link #MAGIC} (int)</li>
+ *     <li>形式のバージョン {@link #VERSION} (int)</li>
+ *     <li>棋譜. 対局の開始時刻(long), 黒の対局者の名前と白の対局者の名前({@link DataOutputStream#writeUTF(String)} の形式),
+ *     黒から見た最終的な石差(byte), 手数(byte), 手数分のマス番号(byte)の順に並べ, ファイルの終わりまで続く</li>
+ * </ol>
+ * 棋譜はメモリに溜めずに書き出す. 書き出しは同期しているため, 1つのインスタンスに複数のスレッドから書き出すことができる.
+ *
+ * @see GameRecordReader
+ */
+public final class GameRecordWriter implements Closeable {
+
+  /**
+   * 棋譜ファイルの識別子.
+   */
+  public static final int MAGIC = 0x4f54474d;
+  /**
+   * 棋譜ファイルの形式のバージョン.
+   */
+  public static final int VERSION = 1;
+  /**
+   * 書き出し先.
+   */
+  private final DataOutputStream out;
+  /**
+   * 書き出した棋譜の数.
+   */
+  private long count;
+
+  /**
+   * 棋譜ファイルを作成する. 既に存在する場合は上書きする.
+   *
+   * @param path 棋譜ファイルのパス
+   * @throws IOException 作成に失敗した場合
+   */
+  public GameRecordWriter(final Path path) throws IOException {
+    this(path, false);
+  }
+
+  /**
+   * 棋譜ファイルを作成する, または既存の棋譜ファイルの末尾に追記する.
+   *
+   * @param path   棋譜ファイルのパス
+   * @param append {@code true} の場合, 既存の棋譜ファイルに追記する. ファイルがないか空の場合は作成する
+   * @throws IOException 作成に失敗した場合, または追記するファイルが棋譜ファイルでない場合
+   */
+  public GameRecordWriter(final Path path, final boolean append) throws IOException {
+    final boolean resume = append && Files.exists(path) && Files.size(path) > 0;
+    if (resume) {
+      // ヘッダを確かめるためだけに開く.
+      new GameRecordReader(path).close();
+    }
+    this.out = new DataOutputStream(new BufferedOutputStream(resume
+        ? Files.newOutputStream(path, StandardOpenOption.APPEND)
+        : Files.newOutputStream(path)));
+    if (!resume) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+    }
+  }
+
+  /**
+   * 棋譜を1局書き出す.
+   *
+   * @param record 棋譜
+   * @throws IOException 書き出しに失敗した場合
+   */
+  public synchronized void write(final GameRecord record) throws IOException {
+    final byte[] moves = record.moves();
+    out.writeLong(record.getTimestamp());
+    out.writeUTF(record.getBlack());
+    out.writeUTF(record.getWhite());
+    out.writeByte(record.getResult());
+    out.writeByte(moves.length);
+    out.write(moves);
+    count++;
+  }
+
+  /**
+   * 書き出した棋譜の数を返す. 追記した場合, 既存の棋譜は含まない.
+   *
+   * @return 棋譜の数
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * 書き出した棋譜をファイルに反映する. 対局の合間に呼べば, 途中で終了しても終わった対局の棋譜は失われない.
+   *
+   * @throws IOException 書き出しに失敗した場合
+   */
+  public synchronized void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+}
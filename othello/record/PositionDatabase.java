@@ -0,0 +1,405 @@
+package othello.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import othello.BitBoard;
+import othello.Board;
+import othello.BoardSnapshot;
+import othello.Coordinate;
+import othello.PieceType;
+import othello.Squares;
+import othello.Symmetry;
+import othello.Zobrist;
+
+/**
+ * 棋譜から集計した, 局面ごとに打たれた手と結果の数を引く局面データベース.
+ * <p>
+ * 局面は {@link Symmetry#canonical(long, long)} で正規形に変換し, 手番側と相手のコマの配置として記録する. 対称な局面は1つの記録を共有し,
+ * 手番の色にもよらない. 局面自体が対称な場合, 対称な位置にある手は1つの手としてまとめる.
+ * <p>
+ * データベースファイルは局面と手の組を鍵とする開番地法(線形探索)のハッシュ表で, 形式は以下の通り(数値はすべてビッグエンディアン).
+ * <ol>
+ *     <li>識別子 {@link #MAGIC} (int)</li>
+ *     <li>形式のバージョン {@link #VERSION} (int)</li>
+ *     <li>表の大きさ (int). 2の累乗</li>
+ *     <li>記録の数 (int)</li>
+ *     <li>表の大きさ分の枠 ({@link #RECORD_BYTES} バイト). 正規形の手番側のコマの配置(long), 相手のコマの配置(long),
+ *     正規形での手のマス番号(byte), その手が打たれた対局数(int), 手を打った側の勝ち数(int), 引き分けの数(int),
+ *     手を打った側から見た最終的な石差の合計(int)の順に並べる. コマの配置がどちらも0の枠は空きを表す</li>
+ * </ol>
+ * 枠の位置は局面と手から計算するため, ファイルをメモリにマップしたまま数回の読み込みで引くことができ, 棋譜全体をヒープに読み込む必要はない.
+ * 記録は変更しないため, 1つのインスタンスを複数のスレッドで共有できる.
+ * <p>
+ * 初期局面から手順をたどった局面の記録を表示するには以下のように実行する. 手順は行(a～h)と列(1～8)の組を並べたもの(例: c4c3)とする.
+ * <pre>
+ * java othello.record.PositionDatabase データベースファイル [手順]
+ * </pre>
+ *
+ * @see PositionDatabaseBuilder
+ */
+public final class PositionDatabase {
+
+  /**
+   * データベースファイルの識別子.
+   */
+  public static final int MAGIC = 0x4f545044;
+  /**
+   * データベースファイルの形式のバージョン.
+   */
+  public static final int VERSION = 1;
+  /**
+   * ファイルの先頭の識別子, バージョン, 表の大きさ, 記録の数のバイト数.
+   */
+  static final int HEADER_BYTES = Integer.BYTES * 4;
+  /**
+   * 枠1つあたりのバイト数.
+   */
+  static final int RECORD_BYTES = Long.BYTES * 2 + Byte.BYTES + Integer.BYTES * 4;
+  /**
+   * 枠の中の手のマス番号の位置.
+   */
+  static final int MOVE_OFFSET = Long.BYTES * 2;
+  /**
+   * 枠の中の対局数の位置.
+   */
+  static final int GAMES_OFFSET = MOVE_OFFSET + Byte.BYTES;
+  /**
+   * 枠の中の勝ち数の位置.
+   */
+  static final int WINS_OFFSET = GAMES_OFFSET + Integer.BYTES;
+  /**
+   * 枠の中の引き分けの数の位置.
+   */
+  static final int DRAWS_OFFSET = WINS_OFFSET + Integer.BYTES;
+  /**
+   * 枠の中の石差の合計の位置.
+   */
+  static final int SCORE_OFFSET = DRAWS_OFFSET + Integer.BYTES;
+  /**
+   * 表の大きさの上限. ファイル全体を1つのバッファにマップできる大きさに収める.
+   */
+  static final int MAX_CAPACITY = Integer.highestOneBit((Integer.MAX_VALUE - HEADER_BYTES)
+      / RECORD_BYTES);
+  /**
+   * 手のマス番号を混ぜてハッシュ値を散らすための定数.
+   */
+  private static final long MOVE_MULTIPLIER = 0x9e3779b97f4a7c15L;
+  /**
+   * 全ての対称変換. {@link Symmetry#values()} は呼び出しのたびに配列を生成するため保持しておく.
+   */
+  private static final Symmetry[] SYMMETRIES = Symmetry.values();
+  /**
+   * メモリにマップしたファイルの内容.
+   */
+  private final ByteBuffer buffer;
+  /**
+   * 表の大きさ.
+   */
+  private final int capacity;
+  /**
+   * 記録の数.
+   */
+  private final int size;
+
+  private PositionDatabase(final ByteBuffer buffer, final int capacity, final int size) {
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.size = size;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      System.out.println("使い方: java othello.record.PositionDatabase データベースファイル [手順]");
+      return;
+    }
+    final PositionDatabase database = open(Paths.get(args[0]));
+    final String moves = args.length > 1 ? args[1] : "";
+    final Board board = new Board();
+    for (int i = 0; i + 1 < moves.length(); i += 2) {
+      if (!board.canPutForCurrentTurn()) {
+        board.nextTurn();
+      }
+      final Coordinate coordinate = Coordinate.valueOf(
+          Board.toRowNumber(moves.substring(i, i + 1)),
+          Board.toColNumber(moves.substring(i + 1, i + 2)));
+      if (!board.canPutPiece(coordinate)) {
+        System.out.println("置くことができません: " + moves.substring(i, i + 2));
+        return;
+      }
+      board.processToPutPiece(coordinate);
+      board.nextTurn();
+    }
+    if (!board.canPutForCurrentTurn()) {
+      board.nextTurn();
+    }
+
+    final PieceType turn = board.getCurrentTurn();
+    final BoardSnapshot snapshot = board.snapshot();
+    final List<MoveStatistics> statistics =
+        database.lookup(snapshot.getBits(turn), snapshot.getBits(PieceType.getEnemyType(turn)));
+    int games = 0;
+    for (MoveStatistics move : statistics) {
+      games += move.getGames();
+    }
+    System.out.println(board);
+    System.out.println(games + " 局");
+    for (MoveStatistics move : statistics) {
+      System.out.println(move);
+    }
+  }
+
+  /**
+   * データベースファイルをメモリにマップして開く.
+   *
+   * @param path データベースファイルのパス
+   * @return 局面データベース
+   * @throws IOException 読み込みに失敗した場合, またはファイルの形式が正しくない場合
+   */
+  public static PositionDatabase open(final Path path) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("局面データベースファイルではありません");
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("局面データベースファイルではありません");
+    }
+    if (buffer.getInt(Integer.BYTES) != VERSION) {
+      throw new IOException("局面データベースファイルの形式のバージョンが異なります");
+    }
+    final int capacity = buffer.getInt(Integer.BYTES * 2);
+    final int size = buffer.getInt(Integer.BYTES * 3);
+    if (Integer.bitCount(capacity) != 1 || size < 0 || size >= capacity
+        || buffer.capacity() != HEADER_BYTES + (long) capacity * RECORD_BYTES) {
+      throw new IOException("局面データベースファイルの大きさが正しくありません");
+    }
+    return new PositionDatabase(buffer, capacity, size);
+  }
+
+  /**
+   * 記録の数を返す. 局面と手の組ごとに1つと数える.
+   *
+   * @return 記録の数
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * 局面で打たれた手と結果の数を引く.
+   * <p>
+   * 局面自体が対称で, 対称な位置にある手が複数ある場合は, マス番号の最も小さい手にまとめて返す.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 手ごとの結果の数. 対局数の多い順に並べる. 記録がない場合は空のリスト
+   */
+  public List<MoveStatistics> lookup(final long own, final long opponent) {
+    final Symmetry symmetry = Symmetry.canonical(own, opponent);
+    final long canonicalOwn = symmetry.apply(own);
+    final long canonicalOpponent = symmetry.apply(opponent);
+    final int automorphisms = automorphisms(canonicalOwn, canonicalOpponent);
+
+    final List<MoveStatistics> statistics = new ArrayList<>();
+    long seen = 0;
+    for (long rest = BitBoard.legalMoves(own, opponent); rest != 0;
+        rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      final int move = canonicalMove(automorphisms, symmetry.apply(square));
+      if ((seen & 1L << move) != 0) {
+        continue;
+      }
+      seen |= 1L << move;
+      final int offset = find(canonicalOwn, canonicalOpponent, move);
+      if (offset >= 0) {
+        statistics.add(new MoveStatistics(square, buffer.getInt(offset + GAMES_OFFSET),
+            buffer.getInt(offset + WINS_OFFSET), buffer.getInt(offset + DRAWS_OFFSET),
+            buffer.getInt(offset + SCORE_OFFSET)));
+      }
+    }
+    statistics.sort(Comparator.comparingInt(MoveStatistics::getGames).reversed());
+    return statistics;
+  }
+
+  /**
+   * 局面が現れた対局数を返す.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 対局数. 記録がない場合は0
+   */
+  public int getGames(final long own, final long opponent) {
+    int games = 0;
+    for (MoveStatistics statistics : lookup(own, opponent)) {
+      games += statistics.getGames();
+    }
+    return games;
+  }
+
+  /**
+   * 正規形の局面と手の記録がある枠の位置を求める.
+   *
+   * @param own      正規形の手番側のコマの配置
+   * @param opponent 正規形の相手のコマの配置
+   * @param move     正規形での手のマス番号
+   * @return 枠の先頭のバイト位置. 記録がない場合は-1
+   */
+  private int find(final long own, final long opponent, final int move) {
+    for (int slot = slot(own, opponent, move, capacity); ; slot = (slot + 1) & (capacity - 1)) {
+      final int offset = HEADER_BYTES + slot * RECORD_BYTES;
+      final long slotOwn = buffer.getLong(offset);
+      final long slotOpponent = buffer.getLong(offset + Long.BYTES);
+      if (slotOwn == 0 && slotOpponent == 0) {
+        return -1;
+      }
+      if (slotOwn == own && slotOpponent == opponent && buffer.get(offset + MOVE_OFFSET) == move) {
+        return offset;
+      }
+    }
+  }
+
+  /**
+   * 正規形の局面と手から最初に調べる枠の番号を求める.
+   *
+   * @param own      正規形の手番側のコマの配置
+   * @param opponent 正規形の相手のコマの配置
+   * @param move     正規形での手のマス番号
+   * @param capacity 表の大きさ
+   * @return 枠の番号
+   */
+  static int slot(final long own, final long opponent, final int move, final int capacity) {
+    final long hash = Zobrist.hash(own, opponent, PieceType.BLACK) + move * MOVE_MULTIPLIER;
+    return (int) (hash ^ hash >>> 32) & (capacity - 1);
+  }
+
+  /**
+   * 正規形の局面を変えない対称変換を求める.
+   *
+   * @param own      正規形の手番側のコマの配置
+   * @param opponent 正規形の相手のコマの配置
+   * @return 対称変換の序数のビットの集合
+   */
+  static int automorphisms(final long own, final long opponent) {
+    int automorphisms = 0;
+    for (Symmetry symmetry : SYMMETRIES) {
+      if (symmetry.apply(own) == own && symmetry.apply(opponent) == opponent) {
+        automorphisms |= 1 << symmetry.ordinal();
+      }
+    }
+    return automorphisms;
+  }
+
+  /**
+   * 正規形の局面での手を, 局面を変えない対称変換で移した中で最も小さいマス番号に揃える.
+   *
+   * @param automorphisms {@link #automorphisms(long, long)} で求めた対称変換
+   * @param square        正規形での手のマス番号
+   * @return 揃えたマス番号
+   */
+  static int canonicalMove(final int automorphisms, final int square) {
+    int move = square;
+    for (int rest = automorphisms & ~1; rest != 0; rest &= rest - 1) {
+      move = Math.min(move, SYMMETRIES[Integer.numberOfTrailingZeros(rest)].apply(square));
+    }
+    return move;
+  }
+
+  /**
+   * 1つの手の結果の数.
+   * <p>
+   * 勝ち数などはすべてその手を打った側から見た値とする.
+   */
+  public static final class MoveStatistics {
+
+    /**
+     * 手のマス番号.
+     */
+    private final int move;
+    /**
+     * 手が打たれた対局数.
+     */
+    private final int games;
+    /**
+     * 勝ち数.
+     */
+    private final int wins;
+    /**
+     * 引き分けの数.
+     */
+    private final int draws;
+    /**
+     * 最終的な石差の合計.
+     */
+    private final int scoreSum;
+
+    MoveStatistics(int move, int games, int wins, int draws, int scoreSum) {
+      this.move = move;
+      this.games = games;
+      this.wins = wins;
+      this.draws = draws;
+      this.scoreSum = scoreSum;
+    }
+
+    /**
+     * 手のマス番号を返す. 引いた局面の向きでの番号とする.
+     *
+     * @return マス番号
+     */
+    public int getMove() {
+      return move;
+    }
+
+    public int getGames() {
+      return games;
+    }
+
+    public int getWins() {
+      return wins;
+    }
+
+    public int getDraws() {
+      return draws;
+    }
+
+    public int getLosses() {
+      return games - wins - draws;
+    }
+
+    /**
+     * 勝ちを1, 引き分けを0.5, 負けを0とした得点率を返す.
+     *
+     * @return 得点率
+     */
+    public double getScore() {
+      return (wins + draws * 0.5) / games;
+    }
+
+    /**
+     * 最終的な石差の平均を返す.
+     *
+     * @return 石差の平均
+     */
+    public double getAverageDiscs() {
+      return (double) scoreSum / games;
+    }
+
+    @Override
+    public String toString() {
+      final Coordinate coordinate = Squares.toCoordinate(move);
+      return String.format(Locale.ROOT, "%c%d: %d 局 %d 勝 %d 分 %d 敗 (得点率 %.3f, 平均石差 %+.1f)",
+          (char) ('a' + coordinate.getRow()), coordinate.getCol() + 1, games, wins, draws,
+          getLosses(), getScore(), getAverageDiscs());
+    }
+  }
+}
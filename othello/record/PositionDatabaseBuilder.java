@@ -0,0 +1,315 @@
+package othello.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import othello.BitBoard;
+import othello.Squares;
+import othello.Symmetry;
+
+/**
+ * 棋譜ファイルから局面ごとに打たれた手と結果の数を集計し, 局面データベースファイルを作成するツール.
+ * <p>
+ * 棋譜は1局ずつ読み込み, 初期局面から指定した手数までの局面と手を集計する. 集計はデータベースファイルと同じ形式のハッシュ表で行うため,
+ * 使用するメモリは棋譜の数ではなく局面と手の組の数に比例する.
+ * <p>
+ * 使い方:
+ * <pre>
+ * java othello.record.PositionDatabaseBuilder [-plies 手数] [-min 対局数] データベースファイル 棋譜ファイル...
+ * </pre>
+ * <ul>
+ * <li>-plies: 集計する初期局面からの手数. 既定は {@value #DEFAULT_PLIES}</li>
+ * <li>-min: 記録に残す手の対局数の下限. 既定は {@value #DEFAULT_MIN_GAMES}</li>
+ * </ul>
+ *
+ * @see PositionDatabase
+ */
+public final class PositionDatabaseBuilder {
+
+  /**
+   * 既定の集計する手数.
+   */
+  private static final int DEFAULT_PLIES = 20;
+  /**
+   * 既定の記録に残す手の対局数の下限.
+   */
+  private static final int DEFAULT_MIN_GAMES = 1;
+  /**
+   * 表の大きさの初期値.
+   */
+  private static final int INITIAL_CAPACITY = 1 << 16;
+  /**
+   * 進捗を表示する間隔(対局数).
+   */
+  private static final int PROGRESS_INTERVAL = 100_000;
+  /**
+   * 初期局面の黒のコマの配置.
+   */
+  private static final long INITIAL_BLACK = 1L << Squares.toSquare(3, 4)
+      | 1L << Squares.toSquare(4, 3);
+  /**
+   * 初期局面の白のコマの配置.
+   */
+  private static final long INITIAL_WHITE = 1L << Squares.toSquare(3, 3)
+      | 1L << Squares.toSquare(4, 4);
+  /**
+   * 集計する手数.
+   */
+  private final int plies;
+  /**
+   * 集計中のハッシュ表. データベースファイルと同じ形式とする.
+   */
+  private ByteBuffer table;
+  /**
+   * 表の大きさ.
+   */
+  private int capacity;
+  /**
+   * 記録の数.
+   */
+  private int size;
+
+  private PositionDatabaseBuilder(final int plies, final int capacity) {
+    this.plies = plies;
+    this.capacity = capacity;
+    this.table = ByteBuffer.allocate(PositionDatabase.HEADER_BYTES
+        + capacity * PositionDatabase.RECORD_BYTES);
+  }
+
+  public static void main(String[] args) throws IOException {
+    int plies = DEFAULT_PLIES;
+    int minGames = DEFAULT_MIN_GAMES;
+    final List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "-plies":
+          plies = Integer.parseInt(args[++i]);
+          break;
+        case "-min":
+          minGames = Integer.parseInt(args[++i]);
+          break;
+        default:
+          paths.add(Paths.get(args[i]));
+      }
+    }
+    if (paths.size() < 2) {
+      printUsage();
+      return;
+    }
+
+    final long start = System.nanoTime();
+    PositionDatabaseBuilder builder = new PositionDatabaseBuilder(plies, INITIAL_CAPACITY);
+    long games = 0;
+    for (Path path : paths.subList(1, paths.size())) {
+      try (GameRecordReader reader = new GameRecordReader(path)) {
+        while (reader.next()) {
+          builder.add(reader.getRecord());
+          if (++games % PROGRESS_INTERVAL == 0) {
+            System.out.println(games + " 局");
+          }
+        }
+      }
+    }
+    if (minGames > 1) {
+      builder = builder.filter(minGames);
+    }
+    builder.write(paths.get(0));
+    final double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format(Locale.ROOT, "%d 局から %d 件の局面と手を %s に書き出しました (%.1f 秒)",
+        games, builder.size, paths.get(0), seconds));
+  }
+
+  /**
+   * 1局分の局面と手を集計する.
+   *
+   * @param record 棋譜
+   * @throws IOException 棋譜に置くことのできない手が含まれる場合
+   */
+  private void add(final GameRecord record) throws IOException {
+    long own = INITIAL_BLACK;
+    long opponent = INITIAL_WHITE;
+    // 手番側から見た最終的な石差.
+    int result = record.getResult();
+    final int last = Math.min(plies, record.getMoveCount());
+    for (int i = 0; i < last; i++) {
+      long moves = BitBoard.legalMoves(own, opponent);
+      if (moves == 0) {
+        // パス.
+        final long swap = own;
+        own = opponent;
+        opponent = swap;
+        result = -result;
+        moves = BitBoard.legalMoves(own, opponent);
+      }
+      final int square = record.getMove(i);
+      if ((moves & 1L << square) == 0) {
+        throw new IOException((i + 1) + "手目は置くことができません: " + Squares.toCoordinate(square));
+      }
+      add(own, opponent, square, result);
+
+      final long flipped = BitBoard.flips(own, opponent, square);
+      final long next = opponent & ~flipped;
+      opponent = own | flipped | 1L << square;
+      own = next;
+      result = -result;
+    }
+  }
+
+  /**
+   * 局面で打たれた手を1局分集計する.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param square   手のマス番号
+   * @param result   手番側から見た最終的な石差
+   */
+  private void add(final long own, final long opponent, final int square, final int result) {
+    final Symmetry symmetry = Symmetry.canonical(own, opponent);
+    final long canonicalOwn = symmetry.apply(own);
+    final long canonicalOpponent = symmetry.apply(opponent);
+    final int move = PositionDatabase.canonicalMove(
+        PositionDatabase.automorphisms(canonicalOwn, canonicalOpponent), symmetry.apply(square));
+    merge(canonicalOwn, canonicalOpponent, move, 1, result > 0 ? 1 : 0, result == 0 ? 1 : 0,
+        result);
+  }
+
+  /**
+   * 正規形の局面と手の記録に結果の数を加える. 記録がなければ作成する.
+   *
+   * @param own      正規形の手番側のコマの配置
+   * @param opponent 正規形の相手のコマの配置
+   * @param move     正規形での手のマス番号
+   * @param games    加える対局数
+   * @param wins     加える勝ち数
+   * @param draws    加える引き分けの数
+   * @param scoreSum 加える石差の合計
+   */
+  private void merge(final long own, final long opponent, final int move, final int games,
+      final int wins, final int draws, final int scoreSum) {
+    int slot = PositionDatabase.slot(own, opponent, move, capacity);
+    while (true) {
+      final int offset = PositionDatabase.HEADER_BYTES + slot * PositionDatabase.RECORD_BYTES;
+      final long slotOwn = table.getLong(offset);
+      final long slotOpponent = table.getLong(offset + Long.BYTES);
+      if (slotOwn == 0 && slotOpponent == 0) {
+        table.putLong(offset, own);
+        table.putLong(offset + Long.BYTES, opponent);
+        table.put(offset + PositionDatabase.MOVE_OFFSET, (byte) move);
+        table.putInt(offset + PositionDatabase.GAMES_OFFSET, games);
+        table.putInt(offset + PositionDatabase.WINS_OFFSET, wins);
+        table.putInt(offset + PositionDatabase.DRAWS_OFFSET, draws);
+        table.putInt(offset + PositionDatabase.SCORE_OFFSET, scoreSum);
+        size++;
+        // 線形探索が長くならないよう, 埋まった枠が2/3を超えたら表を広げる.
+        if (size * 3L > capacity * 2L) {
+          grow();
+        }
+        return;
+      }
+      if (slotOwn == own && slotOpponent == opponent
+          && table.get(offset + PositionDatabase.MOVE_OFFSET) == move) {
+        addInt(offset + PositionDatabase.GAMES_OFFSET, games);
+        addInt(offset + PositionDatabase.WINS_OFFSET, wins);
+        addInt(offset + PositionDatabase.DRAWS_OFFSET, draws);
+        addInt(offset + PositionDatabase.SCORE_OFFSET, scoreSum);
+        return;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  /**
+   * 表の指定した位置の値に加える.
+   *
+   * @param offset バイト位置
+   * @param value  加える値
+   */
+  private void addInt(final int offset, final int value) {
+    table.putInt(offset, table.getInt(offset) + value);
+  }
+
+  /**
+   * 表の大きさを2倍にし, 全ての記録を入れ直す.
+   *
+   * @throws IllegalStateException 表の大きさが上限を超える場合
+   */
+  private void grow() {
+    if (capacity >= PositionDatabase.MAX_CAPACITY) {
+      throw new IllegalStateException("局面と手の組が多すぎます. 集計する手数を減らしてください");
+    }
+    final PositionDatabaseBuilder grown = new PositionDatabaseBuilder(plies, capacity * 2);
+    copyTo(grown, 1);
+    table = grown.table;
+    capacity = grown.capacity;
+  }
+
+  /**
+   * 対局数が下限以上の記録だけを残したものを返す.
+   *
+   * @param minGames 対局数の下限
+   * @return 記録を絞り込んだもの
+   */
+  private PositionDatabaseBuilder filter(final int minGames) {
+    int remaining = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      final int offset = PositionDatabase.HEADER_BYTES + slot * PositionDatabase.RECORD_BYTES;
+      if (table.getInt(offset + PositionDatabase.GAMES_OFFSET) >= minGames) {
+        remaining++;
+      }
+    }
+    int filteredCapacity = INITIAL_CAPACITY;
+    while (remaining * 3L > filteredCapacity * 2L) {
+      filteredCapacity *= 2;
+    }
+    final PositionDatabaseBuilder filtered = new PositionDatabaseBuilder(plies, filteredCapacity);
+    copyTo(filtered, minGames);
+    return filtered;
+  }
+
+  /**
+   * 対局数が下限以上の記録を別の表に入れる.
+   *
+   * @param destination 入れる先
+   * @param minGames    対局数の下限. 空きの枠は対局数が0のため, 1以上であること
+   */
+  private void copyTo(final PositionDatabaseBuilder destination, final int minGames) {
+    for (int slot = 0; slot < capacity; slot++) {
+      final int offset = PositionDatabase.HEADER_BYTES + slot * PositionDatabase.RECORD_BYTES;
+      final int games = table.getInt(offset + PositionDatabase.GAMES_OFFSET);
+      if (games >= minGames) {
+        destination.merge(table.getLong(offset), table.getLong(offset + Long.BYTES),
+            table.get(offset + PositionDatabase.MOVE_OFFSET), games,
+            table.getInt(offset + PositionDatabase.WINS_OFFSET),
+            table.getInt(offset + PositionDatabase.DRAWS_OFFSET),
+            table.getInt(offset + PositionDatabase.SCORE_OFFSET));
+      }
+    }
+  }
+
+  /**
+   * ヘッダを付けてデータベースファイルに書き出す.
+   *
+   * @param path データベースファイルのパス. 既に存在する場合は上書きする
+   * @throws IOException 書き出しに失敗した場合
+   */
+  private void write(final Path path) throws IOException {
+    table.putInt(0, PositionDatabase.MAGIC);
+    table.putInt(Integer.BYTES, PositionDatabase.VERSION);
+    table.putInt(Integer.BYTES * 2, capacity);
+    table.putInt(Integer.BYTES * 3, size);
+    Files.write(path, table.array());
+  }
+
+  /**
+   * 使い方を表示する.
+   */
+  private static void printUsage() {
+    System.out.println("使い方: java othello.record.PositionDatabaseBuilder [-plies 手数] [-min 対局数]"
+        + " データベースファイル 棋譜ファイル...");
+  }
+}
@@ -0,0 +1,191 @@
+package othello.record;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import othello.BitBoard;
+import othello.PieceType;
+import othello.Squares;
+import othello.Symmetry;
+import othello.record.PositionDatabase.MoveStatistics;
+
+class PositionDatabaseTest {
+
+  /**
+   * 初期局面の黒の置ける座標. 初期局面は対称なため, どれも同じ手として扱われる.
+   */
+  private static final int[] FIRST_MOVES = {Squares.toSquare(2, 3), Squares.toSquare(3, 2),
+      Squares.toSquare(4, 5), Squares.toSquare(5, 4)};
+
+  /**
+   * 初期局面の対称な4つの手で始めた対局は1つの手にまとめられ, 結果の数が合計されること.
+   * 1手目の後の対称な局面も1つの記録を共有すること.
+   */
+  @Test
+  void symmetricMovesAreMerged(@TempDir Path directory) throws IOException {
+    final Random random = new Random(0);
+    final List<GameRecord> records = new ArrayList<>();
+    for (int first : FIRST_MOVES) {
+      records.add(playRandomGame(random, first));
+    }
+    final PositionDatabase database = build(directory, records);
+
+    int wins = 0;
+    int draws = 0;
+    int scoreSum = 0;
+    for (GameRecord record : records) {
+      wins += record.getResult() > 0 ? 1 : 0;
+      draws += record.getResult() == 0 ? 1 : 0;
+      scoreSum += record.getResult();
+    }
+    final BitBoard initial = new BitBoard();
+    final List<MoveStatistics> statistics = database.lookup(
+        initial.getBits(PieceType.BLACK), initial.getBits(PieceType.WHITE));
+    assertEquals(1, statistics.size());
+    final MoveStatistics merged = statistics.get(0);
+    // マス番号の最も小さい手にまとめる.
+    assertEquals(FIRST_MOVES[0], merged.getMove());
+    assertEquals(FIRST_MOVES.length, merged.getGames());
+    assertEquals(wins, merged.getWins());
+    assertEquals(draws, merged.getDraws());
+    assertEquals(FIRST_MOVES.length - wins - draws, merged.getLosses());
+    assertEquals((double) scoreSum / FIRST_MOVES.length, merged.getAverageDiscs(), 1e-9);
+
+    for (int first : FIRST_MOVES) {
+      final BitBoard board = new BitBoard();
+      board.makeMove(first);
+      assertEquals(FIRST_MOVES.length, database.getGames(
+          board.getBits(PieceType.WHITE), board.getBits(PieceType.BLACK)));
+    }
+  }
+
+  /**
+   * パスを含む対局の全ての局面で, 打たれた手と手番側から見た結果が引けること.
+   */
+  @Test
+  void gameWithPassIsRecordedFromSideToMove(@TempDir Path directory) throws IOException {
+    final Random random = new Random(0);
+    GameRecord record;
+    do {
+      record = playRandomGame(random, FIRST_MOVES[0]);
+    } while (!hasPass(record));
+    final PositionDatabase database = build(directory, List.of(record));
+    assertEquals(record.getMoveCount(), database.size());
+
+    final BitBoard board = new BitBoard();
+    for (int i = 0; i < record.getMoveCount(); i++) {
+      if (board.getLegalMoves() == 0) {
+        board.makePass();
+      }
+      final PieceType turn = board.getCurrentTurn();
+      final long own = board.getBits(turn);
+      final long opponent = board.getBits(PieceType.getEnemyType(turn));
+      final int result = turn == PieceType.BLACK ? record.getResult() : -record.getResult();
+
+      final List<MoveStatistics> statistics = database.lookup(own, opponent);
+      assertEquals(1, statistics.size());
+      final MoveStatistics played = statistics.get(0);
+      // 局面自体が対称な場合は同じ結果となる別のマスが返ることがあるため, 打った後の正規形で比べる.
+      assertArrayEquals(canonicalAfter(own, opponent, record.getMove(i)),
+          canonicalAfter(own, opponent, played.getMove()));
+      assertEquals(1, played.getGames());
+      assertEquals(result > 0 ? 1 : 0, played.getWins());
+      assertEquals(result == 0 ? 1 : 0, played.getDraws());
+      assertEquals(result, played.getAverageDiscs());
+
+      board.makeMove(record.getMove(i));
+    }
+  }
+
+  /**
+   * 棋譜を書き出し, データベースファイルを作成して開く.
+   *
+   * @param directory 作業用のディレクトリ
+   * @param records   棋譜
+   * @return 局面データベース
+   * @throws IOException 書き出しまたは読み込みに失敗した場合
+   */
+  private static PositionDatabase build(final Path directory, final List<GameRecord> records)
+      throws IOException {
+    final Path games = directory.resolve("games.bin");
+    final Path database = directory.resolve("positions.bin");
+    try (GameRecordWriter writer = new GameRecordWriter(games)) {
+      for (GameRecord record : records) {
+        writer.write(record);
+      }
+    }
+    PositionDatabaseBuilder.main(new String[] {
+        "-plies", String.valueOf(GameRecord.MAX_MOVES), database.toString(), games.toString()});
+    return PositionDatabase.open(database);
+  }
+
+  /**
+   * 1手目を指定し, 以降は無作為な手で終局まで打つ.
+   *
+   * @param random 乱数
+   * @param first  1手目のマス番号
+   * @return 棋譜
+   */
+  private static GameRecord playRandomGame(final Random random, final int first) {
+    final BitBoard board = new BitBoard();
+    final List<Integer> moves = new ArrayList<>();
+    board.makeMove(first);
+    moves.add(first);
+    while (!board.isGameOver()) {
+      long rest = board.getLegalMoves();
+      if (rest == 0) {
+        board.makePass();
+        rest = board.getLegalMoves();
+      }
+      for (int i = random.nextInt(Long.bitCount(rest)); i > 0; i--) {
+        rest = Squares.removeFirst(rest);
+      }
+      board.makeMove(Squares.first(rest));
+      moves.add(Squares.first(rest));
+    }
+    final int result = Long.bitCount(board.getBits(PieceType.BLACK))
+        - Long.bitCount(board.getBits(PieceType.WHITE));
+    return new GameRecord("black", "white", 0L, result,
+        moves.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  /**
+   * 棋譜の途中にパスが含まれるかを調べる.
+   *
+   * @param record 棋譜
+   * @return パスが含まれる場合 {@code true}
+   */
+  private static boolean hasPass(final GameRecord record) {
+    final BitBoard board = new BitBoard();
+    for (int i = 0; i < record.getMoveCount(); i++) {
+      if (board.getLegalMoves() == 0) {
+        return true;
+      }
+      board.makeMove(record.getMove(i));
+    }
+    return false;
+  }
+
+  /**
+   * 手を打った後の局面の正規形を求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param square   手のマス番号
+   * @return 打った後の手番側と相手のコマの配置の正規形
+   */
+  private static long[] canonicalAfter(final long own, final long opponent, final int square) {
+    final long flipped = BitBoard.flips(own, opponent, square);
+    final long nextOwn = opponent & ~flipped;
+    final long nextOpponent = own | flipped | 1L << square;
+    final Symmetry canonical = Symmetry.canonical(nextOwn, nextOpponent);
+    return new long[] {canonical.apply(nextOwn), canonical.apply(nextOpponent)};
+  }
+}
@@ -0,0 +1,80 @@
+package othello.strategy;
+
+import othello.Board;
+import othello.BoardSnapshot;
+import othello.Coordinate;
+import othello.PieceType;
+import othello.Squares;
+import othello.record.PositionDatabase;
+import othello.record.PositionDatabase.MoveStatistics;
+
+/**
+ * 局面データベースに十分な対局数がある局面では, 過去の対局で最も得点率の高かった手を選ぶAI.
+ * <p>
+ * 対局数が下限に満たない局面では, 指定した戦略に座標を決めさせる. 得点率の等しい手は対局数の多い手を選ぶ.
+ */
+public class DatabaseAI implements StrategyInterface {
+
+  /**
+   * 既定の手を選ぶのに必要な対局数の下限.
+   */
+  public static final int DEFAULT_MIN_GAMES = 20;
+  /**
+   * 局面データベース.
+   */
+  private final PositionDatabase database;
+  /**
+   * 局面データベースで手を選べない場合の戦略.
+   */
+  private final StrategyInterface fallback;
+  /**
+   * 手を選ぶのに必要な対局数の下限.
+   */
+  private final int minGames;
+
+  /**
+   * 局面データベースと, 手を選べない場合の戦略を指定して生成する.
+   *
+   * @param database 局面データベース
+   * @param fallback 局面データベースで手を選べない場合の戦略
+   */
+  public DatabaseAI(PositionDatabase database, StrategyInterface fallback) {
+    this(database, fallback, DEFAULT_MIN_GAMES);
+  }
+
+  /**
+   * 手を選ぶのに必要な対局数の下限を指定して生成する.
+   *
+   * @param database 局面データベース
+   * @param fallback 局面データベースで手を選べない場合の戦略
+   * @param minGames 手を選ぶのに必要な対局数の下限
+   * @throws IllegalArgumentException 対局数の下限が1未満の場合
+   */
+  public DatabaseAI(PositionDatabase database, StrategyInterface fallback, int minGames) {
+    if (minGames < 1) {
+      throw new IllegalArgumentException("対局数の下限は1以上を指定してください");
+    }
+    this.database = database;
+    this.fallback = fallback;
+    this.minGames = minGames;
+  }
+
+  @Override
+  public Coordinate decideCoordinate(Board othello) {
+    final PieceType turn = othello.getCurrentTurn();
+    final BoardSnapshot snapshot = othello.snapshot();
+    MoveStatistics best = null;
+    for (MoveStatistics statistics : database.lookup(snapshot.getBits(turn),
+        snapshot.getBits(PieceType.getEnemyType(turn)))) {
+      // 対局数の多い順に並んでいるため, 得点率が真に高い場合のみ置き換える.
+      if (statistics.getGames() >= minGames
+          && (best == null || statistics.getScore() > best.getScore())) {
+        best = statistics;
+      }
+    }
+    if (best == null) {
+      return fallback.decideCoordinate(othello);
+    }
+    return Squares.toCoordinate(best.getMove());
+  }
+}
@@ -0,0 +1,292 @@
+package othello.strategy;
+
+import othello.BitBoard;
+import othello.Squares;
+
+/**
+ * 終盤の局面を終局まで読み切り, 最終的な石差を求めるクラス.
+ * <p>
+ * 盤面は手番側と相手のコマの配置を表す2つの {@code long} のみで扱い, 評価値は常に手番側から見た石差とする(ネガマックス法).
+ * 終局時に残った空きマスは勝った側の石として数える.
+ * <p>
+ * 空きマスが多いうちは相手の合法手が少なくなる手から順に読み(速さ優先), 分岐の多い浅いノードで枝刈りを起こしやすくする.
+ * 空きマスが少なくなると並べ替えの手間の方が大きくなるため, 合法手を生成せず空きマスを順に試す. 最後の1マスは専用の処理で求める.
+ * <p>
+ * 1つのインスタンスは1スレッドからのみ使用する.
+ */
+public final class EndgameSolver {
+
+  /**
+   * 石差の最大値.
+   */
+  public static final int MAX_SCORE = 64;
+  /**
+   * 空きマスがこの数より多い場合に, 相手の合法手の数で手を並べ替える.
+   */
+  private static final int SORT_EMPTIES = 6;
+  /**
+   * 空きマスがこの数以下の場合は合法手を生成せず, 空きマスを順に試す.
+   */
+  private static final int SHALLOW_EMPTIES = 4;
+  /**
+   * 時間切れを確認する間隔(ノード数 - 1).
+   */
+  private static final long TIME_CHECK_INTERVAL = 4095;
+  /**
+   * 手を並べ替えるための作業領域. 空きマスの数ごとに持つため, 探索中にオブジェクトを生成しない.
+   */
+  private final int[][] moveBuffer = new int[Squares.SIZE + 1][MoveOrderer.MAX_MOVES];
+  /**
+   * 手を並べ替える際の各手の優先度. 値が小さいほど先に読む.
+   */
+  private final int[][] keyBuffer = new int[Squares.SIZE + 1][MoveOrderer.MAX_MOVES];
+  /**
+   * 探索を打ち切る時刻({@link System#nanoTime()} の値).
+   */
+  private long deadline;
+  /**
+   * 時間切れにより探索を打ち切った場合 {@code true}.
+   */
+  private boolean aborted;
+  /**
+   * 直前の探索で訪れたノード数.
+   */
+  private long nodes;
+
+  /**
+   * 局面を終局まで読み切る.
+   * <p>
+   * 評価値が α値以下, β値以上となる場合はその範囲の外側の値が返るが, 真の評価値とは限らない.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param alpha    α値
+   * @param beta     β値
+   * @param deadline 探索を打ち切る時刻({@link System#nanoTime()} の値). 制限しない場合は {@link Long#MAX_VALUE}
+   * @return 手番側から見た最終的な石差. 打ち切られた場合は不定
+   */
+  public int solve(final long own, final long opponent, final int alpha, final int beta,
+      final long deadline) {
+    this.deadline = deadline;
+    this.aborted = false;
+    this.nodes = 0;
+    return search(own, opponent, alpha, beta);
+  }
+
+  /**
+   * 直前の探索が時間切れにより打ち切られたかどうかを返す.
+   *
+   * @return 打ち切られた場合 {@code true}
+   */
+  public boolean isAborted() {
+    return aborted;
+  }
+
+  /**
+   * 直前の探索で訪れたノード数を返す.
+   *
+   * @return ノード数
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * 終局した局面の石差を求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 手番側から見た石差. 空きマスは勝った側の石として数える
+   */
+  public static int finalScore(final long own, final long opponent) {
+    final int ownCount = Long.bitCount(own);
+    final int opponentCount = Long.bitCount(opponent);
+    final int diff = ownCount - opponentCount;
+    final int empties = Squares.SIZE - ownCount - opponentCount;
+    if (diff > 0) {
+      return diff + empties;
+    } else if (diff < 0) {
+      return diff - empties;
+    }
+    return 0;
+  }
+
+  /**
+   * アルファベータ法により終局まで読む.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param alpha    α値
+   * @param beta     β値
+   * @return 手番側から見た石差
+   */
+  private int search(final long own, final long opponent, int alpha, final int beta) {
+    if ((++nodes & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+
+    final long empty = ~(own | opponent);
+    final int empties = Long.bitCount(empty);
+    if (empties == 1) {
+      return searchLast(own, opponent, Squares.first(empty));
+    }
+    if (empties <= SHALLOW_EMPTIES) {
+      return searchShallow(own, opponent, empty, alpha, beta);
+    }
+
+    final long moves = BitBoard.legalMoves(own, opponent);
+    if (moves == 0) {
+      return searchPass(own, opponent, alpha, beta);
+    }
+    if (empties > SORT_EMPTIES) {
+      return searchSorted(own, opponent, moves, empties, alpha, beta);
+    }
+
+    int best = -MAX_SCORE - 1;
+    for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      final long flipped = BitBoard.flips(own, opponent, square);
+      final int score = -search(opponent ^ flipped, own | flipped | 1L << square, -beta, -alpha);
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * 相手の合法手が少なくなる手から順に読む.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param moves    手番側の合法手
+   * @param empties  空きマスの数
+   * @param alpha    α値
+   * @param beta     β値
+   * @return 手番側から見た石差
+   */
+  private int searchSorted(final long own, final long opponent, final long moves,
+      final int empties, int alpha, final int beta) {
+    final int[] sorted = moveBuffer[empties];
+    final int[] keys = keyBuffer[empties];
+    int count = 0;
+    for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      final long flipped = BitBoard.flips(own, opponent, square);
+      final int key = Long.bitCount(
+          BitBoard.legalMoves(opponent ^ flipped, own | flipped | 1L << square));
+
+      // 相手の合法手の少ない順に挿入する.
+      int i = count++;
+      while (i > 0 && keys[i - 1] > key) {
+        sorted[i] = sorted[i - 1];
+        keys[i] = keys[i - 1];
+        i--;
+      }
+      sorted[i] = square;
+      keys[i] = key;
+    }
+
+    int best = -MAX_SCORE - 1;
+    for (int i = 0; i < count; i++) {
+      final int square = sorted[i];
+      final long flipped = BitBoard.flips(own, opponent, square);
+      final int score = -search(opponent ^ flipped, own | flipped | 1L << square, -beta, -alpha);
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * 空きマスを順に試して読む. 合法手の生成を省き, ひっくり返るコマがないマスを飛ばす.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param empty    空きマス
+   * @param alpha    α値
+   * @param beta     β値
+   * @return 手番側から見た石差
+   */
+  private int searchShallow(final long own, final long opponent, final long empty, int alpha,
+      final int beta) {
+    int best = -MAX_SCORE - 1;
+    boolean moved = false;
+    for (long rest = empty; rest != 0; rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      final long flipped = BitBoard.flips(own, opponent, square);
+      if (flipped == 0) {
+        continue;
+      }
+      moved = true;
+      final int score = -search(opponent ^ flipped, own | flipped | 1L << square, -beta, -alpha);
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (!moved) {
+      return searchPass(own, opponent, alpha, beta);
+    }
+    return best;
+  }
+
+  /**
+   * 手番側が置けない局面を読む. 相手も置けなければ終局とする.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param alpha    α値
+   * @param beta     β値
+   * @return 手番側から見た石差
+   */
+  private int searchPass(final long own, final long opponent, final int alpha, final int beta) {
+    if (BitBoard.legalMoves(opponent, own) == 0) {
+      return finalScore(own, opponent);
+    }
+    return -search(opponent, own, -beta, -alpha);
+  }
+
+  /**
+   * 空きマスが残り1つの局面の石差を求める.
+   * <p>
+   * 手番側が置ければ置き, 置けなければ相手が置く. どちらも置けなければ空きマスを残して終局する.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param square   最後の空きマス
+   * @return 手番側から見た石差
+   */
+  private static int searchLast(final long own, final long opponent, final int square) {
+    final long flipped = BitBoard.flips(own, opponent, square);
+    if (flipped != 0) {
+      return 2 * (Long.bitCount(own | flipped) + 1) - Squares.SIZE;
+    }
+    final long opponentFlipped = BitBoard.flips(opponent, own, square);
+    if (opponentFlipped != 0) {
+      return Squares.SIZE - 2 * (Long.bitCount(opponent | opponentFlipped) + 1);
+    }
+    return finalScore(own, opponent);
+  }
+}
@@ -0,0 +1,115 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import othello.BitBoard;
+import othello.PieceType;
+import othello.Squares;
+
+class EndgameSolverTest {
+
+  /**
+   * 空きマスの数(8～12)ごとの検証する局面の数. 総当たりは空きマスが1つ増えるごとに数倍遅くなるため, 多い方は少なくする.
+   */
+  private static final int[][] POSITIONS = {{8, 12}, {9, 8}, {10, 6}, {11, 3}, {12, 1}};
+  /**
+   * 総当たりで読んだ局面のうちパスを含んだ局面の数.
+   */
+  private int passes;
+
+  /**
+   * 空きマスが8～12の局面で, 読み切りの結果が総当たりのミニマックス法の結果と一致し, 幅のない探索窓でも真の値の側に外れること.
+   */
+  @Test
+  void solveMatchesMinimax() {
+    final EndgameSolver solver = new EndgameSolver();
+    final Random random = new Random(0);
+    for (int[] positions : POSITIONS) {
+      for (int i = 0; i < positions[1]; i++) {
+        assertSolved(solver, randomPosition(random, positions[0]));
+      }
+    }
+    assertTrue(passes > 0, "パスを含む局面が検証されていません");
+  }
+
+  /**
+   * 読み切りの結果が総当たりの結果と一致することを確かめる.
+   *
+   * @param solver 解析器
+   * @param board  局面
+   */
+  private void assertSolved(final EndgameSolver solver, final BitBoard board) {
+    final PieceType turn = board.getCurrentTurn();
+    final long own = board.getBits(turn);
+    final long opponent = board.getBits(PieceType.getEnemyType(turn));
+
+    final int expected = minimax(board);
+    final int score = solver.solve(own, opponent, -EndgameSolver.MAX_SCORE - 1,
+        EndgameSolver.MAX_SCORE + 1, Long.MAX_VALUE);
+    assertFalse(solver.isAborted());
+    assertEquals(expected, score, board.toString());
+
+    assertTrue(solver.solve(own, opponent, expected - 1, expected, Long.MAX_VALUE) >= expected);
+    assertTrue(solver.solve(own, opponent, expected, expected + 1, Long.MAX_VALUE) <= expected);
+  }
+
+  /**
+   * ランダムに打って, 空きマスが指定した数になった局面を作る. 途中で終局した場合は最初からやり直す.
+   *
+   * @param random  乱数
+   * @param empties 空きマスの数
+   * @return 局面
+   */
+  private static BitBoard randomPosition(final Random random, final int empties) {
+    while (true) {
+      final BitBoard board = new BitBoard();
+      while (Long.bitCount(board.getBits(PieceType.EMPTY)) > empties && !board.isGameOver()) {
+        long moves = board.getLegalMoves();
+        if (moves == 0) {
+          board.makePass();
+          moves = board.getLegalMoves();
+        }
+        for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+          moves = Squares.removeFirst(moves);
+        }
+        board.makeMove(Squares.first(moves));
+      }
+      if (Long.bitCount(board.getBits(PieceType.EMPTY)) == empties) {
+        return board;
+      }
+    }
+  }
+
+  /**
+   * 枝刈りをせずに終局まで読む.
+   *
+   * @param board 局面. 処理後は元の状態に戻る
+   * @return 手番側から見た最終的な石差
+   */
+  private int minimax(final BitBoard board) {
+    long moves = board.getLegalMoves();
+    if (moves == 0) {
+      final PieceType turn = board.getCurrentTurn();
+      if (board.isGameOver()) {
+        return EndgameSolver.finalScore(board.getBits(turn),
+            board.getBits(PieceType.getEnemyType(turn)));
+      }
+      passes++;
+      board.makePass();
+      final int score = -minimax(board);
+      board.unmakeMove();
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (; moves != 0; moves = Squares.removeFirst(moves)) {
+      board.makeMove(Squares.first(moves));
+      best = Math.max(best, -minimax(board));
+      board.unmakeMove();
+    }
+    return best;
+  }
+}
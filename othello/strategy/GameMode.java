@@ -25,7 +25,15 @@ public enum GameMode {
   /**
    * AI同士と対戦するゲームモード
    */
-  AIS("5");
+  AIS("5"),
+  /**
+   * 対AI(PVS)と対戦するゲームモード
+   */
+  PVS_AI("6"),
+  /**
+   * 対AI(パターン)と対戦するゲームモード
+   */
+  PATTERN_AI("7");
 
   /**
    * ゲームモードを文字列で表した情報.
@@ -46,12 +54,16 @@ public enum GameMode {
       System.out.println("プレイするモードを選択してください");
 
       System.out
-          .println(String.format("%s: プレイヤー同士 %s: 対AI(弱) %s: 対AI(並) %s: 対AI(強) %s: AI同士(弱VS強)",
+          .println(String.format(
+              "%s: プレイヤー同士 %s: 対AI(弱) %s: 対AI(並) %s: 対AI(強) %s: AI同士(弱VS強) %s: 対AI(PVS)"
+                  + " %s: 対AI(パターン)",
               PLAYERS.mode,
               WEAK_AI.mode,
               NORMAL_AI.mode,
               STRONG_AI.mode,
-              AIS.mode));
+              AIS.mode,
+              PVS_AI.mode,
+              PATTERN_AI.mode));
       System.out.println(String.format("例: %s", GameMode.PLAYERS.mode));
 
       final String mode = new Scanner(System.in).nextLine().trim();
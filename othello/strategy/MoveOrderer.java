@@ -0,0 +1,160 @@
+package othello.strategy;
+
+import othello.Squares;
+
+/**
+ * 探索で手を読む順番を決めるクラス.
+ * <p>
+ * 以下の順に手を並べる.
+ * <ol>
+ *     <li>置換表に記録された最善手</li>
+ *     <li>同じ手数の別の局面でβカットを起こした手(キラー手). 手数ごとに2つまで保持する</li>
+ *     <li>それ以外の手. これまでにβカットを起こした回数を深さで重み付けした値(ヒストリー)の大きい順とし,
+ *     同じ値であれば {@link StrongAI#POSITION_SCORE} によるマスの優先度の高い順(角が先, 角の斜め隣が後)とする</li>
+ * </ol>
+ * 並べ替えた手は手数ごとに用意した配列に格納するため, 探索中にオブジェクトを生成しない.
+ * キラー手とヒストリーは探索器ごとに保持し, 反復深化の深さをまたいで引き継ぐ. 1つのインスタンスは1スレッドからのみ使用する.
+ */
+final class MoveOrderer {
+
+  /**
+   * 探索する手数の上限. パスも1手として数える.
+   */
+  private static final int MAX_PLY = Squares.SIZE + 1;
+  /**
+   * 1局面の合法手の数の上限. 到達可能な局面で33手となる場合があるため, マスの数とする. 読み切りの作業領域も同じ大きさとする.
+   */
+  static final int MAX_MOVES = Squares.SIZE;
+  /**
+   * 1手数あたりに保持するキラー手の数.
+   */
+  private static final int KILLERS = 2;
+  /**
+   * 置換表の最善手の優先度.
+   */
+  private static final int HASH_MOVE_KEY = Integer.MAX_VALUE;
+  /**
+   * キラー手の優先度. 2つ目のキラー手は1つ小さい値とする.
+   */
+  private static final int KILLER_KEY = Integer.MAX_VALUE - 1;
+  /**
+   * ヒストリーの上限. 超えた場合は全体を半分にして優先度の計算が桁あふれしないようにする.
+   */
+  private static final int HISTORY_LIMIT = 1 << 20;
+  /**
+   * ヒストリーに掛けて優先度とする値. マスの優先度の幅より大きくし, ヒストリーが等しい場合のみマスの優先度で比べる.
+   */
+  private static final int HISTORY_SCALE = 128;
+  /**
+   * マスごとの優先度. {@link StrongAI#POSITION_SCORE} をマス番号の順に並べたもの.
+   */
+  private static final int[] SQUARE_PRIORITY = new int[Squares.SIZE];
+
+  static {
+    for (int square = 0; square < Squares.SIZE; square++) {
+      SQUARE_PRIORITY[square] = StrongAI.POSITION_SCORE[square / 8][square % 8];
+    }
+  }
+
+  /**
+   * 手数ごとの並べ替えた手.
+   */
+  private final int[][] moves = new int[MAX_PLY][MAX_MOVES];
+  /**
+   * 手数ごとの各手の優先度.
+   */
+  private final int[][] keys = new int[MAX_PLY][MAX_MOVES];
+  /**
+   * 手数ごとのキラー手. 記録がない場合は {@link TranspositionTable#NO_MOVE}.
+   */
+  private final int[][] killers = new int[MAX_PLY][KILLERS];
+  /**
+   * 手番(0: 自分, 1: 相手)とマスごとのヒストリー.
+   */
+  private final int[][] history = new int[2][Squares.SIZE];
+
+  MoveOrderer() {
+    for (int[] killer : killers) {
+      killer[0] = TranspositionTable.NO_MOVE;
+      killer[1] = TranspositionTable.NO_MOVE;
+    }
+  }
+
+  /**
+   * 置くことができるマスを読む順番に並べる.
+   *
+   * @param candidates 置くことができるマス
+   * @param hashMove   置換表に記録された最善手. ない場合は {@link TranspositionTable#NO_MOVE}
+   * @param ply        ルートからの手数
+   * @param side       手番. 自分の場合は0, 相手の場合は1
+   * @return 並べた手の数. 手は {@link #moveAt(int, int)} で取り出す
+   */
+  int order(final long candidates, final int hashMove, final int ply, final int side) {
+    final int[] sorted = moves[ply];
+    final int[] sortedKeys = keys[ply];
+    final int[] killer = killers[ply];
+    final int[] sideHistory = history[side];
+    int count = 0;
+    for (long rest = candidates; rest != 0; rest = Squares.removeFirst(rest)) {
+      final int square = Squares.first(rest);
+      final int key;
+      if (square == hashMove) {
+        key = HASH_MOVE_KEY;
+      } else if (square == killer[0]) {
+        key = KILLER_KEY;
+      } else if (square == killer[1]) {
+        key = KILLER_KEY - 1;
+      } else {
+        key = sideHistory[square] * HISTORY_SCALE + SQUARE_PRIORITY[square];
+      }
+
+      // 優先度の高い順に挿入する. 同じ優先度ではマス番号の昇順を保つ.
+      int i = count++;
+      while (i > 0 && sortedKeys[i - 1] < key) {
+        sorted[i] = sorted[i - 1];
+        sortedKeys[i] = sortedKeys[i - 1];
+        i--;
+      }
+      sorted[i] = square;
+      sortedKeys[i] = key;
+    }
+    return count;
+  }
+
+  /**
+   * 並べた手を取り出す.
+   *
+   * @param ply   ルートからの手数
+   * @param index 何番目に読む手か
+   * @return マス番号
+   */
+  int moveAt(final int ply, final int index) {
+    return moves[ply][index];
+  }
+
+  /**
+   * βカットを起こした手を記録する.
+   *
+   * @param move  マス番号
+   * @param ply   ルートからの手数
+   * @param side  手番. 自分の場合は0, 相手の場合は1
+   * @param depth 残りの探索の深さ
+   */
+  void recordCutoff(final int move, final int ply, final int side, final int depth) {
+    final int[] killer = killers[ply];
+    if (killer[0] != move) {
+      killer[1] = killer[0];
+      killer[0] = move;
+    }
+
+    final int[] sideHistory = history[side];
+    sideHistory[move] += depth * depth;
+    if (sideHistory[move] > HISTORY_LIMIT) {
+      for (int[] values : history) {
+        for (int square = 0; square < Squares.SIZE; square++) {
+          values[square] >>= 1;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import othello.Squares;
+
+class MoveOrdererTest {
+
+  /**
+   * 33手以上の候補も取りこぼさずに並べ替え, 置換表の最善手を最初に返すこと.
+   */
+  @Test
+  void orderKeepsEveryCandidate() {
+    final MoveOrderer orderer = new MoveOrderer();
+    // 中央の4マス以外のすべてのマス.
+    final long candidates = ~(0x3L << Squares.toSquare(3, 3) | 0x3L << Squares.toSquare(4, 3));
+    final int hashMove = Squares.toSquare(0, 7);
+
+    final int count = orderer.order(candidates, hashMove, 0, 0);
+    assertEquals(Long.bitCount(candidates), count);
+    assertEquals(hashMove, orderer.moveAt(0, 0));
+    long ordered = 0L;
+    for (int i = 0; i < count; i++) {
+      ordered |= 1L << orderer.moveAt(0, i);
+    }
+    assertEquals(candidates, ordered);
+  }
+}
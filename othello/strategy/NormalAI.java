@@ -2,31 +2,237 @@ package othello.strategy;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import othello.BitBoard;
 import othello.Board;
 import othello.Coordinate;
 import othello.PieceType;
+import othello.Squares;
+import othello.strategy.TranspositionTable.Bound;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
 
 /**
  * アルファベータ法による評価値の計算用クラス.
+ * <p>
+ * 探索の打ち切り時刻や直前の評価値をインスタンスで保持するため, 1つのインスタンスで同時に探索できるのは1スレッドのみとする.
+ * 探索中のインスタンスを別のスレッドから呼び出した場合は {@link IllegalStateException} を送出する. 複数の対局を並行して進める場合は,
+ * スレッドごとにインスタンスを生成すること.
  */
 public class NormalAI implements StrategyInterface {
 
   /**
-   * フィールドの行数.
+   * 時間制限を設けないことを表す値.
    */
-  private static final int ROW = 8;
+  public static final long NO_TIME_LIMIT = 0L;
   /**
-   * フィールドの列数.
+   * 既定の探索の深さ. 自分の手を含めて何手先まで読むか.
    */
-  private static final int COL = 8;
+  public static final int DEFAULT_MAX_DEPTH = 6;
+  /**
+   * 既定の読み切りを開始する空きマスの数.
+   */
+  public static final int DEFAULT_ENDGAME_EMPTIES = 14;
+  /**
+   * 終局まで読み切ることを表す探索の深さ.
+   */
+  private static final int SOLVE_DEPTH = Integer.MAX_VALUE;
+  /**
+   * PVSでルートの最初の手を読む際の, 前の深さの評価値を中心とした探索窓(アスピレーションウィンドウ)の幅の半分.
+   */
+  private static final int ASPIRATION_WINDOW = 100;
+  /**
+   * 置換表を指定しない場合に生成する置換表のメモリ量(MB).
+   */
+  public static final int DEFAULT_TABLE_MEGABYTES = 16;
+  /**
+   * 時間切れを確認する間隔(ノード数 - 1).
+   */
+  private static final long TIME_CHECK_INTERVAL = 1023;
   /**
    * 自分のコマの種類.
    */
   private final PieceType me;
+  /**
+   * 探索済みの局面を保持する置換表.
+   */
+  private final TranspositionTable table;
+  /**
+   * 探索の深さの上限.
+   */
+  private final int maxDepth;
+  /**
+   * 1手あたりの探索時間の上限(ミリ秒).
+   */
+  private final long timeLimitMillis;
+  /**
+   * 探索に使用するスレッド数.
+   */
+  private final int threads;
+  /**
+   * 空きマスがこの数以下になると終局まで読み切る.
+   */
+  private final int endgameEmpties;
+  /**
+   * 序盤に探索の代わりに引く定石. 使用しない場合は {@code null}.
+   */
+  private final OpeningBook book;
+  /**
+   * 2つ目以降の探索器を動かすスレッドプール. スレッド数が1の場合は {@code null}. 呼び出し元が所有する.
+   */
+  private final ExecutorService workers;
+  /**
+   * 探索中の場合 {@code true}. 複数のスレッドから同時に探索されることを防ぐ.
+   */
+  private final AtomicBoolean searching = new AtomicBoolean();
+  /**
+   * 探索を打ち切る時刻({@link System#nanoTime()} の値).
+   */
+  private volatile long deadline;
+  /**
+   * 時間切れにより探索を打ち切った場合 {@code true}. 全探索器で共有する.
+   */
+  private volatile boolean aborted;
+  /**
+   * 直前に探索した最善手の評価値.
+   */
+  private int lastEval;
 
+  /**
+   * 既定の条件で生成する.
+   * <p>
+   * インスタンスごとに {@value #DEFAULT_TABLE_MEGABYTES}MBの置換表を生成する. 定石は使用しない.
+   *
+   * @param me 自分のコマの種類
+   */
   public NormalAI(PieceType me) {
+    this(me, new TranspositionTable(DEFAULT_TABLE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED));
+  }
+
+  /**
+   * 使用する置換表を指定して生成する.
+   * <p>
+   * 置換表に記録される評価値は自分のコマから見た値であるため, 置換表を別のコマのAIと共有してはならない.
+   *
+   * @param me    自分のコマの種類
+   * @param table 置換表
+   */
+  public NormalAI(PieceType me, TranspositionTable table) {
+    this(me, table, DEFAULT_MAX_DEPTH, NO_TIME_LIMIT);
+  }
+
+  /**
+   * 使用する置換表と定石を指定して生成する. その他の条件は既定とする.
+   *
+   * @param me    自分のコマの種類
+   * @param table 置換表
+   * @param book  定石. {@code null} の場合は定石を使用しない
+   * @see OpeningBook#loadDefault()
+   */
+  public NormalAI(PieceType me, TranspositionTable table, OpeningBook book) {
+    this(me, table, DEFAULT_MAX_DEPTH, NO_TIME_LIMIT, 1, null, DEFAULT_ENDGAME_EMPTIES, book);
+  }
+
+  /**
+   * 探索の深さと時間の上限を指定して生成する.
+   * <p>
+   * 深さ1から順に深さを増やして探索し(反復深化), 時間の上限に達した時点で最後に読み終えた深さの最善手を返す.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒). {@link #NO_TIME_LIMIT} の場合は深さの上限まで探索する
+   * @throws IllegalArgumentException 深さの上限が1未満の場合
+   */
+  public NormalAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis) {
+    this(me, table, maxDepth, timeLimitMillis, 1, null);
+  }
+
+  /**
+   * 探索の深さと時間の上限, 探索に使用するスレッド数とスレッドプールを指定して生成する.
+   * <p>
+   * スレッド数が2以上の場合, 各深さでルートの手をスレッド間で分担して並列に読む. 各スレッドは盤面の複製を持ち, 置換表は共有する.
+   * 呼び出し元のスレッド以外の探索器はスレッドプールで動かす. スレッドプールはAIでは終了させないため, 呼び出し元で終了させること.
+   * 同時に探索しない複数のAIで1つのスレッドプールを共有できる.
+   * <p>
+   * 並列に読む場合, 評価値の等しい手のどれが選ばれるかは実行ごとに変わりうる. スレッド数が1の場合は常に同じ手を返す.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒). {@link #NO_TIME_LIMIT} の場合は深さの上限まで探索する
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール. スレッド数-1以上のスレッドを持つこと. スレッド数が1の場合は
+   *                        {@code null} でよい
+   * @throws IllegalArgumentException 深さの上限またはスレッド数が1未満の場合, スレッド数が2以上でスレッドプールがない場合
+   */
+  public NormalAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers) {
+    this(me, table, maxDepth, timeLimitMillis, threads, workers, DEFAULT_ENDGAME_EMPTIES);
+  }
+
+  /**
+   * 探索の深さと時間の上限, 探索に使用するスレッド数, 読み切りを開始する空きマスの数を指定して生成する.
+   * <p>
+   * 空きマスの数が指定した値以下の局面では, 評価関数を使わずに終局まで読み切り, 最終的な石差が最も大きくなる手を選ぶ.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒). {@link #NO_TIME_LIMIT} の場合は深さの上限まで探索する
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール. スレッド数が1の場合は {@code null} でよい
+   * @param endgameEmpties  読み切りを開始する空きマスの数. 0の場合は読み切りを行わない
+   * @throws IllegalArgumentException 深さの上限またはスレッド数が1未満の場合, スレッド数が2以上でスレッドプールがない場合,
+   *                                  空きマスの数が負の場合
+   * @see #NormalAI(PieceType, TranspositionTable, int, long, int, ExecutorService)
+   */
+  public NormalAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers, int endgameEmpties) {
+    this(me, table, maxDepth, timeLimitMillis, threads, workers, endgameEmpties, null);
+  }
+
+  /**
+   * 探索の条件と使用する定石を指定して生成する.
+   * <p>
+   * 定石に記録された局面では探索を行わず, 記録された最善手を返す.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒). {@link #NO_TIME_LIMIT} の場合は深さの上限まで探索する
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール. スレッド数が1の場合は {@code null} でよい
+   * @param endgameEmpties  読み切りを開始する空きマスの数. 0の場合は読み切りを行わない
+   * @param book            定石. {@code null} の場合は定石を使用しない
+   * @throws IllegalArgumentException 深さの上限またはスレッド数が1未満の場合, スレッド数が2以上でスレッドプールがない場合,
+   *                                  空きマスの数が負の場合
+   */
+  public NormalAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers, int endgameEmpties, OpeningBook book) {
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("探索の深さは1以上を指定してください");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("スレッド数は1以上を指定してください");
+    }
+    if (threads > 1 && workers == null) {
+      throw new IllegalArgumentException("スレッド数が2以上の場合はスレッドプールを指定してください");
+    }
+    if (endgameEmpties < 0) {
+      throw new IllegalArgumentException("読み切りを開始する空きマスの数は0以上を指定してください");
+    }
     this.me = me;
+    this.table = table;
+    this.maxDepth = maxDepth;
+    this.timeLimitMillis = timeLimitMillis;
+    this.threads = threads;
+    this.endgameEmpties = endgameEmpties;
+    this.book = book;
+    this.workers = threads > 1 ? workers : null;
   }
 
   /**
@@ -37,52 +243,194 @@ public class NormalAI implements StrategyInterface {
    */
   @Override
   public Coordinate decideCoordinate(Board othello) {
-    Board clone = othello.cloneInstance();
-    Coordinate result = Coordinate.valueOf(-1, -1);
-    List<Coordinate> candidates = getAllCandidatesToPut(clone);
+    return decideCoordinate(othello, maxDepth, timeLimitMillis);
+  }
 
-    // 評価値の初期値を最小の値として設定する.
-    int evalMax = Integer.MIN_VALUE;
+  /**
+   * 探索の深さと時間の上限を指定してコマを置く座標を決定する.
+   * <p>
+   * 深さ1から上限まで順に探索し, 各深さでは前の深さの最善手から調べる. 時間の上限に達した場合は探索を打ち切り,
+   * それまでに読み終えた結果の中の最善手を返す.
+   * <p>
+   * 空きマスの数が読み切りを開始する数以下の場合は, 深さ1で読んだ後に終局まで読み切る. 読み切りの途中で時間の上限に達した場合は
+   * 読み切った手の中の最善手を返し, 1手も読み切れていなければ深さ1の最善手を返す.
+   * <p>
+   * 定石を使用する場合, 定石に記録された局面では探索せずに記録された最善手を返す.
+   *
+   * @param othello         現在の状態を保持したオブジェクト
+   * @param depthLimit      探索の深さの上限
+   * @param timeLimitMillis 探索時間の上限(ミリ秒). {@link #NO_TIME_LIMIT} の場合は制限しない
+   * @return 評価値の最も高い座標. 置ける座標がない場合は範囲外の座標
+   * @throws IllegalStateException 別のスレッドで探索中の場合
+   */
+  public Coordinate decideCoordinate(Board othello, int depthLimit, long timeLimitMillis) {
+    if (!searching.compareAndSet(false, true)) {
+      throw new IllegalStateException("探索中のAIを別のスレッドから呼び出すことはできません");
+    }
+    try {
+      return search(othello, depthLimit, timeLimitMillis);
+    } finally {
+      searching.set(false);
+    }
+  }
 
-    // 置くことができる座標それぞれの評価値を求め最も評価値の高い座標を選出する.
-    for (Coordinate candidate : candidates) {
-      clone.processToPutPiece(candidate);
-      int eval = alphaBeta(clone, 5, Integer.MIN_VALUE, Integer.MAX_VALUE);
-      clone.goBack(1);
-      if (eval >= evalMax) {
-        result = candidate;
-        evalMax = eval;
+  /**
+   * 探索の深さと時間の上限を指定してコマを置く座標を決定する. 同時に1スレッドからのみ呼び出される.
+   *
+   * @param othello         現在の状態を保持したオブジェクト
+   * @param depthLimit      探索の深さの上限
+   * @param timeLimitMillis 探索時間の上限(ミリ秒). {@link #NO_TIME_LIMIT} の場合は制限しない
+   * @return 評価値の最も高い座標. 置ける座標がない場合は範囲外の座標
+   */
+  private Coordinate search(Board othello, int depthLimit, long timeLimitMillis) {
+    // 探索は盤面をビットボードに変換して行う.
+    BitBoard clone = BitBoard.valueOf(othello);
+    final long candidates = clone.getLegalMoves();
+    if (candidates == 0) {
+      return Coordinate.valueOf(-1, -1);
+    }
+    if (Long.bitCount(candidates) == 1) {
+      // 置ける座標が1つしかなければ探索しない.
+      return Squares.toCoordinate(Squares.first(candidates));
+    }
+    if (book != null) {
+      final PieceType turn = clone.getCurrentTurn();
+      final int bookMove = book.lookup(clone.getBits(turn),
+          clone.getBits(PieceType.getEnemyType(turn)));
+      if (bookMove != TranspositionTable.NO_MOVE && (candidates & 1L << bookMove) != 0) {
+        return Squares.toCoordinate(bookMove);
       }
     }
-    return result;
+
+    table.newSearch();
+    deadline = timeLimitMillis > NO_TIME_LIMIT
+        ? System.nanoTime() + timeLimitMillis * 1_000_000
+        : Long.MAX_VALUE;
+    aborted = false;
+
+    // スレッドごとに盤面の複製を持つ探索器を用意する.
+    Searcher[] searchers = new Searcher[threads];
+    searchers[0] = new Searcher(clone);
+    for (int i = 1; i < threads; i++) {
+      searchers[i] = new Searcher(clone.cloneInstance());
+    }
+
+    final int empties = Long.bitCount(clone.getBits(PieceType.EMPTY));
+    RootResult result = new RootResult(Squares.first(candidates), 0);
+    if (empties <= endgameEmpties) {
+      result = searchRoot(searchers, candidates, 1, result);
+      result = searchRoot(searchers, candidates, SOLVE_DEPTH, result);
+      lastEval = result.getEval();
+      return Squares.toCoordinate(result.getMove());
+    }
+
+    // 空きマスの数より深く読んでも結果は変わらない.
+    final int lastDepth = Math.min(depthLimit, empties);
+    for (int depth = 1; depth <= lastDepth && !aborted; depth++) {
+      result = searchRoot(searchers, candidates, depth, result);
+    }
+    lastEval = result.getEval();
+    return Squares.toCoordinate(result.getMove());
   }
 
   /**
-   * オセロの盤面を評価する.
+   * 直前の {@link #decideCoordinate(Board, int, long)} で探索した最善手の評価値を返す.
+   * <p>
+   * 置ける座標が1つ以下で探索しなかった場合, または定石を引いた場合は更新しない.
    *
-   * @param othello 評価対象の盤面の情報を保持するオブジェクト
-   * @return 盤面の評価値
+   * @return 自分から見た評価値
    */
-  int evaluate(Board othello) {
-    return calcHavingNumber(othello);
+  int getLastEval() {
+    return lastEval;
   }
 
   /**
-   * コマを置くことが可能な座標をすべて取得する.
+   * 生成時に指定した探索の深さの上限を返す.
    *
-   * @param othello フィールドの盤面を保持するオブジェクト
-   * @return すべての可能な手
+   * @return 探索の深さの上限
    */
-  List<Coordinate> getAllCandidatesToPut(Board othello) {
-    List<Coordinate> coordinates = new ArrayList<>();
-    for (int r = 0; r < ROW; r++) {
-      for (int c = 0; c < COL; c++) {
-        if (othello.canPutPiece(Coordinate.valueOf(r, c))) {
-          coordinates.add(Coordinate.valueOf(r, c));
-        }
+  int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * 指定した深さで置くことができる座標それぞれの評価値を求め, 最も評価値の高い座標を選出する.
+   * <p>
+   * 最初に前の深さの最善手を読んで評価値の基準を決め, 残りの手は各探索器で分担して読む. 探索器が1つの場合はマス番号の昇順に読むため結果は常に同じとなる.
+   * <p>
+   * PVSで探索する場合, 深さ2以降は前の深さの評価値を中心とした狭い探索窓で最初の手を読み, 窓の外に出た場合のみ全体の窓で読み直す.
+   * 残りの手は最善手の評価値を超えるかどうかだけを幅のない探索窓で調べ, 超えた手のみ読み直して評価値を確定する.
+   * <p>
+   * 時間切れで打ち切られた場合も, 打ち切りまでに読み終えた手の中の最善手を返す. 前の深さの最善手を読み終える前に打ち切られた場合は
+   * 前の深さの結果がそのまま返る.
+   *
+   * @param searchers  探索器
+   * @param candidates 置くことができるマス
+   * @param depth      自分の手を含めた探索の深さ. {@link #SOLVE_DEPTH} の場合は終局まで読み切る
+   * @param previous   前の深さの最善手と評価値. 最善手から調べる
+   * @return 最善手と評価値
+   */
+  private RootResult searchRoot(Searcher[] searchers, final long candidates, final int depth,
+      final RootResult previous) {
+    final int firstMove = previous.getMove();
+    int firstEval;
+    if (usesPrincipalVariationSearch() && depth > 1 && depth != SOLVE_DEPTH) {
+      final int lower = previous.getEval() - ASPIRATION_WINDOW;
+      final int upper = previous.getEval() + ASPIRATION_WINDOW;
+      firstEval = searchers[0].searchMove(firstMove, depth, lower, upper);
+      if (!aborted && (firstEval <= lower || firstEval >= upper)) {
+        // 評価値が窓の外に出た場合は窓を広げて読み直す.
+        firstEval = searchers[0].searchMove(firstMove, depth, Integer.MIN_VALUE, Integer.MAX_VALUE);
+      }
+    } else {
+      firstEval = searchers[0].searchMove(firstMove, depth, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+    if (aborted) {
+      return previous;
+    }
+    RootResult best = new RootResult(firstMove, firstEval);
+    AtomicLong rest = new AtomicLong(candidates & ~(1L << firstMove));
+
+    // 残りの手を探索器で分担する. 先頭の探索器は呼び出し元のスレッドで動かす.
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 1; i < searchers.length; i++) {
+      final Searcher searcher = searchers[i];
+      futures.add(workers.submit(() -> searcher.searchRest(rest, depth, best)));
+    }
+    searchers[0].searchRest(rest, depth, best);
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        aborted = true;
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("探索中にエラーが発生しました", e.getCause());
       }
     }
-    return coordinates;
+    return best;
+  }
+
+  /**
+   * 探索にPVS(プリンシパルバリエーション探索)を使用するかどうかを返す.
+   * <p>
+   * {@code false} の場合は自分と相手の手番で最大値と最小値を切り替えるアルファベータ法で読む. {@code true} の場合は
+   * 手番側から見た評価値の符号を反転させながら読み(ネガマックス法), 最初の手以外は幅のない探索窓で調べる.
+   *
+   * @return PVSを使用する場合 {@code true}
+   */
+  boolean usesPrincipalVariationSearch() {
+    return false;
+  }
+
+  /**
+   * オセロの盤面を評価する.
+   *
+   * @param othello 評価対象の盤面の情報を保持するオブジェクト
+   * @return 盤面の評価値
+   */
+  int evaluate(BitBoard othello) {
+    return calcHavingNumber(othello);
   }
 
   /**
@@ -91,50 +439,402 @@ public class NormalAI implements StrategyInterface {
    * @param othello 盤面の状態を保持するオブジェクト
    * @return 評価値
    */
-  int calcHavingNumber(Board othello) {
-    Map<PieceType, Integer> havingScores = othello.getEachPiecesCnt();
-    return havingScores.get(me);
+  int calcHavingNumber(BitBoard othello) {
+    return Long.bitCount(othello.getBits(me));
   }
 
   /**
-   * アルファベータ法による座標の選定を行う.
-   *
-   * @param othello 評価する盤面を保持するオブジェクト
-   * @param depth   深さ制限
-   * @param alpha   α値. このノードの評価値は必ずα値以上となる
-   * @param beta    β値. このノードの評価値は必ずβ値以下となる
-   * @return 評価値
+   * 1スレッド分の探索を行うクラス.
+   * <p>
+   * 盤面の複製を専有するため, 探索器ごとに別のスレッドで動かすことができる. 置換表と打ち切りの状態は全探索器で共有する.
    */
-  private int alphaBeta(Board othello, final int depth, int alpha, int beta) {
-    List<Coordinate> candidates = getAllCandidatesToPut(othello);
-    if (depth <= 0 || candidates.isEmpty()) {
-      return evaluate(othello);
+  private final class Searcher {
+
+    /**
+     * この探索器が専有する盤面.
+     */
+    private final BitBoard othello;
+    /**
+     * 終盤の読み切りに使用する解析器.
+     */
+    private final EndgameSolver solver;
+    /**
+     * 手を読む順番を決める.
+     */
+    private final MoveOrderer orderer;
+    /**
+     * この探索器が訪れたノード数.
+     */
+    private long nodes;
+    /**
+     * 現在読んでいる局面のルートからの手数.
+     */
+    private int ply;
+
+    Searcher(BitBoard othello) {
+      this.othello = othello;
+      this.solver = new EndgameSolver();
+      this.orderer = new MoveOrderer();
+      this.nodes = 0;
+      this.ply = 0;
+    }
+
+    /**
+     * ルートの1手を指定した深さで読む.
+     *
+     * @param move  マス番号
+     * @param depth 自分の手を含めた探索の深さ. {@link #SOLVE_DEPTH} の場合は終局まで読み切る
+     * @param alpha α値
+     * @param beta  β値
+     * @return 自分から見た評価値. 読み切った場合は最終的な石差
+     */
+    int searchMove(final int move, final int depth, final int alpha, final int beta) {
+      othello.makeMove(move);
+      ply++;
+      final int eval;
+      if (depth == SOLVE_DEPTH) {
+        eval = solve(alpha, beta);
+      } else if (usesPrincipalVariationSearch()) {
+        // 符号を反転してもあふれないよう範囲を狭める.
+        final int lower = Math.max(alpha, -Integer.MAX_VALUE);
+        eval = othello.getCurrentTurn() == me
+            ? principalVariation(depth - 1, lower, beta)
+            : -principalVariation(depth - 1, -beta, -lower);
+      } else {
+        eval = alphaBeta(depth - 1, alpha, beta);
+      }
+      ply--;
+      othello.unmakeMove();
+      return eval;
+    }
+
+    /**
+     * 現在の局面を終局まで読み切る.
+     *
+     * @param alpha α値
+     * @param beta  β値
+     * @return 自分から見た最終的な石差. α値以下の場合は上限値, β値以上の場合は下限値
+     */
+    private int solve(final int alpha, final int beta) {
+      final PieceType turn = othello.getCurrentTurn();
+      final long own = othello.getBits(turn);
+      final long opponent = othello.getBits(PieceType.getEnemyType(turn));
+      final int floor = Math.max(alpha, -EndgameSolver.MAX_SCORE - 1);
+      final int ceiling = Math.min(beta, EndgameSolver.MAX_SCORE + 1);
+
+      // 解析器は手番側から見た石差を返すため, 相手の手番では符号と範囲を反転する.
+      final int score = turn == me
+          ? solver.solve(own, opponent, floor, ceiling, deadline)
+          : -solver.solve(own, opponent, -ceiling, -floor, deadline);
+      if (solver.isAborted()) {
+        aborted = true;
+      }
+      return score;
+    }
+
+    /**
+     * 未着手の手がなくなるまで1手ずつ取り出して読み, 最善手を更新する.
+     *
+     * @param rest  未着手の手. 探索器の間で共有する
+     * @param depth 自分の手を含めた探索の深さ
+     * @param best  共有する最善手
+     */
+    void searchRest(final AtomicLong rest, final int depth, final RootResult best) {
+      while (!aborted) {
+        final long current = rest.get();
+        if (current == 0) {
+          return;
+        }
+        if (!rest.compareAndSet(current, Squares.removeFirst(current))) {
+          continue;
+        }
+        final int move = Squares.first(current);
+        final int alpha = best.getEval();
+        int eval;
+        if (usesPrincipalVariationSearch()) {
+          // 最善手を超えるかどうかだけを調べ, 超えた場合に評価値を確定させる.
+          eval = searchMove(move, depth, alpha, alpha + 1);
+          if (!aborted && eval > alpha) {
+            eval = searchMove(move, depth, alpha, Integer.MAX_VALUE);
+          }
+        } else {
+          eval = searchMove(move, depth, alpha, Integer.MAX_VALUE);
+        }
+        if (!aborted) {
+          best.update(move, eval);
+        }
+      }
     }
 
-    for (Coordinate candidate : candidates) {
-      othello.processToPutPiece(candidate);
+    /**
+     * アルファベータ法による座標の選定を行う.
+     *
+     * @param depth   深さ制限
+     * @param alpha   α値. このノードの評価値は必ずα値以上となる
+     * @param beta    β値. このノードの評価値は必ずβ値以下となる
+     * @return 評価値
+     */
+    int alphaBeta(final int depth, int alpha, int beta) {
+      if ((++nodes & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+        aborted = true;
+      }
+      if (aborted) {
+        // 打ち切られた探索の評価値は使われない.
+        return 0;
+      }
+      if (depth <= 0) {
+        return evaluate(othello);
+      }
+
+      // 同じ深さ以上で探索済みの局面であれば記録した結果を使う.
+      final long hash = othello.getHash();
+      final long entry = table.probe(hash);
+      int hashMove = TranspositionTable.NO_MOVE;
+      if (entry != TranspositionTable.MISS) {
+        hashMove = TranspositionTable.bestMove(entry);
+        if (TranspositionTable.depth(entry) >= depth) {
+          final int score = TranspositionTable.score(entry);
+          final Bound bound = TranspositionTable.bound(entry);
+          if (bound == Bound.EXACT
+              || bound == Bound.LOWER && score >= beta
+              || bound == Bound.UPPER && score <= alpha) {
+            return score;
+          }
+        }
+      }
+
+      final long candidates = othello.getLegalMoves();
+      if (candidates == 0) {
+        if (othello.isGameOver()) {
+          return evaluate(othello);
+        }
+        // 置ける場所がない場合はパスして相手の手番を評価する.
+        othello.makePass();
+        ply++;
+        final int eval = alphaBeta(depth - 1, alpha, beta);
+        ply--;
+        othello.unmakeMove();
+        return eval;
+      }
+
+      final int alphaOrigin = alpha;
+      final int betaOrigin = beta;
+      final boolean isMyTurn = othello.getCurrentTurn() == me;
+      final int side = isMyTurn ? 0 : 1;
+      int bestMove = TranspositionTable.NO_MOVE;
+
+      // 置換表の最善手, キラー手, ヒストリーとマスの優先度の順に調べる.
+      final int count = orderer.order(candidates, hashMove, ply, side);
+      for (int i = 0; i < count; i++) {
+        final int candidate = orderer.moveAt(ply, i);
+
+        // 手を打つと手番は相手に移り, 取り消すと元に戻る.
+        othello.makeMove(candidate);
+        ply++;
+        final int eval = alphaBeta(depth - 1, alpha, beta);
+        ply--;
+        othello.unmakeMove();
+
+        // 子ノードの評価値を計算する.
+        if (isMyTurn && eval > alpha) {
+          // 自分のノードの場合は子ノードの最大値を求める.
+          alpha = eval;
+          bestMove = candidate;
+        } else if (!isMyTurn && eval < beta) {
+          // 相手のノードの場合は子ノードの最小値を求める.
+          beta = eval;
+          bestMove = candidate;
+        }
+
+        if (alpha >= beta) {
+          // α-βカット. 同じ手数の別の局面でも先に読むよう記録する.
+          if (!aborted) {
+            orderer.recordCutoff(candidate, ply, side, depth);
+          }
+          break;
+        }
+      }
+
+      if (aborted) {
+        return 0;
+      }
 
-      // 子ノードの評価値を計算する.
-      if (othello.getCurrentTurn() == me) {
-        // 自分のノードの場合は相手に手番を渡し子ノードの最大値を求める.
-        othello.nextTurn();
-        alpha = Math.max(alpha, alphaBeta(othello, depth - 1, alpha, beta));
+      final int result = isMyTurn ? alpha : beta;
+      final Bound bound;
+      if (result <= alphaOrigin) {
+        bound = Bound.UPPER;
+      } else if (result >= betaOrigin) {
+        bound = Bound.LOWER;
       } else {
-        // 相手のノードの場合は自分に手番を渡し子ノードの最小値を求める.
-        othello.nextTurn();
-        beta = Math.min(beta, alphaBeta(othello, depth - 1, alpha, beta));
+        bound = Bound.EXACT;
+      }
+      table.store(hash, depth, bound, result, bestMove);
+      return result;
+    }
+
+    /**
+     * ネガマックス法によるPVS(プリンシパルバリエーション探索)で局面を読む.
+     * <p>
+     * 評価値は常に手番側から見た値とする. 最初の手のみ与えられた探索窓で読み, 残りの手はα値を超えるかどうかだけを幅のない探索窓で調べ,
+     * 超えた場合に読み直す. 置換表にはアルファベータ法と同じく自分から見た評価値を記録するため, 相手の手番では評価値の符号と種類を反転して
+     * 読み書きする.
+     *
+     * @param depth 深さ制限
+     * @param alpha α値
+     * @param beta  β値
+     * @return 手番側から見た評価値. α値以下の場合は上限値, β値以上の場合は下限値
+     */
+    int principalVariation(final int depth, int alpha, final int beta) {
+      if ((++nodes & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+        aborted = true;
+      }
+      if (aborted) {
+        // 打ち切られた探索の評価値は使われない.
+        return 0;
+      }
+      final boolean isMyTurn = othello.getCurrentTurn() == me;
+      if (depth <= 0) {
+        return isMyTurn ? evaluate(othello) : -evaluate(othello);
+      }
+
+      // 同じ深さ以上で探索済みの局面であれば記録した結果を使う.
+      final long hash = othello.getHash();
+      final long entry = table.probe(hash);
+      int hashMove = TranspositionTable.NO_MOVE;
+      if (entry != TranspositionTable.MISS) {
+        hashMove = TranspositionTable.bestMove(entry);
+        if (TranspositionTable.depth(entry) >= depth) {
+          final int score = isMyTurn
+              ? TranspositionTable.score(entry)
+              : -TranspositionTable.score(entry);
+          final Bound bound = isMyTurn
+              ? TranspositionTable.bound(entry)
+              : TranspositionTable.bound(entry).negate();
+          if (bound == Bound.EXACT
+              || bound == Bound.LOWER && score >= beta
+              || bound == Bound.UPPER && score <= alpha) {
+            return score;
+          }
+        }
+      }
+
+      final long candidates = othello.getLegalMoves();
+      if (candidates == 0) {
+        if (othello.isGameOver()) {
+          return isMyTurn ? evaluate(othello) : -evaluate(othello);
+        }
+        // 置ける場所がない場合はパスして相手の手番を評価する.
+        othello.makePass();
+        ply++;
+        final int eval = -principalVariation(depth - 1, -beta, -alpha);
+        ply--;
+        othello.unmakeMove();
+        return eval;
+      }
+
+      final int alphaOrigin = alpha;
+      final int side = isMyTurn ? 0 : 1;
+      int best = -Integer.MAX_VALUE;
+      int bestMove = TranspositionTable.NO_MOVE;
+
+      final int count = orderer.order(candidates, hashMove, ply, side);
+      for (int i = 0; i < count; i++) {
+        final int candidate = orderer.moveAt(ply, i);
+
+        othello.makeMove(candidate);
+        ply++;
+        int eval;
+        if (i == 0) {
+          eval = -principalVariation(depth - 1, -beta, -alpha);
+        } else {
+          // α値を超えるかどうかだけを調べ, 超えた場合は窓を広げて読み直す.
+          eval = -principalVariation(depth - 1, -alpha - 1, -alpha);
+          if (eval > alpha && eval < beta) {
+            eval = -principalVariation(depth - 1, -beta, -alpha);
+          }
+        }
+        ply--;
+        othello.unmakeMove();
+
+        if (eval > best) {
+          best = eval;
+          bestMove = candidate;
+          if (eval > alpha) {
+            alpha = eval;
+            if (alpha >= beta) {
+              // β値以上の手が見つかれば残りの手は読まない.
+              if (!aborted) {
+                orderer.recordCutoff(candidate, ply, side, depth);
+              }
+              break;
+            }
+          }
+        }
+      }
+
+      if (aborted) {
+        return 0;
       }
 
-      othello.goBack(1);
-      if (alpha >= beta) {
-        // α-βカット
-        break;
+      final Bound bound;
+      if (best <= alphaOrigin) {
+        bound = Bound.UPPER;
+      } else if (best >= beta) {
+        bound = Bound.LOWER;
+      } else {
+        bound = Bound.EXACT;
+      }
+      if (isMyTurn) {
+        table.store(hash, depth, bound, best, bestMove);
+      } else {
+        table.store(hash, depth, bound.negate(), -best, bestMove);
       }
+      return best;
+    }
+  }
+
+  /**
+   * ルートの探索で見つかった最善手と評価値を保持するクラス.
+   * <p>
+   * 複数の探索器から更新されるため, 操作は同期して行う.
+   */
+  private static final class RootResult {
+
+    /**
+     * 最善手のマス番号.
+     */
+    private int move;
+    /**
+     * 最善手の評価値.
+     */
+    private int eval;
+
+    RootResult(int move, int eval) {
+      this.move = move;
+      this.eval = eval;
+    }
+
+    synchronized int getMove() {
+      return move;
+    }
+
+    synchronized int getEval() {
+      return eval;
     }
-    if (othello.getCurrentTurn() == me) {
-      return alpha;
+
+    /**
+     * 評価値が現在の最善手より高い場合に最善手を更新する.
+     * <p>
+     * 最善手の評価値をα値として読んだ手の評価値が等しい場合, それは上限値でしかないため更新しない.
+     *
+     * @param newMove マス番号
+     * @param newEval 評価値
+     */
+    synchronized void update(int newMove, int newEval) {
+      if (newEval > eval) {
+        move = newMove;
+        eval = newEval;
+      }
     }
-    return beta;
   }
 }
-
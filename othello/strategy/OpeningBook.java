@@ -0,0 +1,195 @@
+package othello.strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import othello.PieceType;
+import othello.Symmetry;
+import othello.Zobrist;
+
+/**
+ * 序盤の局面ごとの最善手を保持する定石ファイル(オープニングブック).
+ * <p>
+ * 局面は {@link Symmetry#canonical(long, long)} で正規形に変換し, 手番側と相手のコマの配置として記録する.
+ * 対称な局面は1つの記録を共有し, 手番の色にもよらない. 定石ファイルの形式は以下の通り(数値はすべてビッグエンディアン).
+ * <ol>
+ *     <li>識別子 {@link #MAGIC} (int)</li>
+ *     <li>形式のバージョン {@link #VERSION} (int)</li>
+ *     <li>記録の数 (int)</li>
+ *     <li>記録 ({@link #RECORD_BYTES} バイト). 正規形のハッシュ値(long), 正規形の手番側のコマの配置(long), 相手のコマの配置(long),
+ *     正規形での最善手のマス番号(byte), 手番側から見た評価値(int)の順に並べる. 記録はハッシュ値の昇順に並べる</li>
+ * </ol>
+ * ファイルはメモリにマップして二分探索で引くため, 読み込みの時間はファイルの大きさによらず, 同じファイルを使う複数のプロセスでページキャッシュを共有できる.
+ * 記録は変更しないため, 1つのインスタンスを複数のスレッドで共有できる.
+ *
+ * @see OpeningBookBuilder
+ */
+public final class OpeningBook {
+
+  /**
+   * 定石ファイルの識別子.
+   */
+  public static final int MAGIC = 0x4f54424b;
+  /**
+   * 定石ファイルの形式のバージョン.
+   */
+  public static final int VERSION = 1;
+  /**
+   * 既定の定石ファイルのパスを指定するシステムプロパティ.
+   */
+  public static final String BOOK_PROPERTY = "othello.book";
+  /**
+   * 既定の定石ファイルのパス.
+   */
+  public static final String DEFAULT_BOOK_FILE = "opening-book.bin";
+  /**
+   * ファイルの先頭の識別子, バージョン, 記録の数のバイト数.
+   */
+  static final int HEADER_BYTES = Integer.BYTES * 3;
+  /**
+   * 記録1つあたりのバイト数.
+   */
+  static final int RECORD_BYTES = Long.BYTES * 3 + Byte.BYTES + Integer.BYTES;
+  /**
+   * 既定の定石ファイル. 読み込む前, またはファイルが存在しない場合は {@code null}.
+   */
+  private static OpeningBook defaultBook;
+  /**
+   * 既定の定石ファイルの読み込みを試みた場合 {@code true}.
+   */
+  private static boolean isDefaultLoaded;
+  /**
+   * メモリにマップしたファイルの内容.
+   */
+  private final ByteBuffer buffer;
+  /**
+   * 記録の数.
+   */
+  private final int size;
+
+  private OpeningBook(final ByteBuffer buffer, final int size) {
+    this.buffer = buffer;
+    this.size = size;
+  }
+
+  /**
+   * 定石ファイルをメモリにマップして開く.
+   *
+   * @param path 定石ファイルのパス
+   * @return 定石
+   * @throws IOException 読み込みに失敗した場合, またはファイルの形式が正しくない場合
+   */
+  public static OpeningBook open(final Path path) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        throw new IOException("定石ファイルではありません");
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("定石ファイルではありません");
+    }
+    if (buffer.getInt(Integer.BYTES) != VERSION) {
+      throw new IOException("定石ファイルの形式のバージョンが異なります");
+    }
+    final int size = buffer.getInt(Integer.BYTES * 2);
+    if (size < 0 || buffer.capacity() != HEADER_BYTES + (long) size * RECORD_BYTES) {
+      throw new IOException("定石ファイルの大きさが正しくありません");
+    }
+    return new OpeningBook(buffer, size);
+  }
+
+  /**
+   * 既定の定石ファイルを開く.
+   * <p>
+   * パスはシステムプロパティ {@value #BOOK_PROPERTY} で指定し, 指定がなければ作業ディレクトリの {@value #DEFAULT_BOOK_FILE}
+   * とする. 読み込みは最初の呼び出しでのみ行い, 以降は同じ定石を返す.
+   *
+   * @return 定石. ファイルが存在しない場合は {@code null}
+   * @throws IllegalStateException ファイルの読み込みに失敗した場合
+   */
+  public static synchronized OpeningBook loadDefault() {
+    if (!isDefaultLoaded) {
+      final Path path = Paths.get(System.getProperty(BOOK_PROPERTY, DEFAULT_BOOK_FILE));
+      try {
+        defaultBook = open(path);
+      } catch (NoSuchFileException e) {
+        defaultBook = null;
+      } catch (IOException e) {
+        throw new IllegalStateException("定石ファイルを読み込めません: " + path, e);
+      }
+      isDefaultLoaded = true;
+    }
+    return defaultBook;
+  }
+
+  /**
+   * 記録の数を返す.
+   *
+   * @return 記録の数
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * 局面の最善手を引く.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 最善手のマス番号. 記録がない場合は {@link TranspositionTable#NO_MOVE}
+   */
+  public int lookup(final long own, final long opponent) {
+    final Symmetry symmetry = Symmetry.canonical(own, opponent);
+    final long canonicalOwn = symmetry.apply(own);
+    final long canonicalOpponent = symmetry.apply(opponent);
+    final long key = hash(canonicalOwn, canonicalOpponent);
+
+    // ハッシュ値が等しい最初の記録を探し, 配置が一致する記録を探す.
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (buffer.getLong(offset(middle)) < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    for (int i = low; i < size && buffer.getLong(offset(i)) == key; i++) {
+      final int offset = offset(i);
+      if (buffer.getLong(offset + Long.BYTES) == canonicalOwn
+          && buffer.getLong(offset + Long.BYTES * 2) == canonicalOpponent) {
+        return symmetry.inverse().apply((int) buffer.get(offset + Long.BYTES * 3));
+      }
+    }
+    return TranspositionTable.NO_MOVE;
+  }
+
+  /**
+   * 正規形の局面のハッシュ値を求める.
+   *
+   * @param own      正規形の手番側のコマの配置
+   * @param opponent 正規形の相手のコマの配置
+   * @return ハッシュ値
+   */
+  static long hash(final long own, final long opponent) {
+    return Zobrist.hash(own, opponent, PieceType.BLACK);
+  }
+
+  /**
+   * 記録の位置を求める.
+   *
+   * @param index 記録の番号
+   * @return ファイルの先頭からのバイト数
+   */
+  private static int offset(final int index) {
+    return HEADER_BYTES + index * RECORD_BYTES;
+  }
+}
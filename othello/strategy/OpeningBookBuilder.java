@@ -0,0 +1,245 @@
+package othello.strategy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import othello.Board;
+import othello.BoardSnapshot;
+import othello.Coordinate;
+import othello.PieceType;
+import othello.Squares;
+import othello.Symmetry;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+
+/**
+ * 初期局面から指定した手数までの局面を深く探索し, 定石ファイルを作成するツール.
+ * <p>
+ * 初期局面から全ての手を順にたどり, 対称な局面は1度だけ {@link PvsAI} で探索する. 置ける座標が1つしかない局面は探索を行わないため記録しない.
+ * <p>
+ * 使い方:
+ * <pre>
+ * java othello.strategy.OpeningBookBuilder [-plies 手数] [-depth 深さ] [-threads スレッド数] 定石ファイル
+ * </pre>
+ * <ul>
+ * <li>-plies: 定石に含める局面の初期局面からの手数の上限. 既定は {@value #DEFAULT_PLIES}</li>
+ * <li>-depth: 各局面の探索の深さ. 既定は {@value #DEFAULT_DEPTH}</li>
+ * <li>-threads: 探索に使用するスレッド数. 既定はCPUのコア数</li>
+ * </ul>
+ *
+ * @see OpeningBook
+ */
+public final class OpeningBookBuilder {
+
+  /**
+   * 既定の定石に含める手数.
+   */
+  private static final int DEFAULT_PLIES = 6;
+  /**
+   * 既定の探索の深さ.
+   */
+  private static final int DEFAULT_DEPTH = 10;
+  /**
+   * 置換表のメモリ量(MB).
+   */
+  private static final int TABLE_MEGABYTES = 64;
+  /**
+   * 進捗を表示する間隔(局面数).
+   */
+  private static final int PROGRESS_INTERVAL = 100;
+  /**
+   * 手番ごとの探索に使用するAI.
+   */
+  private final EnumMap<PieceType, PvsAI> players = new EnumMap<>(PieceType.class);
+  /**
+   * 定石に含める手数.
+   */
+  private final int plies;
+  /**
+   * たどった局面の正規形のハッシュ値.
+   */
+  private final Set<Long> visited = new HashSet<>();
+  /**
+   * 定石に記録する局面.
+   */
+  private final List<Entry> entries = new ArrayList<>();
+
+  /**
+   * 探索の条件を指定して生成する.
+   *
+   * @param plies   定石に含める手数
+   * @param depth   探索の深さ
+   * @param threads 探索に使用するスレッド数
+   * @param workers 2つ目以降の探索器を動かすスレッドプール. 黒と白のAIで共有する
+   */
+  private OpeningBookBuilder(final int plies, final int depth, final int threads,
+      final ExecutorService workers) {
+    this.plies = plies;
+    for (PieceType me : new PieceType[] {PieceType.BLACK, PieceType.WHITE}) {
+      players.put(me, new PvsAI(me,
+          new TranspositionTable(TABLE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED),
+          depth, NormalAI.NO_TIME_LIMIT, threads, workers, NormalAI.DEFAULT_ENDGAME_EMPTIES));
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int plies = DEFAULT_PLIES;
+    int depth = DEFAULT_DEPTH;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path output = null;
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "-plies":
+          plies = Integer.parseInt(args[++i]);
+          break;
+        case "-depth":
+          depth = Integer.parseInt(args[++i]);
+          break;
+        case "-threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        default:
+          output = Paths.get(args[i]);
+      }
+    }
+    if (output == null) {
+      printUsage();
+      return;
+    }
+
+    final long start = System.nanoTime();
+    final ExecutorService workers = threads > 1 ? Executors.newFixedThreadPool(threads - 1) : null;
+    final OpeningBookBuilder builder = new OpeningBookBuilder(plies, depth, threads, workers);
+    try {
+      builder.expand(new Board(), 0);
+    } finally {
+      if (workers != null) {
+        workers.shutdownNow();
+      }
+    }
+    builder.write(output);
+    final double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format(Locale.ROOT, "%d 局面を %s に書き出しました (%.1f 秒)",
+        builder.entries.size(), output, seconds));
+  }
+
+  /**
+   * 局面を探索して記録し, 手数の上限に達するまで次の局面をたどる.
+   *
+   * @param board 局面. 処理後は元の状態に戻る
+   * @param ply   初期局面からの手数
+   */
+  private void expand(final Board board, final int ply) {
+    final long moves = board.getLegalMoves();
+    if (moves == 0) {
+      return;
+    }
+    final PieceType turn = board.getCurrentTurn();
+    final BoardSnapshot snapshot = board.snapshot();
+    final long own = snapshot.getBits(turn);
+    final long opponent = snapshot.getBits(PieceType.getEnemyType(turn));
+    final Symmetry symmetry = Symmetry.canonical(own, opponent);
+    final long canonicalOwn = symmetry.apply(own);
+    final long canonicalOpponent = symmetry.apply(opponent);
+    final long key = OpeningBook.hash(canonicalOwn, canonicalOpponent);
+    if (!visited.add(key)) {
+      return;
+    }
+
+    if (Long.bitCount(moves) > 1) {
+      final PvsAI player = players.get(turn);
+      final Coordinate coordinate = player.decideCoordinate(board);
+      entries.add(new Entry(key, canonicalOwn, canonicalOpponent,
+          symmetry.apply(Squares.toSquare(coordinate)), player.getLastEval()));
+      if (entries.size() % PROGRESS_INTERVAL == 0) {
+        System.out.println(entries.size() + " 局面");
+      }
+    }
+
+    if (ply < plies) {
+      for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+        board.processToPutPiece(Squares.toCoordinate(Squares.first(rest)));
+        board.nextTurn();
+        expand(board, ply + 1);
+        board.goBack(1);
+      }
+    }
+  }
+
+  /**
+   * 記録した局面をハッシュ値の順に並べて定石ファイルに書き出す.
+   *
+   * @param path 定石ファイルのパス. 既に存在する場合は上書きする
+   * @throws IOException 書き出しに失敗した場合
+   */
+  private void write(final Path path) throws IOException {
+    entries.sort(Comparator.comparingLong(entry -> entry.key));
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(OpeningBook.MAGIC);
+      out.writeInt(OpeningBook.VERSION);
+      out.writeInt(entries.size());
+      for (Entry entry : entries) {
+        out.writeLong(entry.key);
+        out.writeLong(entry.own);
+        out.writeLong(entry.opponent);
+        out.writeByte(entry.move);
+        out.writeInt(entry.eval);
+      }
+    }
+  }
+
+  /**
+   * 使い方を表示する.
+   */
+  private static void printUsage() {
+    System.out.println(
+        "使い方: java othello.strategy.OpeningBookBuilder [-plies 手数] [-depth 深さ] [-threads スレッド数] 定石ファイル");
+  }
+
+  /**
+   * 定石に記録する局面.
+   */
+  private static final class Entry {
+
+    /**
+     * 正規形のハッシュ値.
+     */
+    private final long key;
+    /**
+     * 正規形の手番側のコマの配置.
+     */
+    private final long own;
+    /**
+     * 正規形の相手のコマの配置.
+     */
+    private final long opponent;
+    /**
+     * 正規形での最善手のマス番号.
+     */
+    private final int move;
+    /**
+     * 手番側から見た評価値.
+     */
+    private final int eval;
+
+    Entry(long key, long own, long opponent, int move, int eval) {
+      this.key = key;
+      this.own = own;
+      this.opponent = opponent;
+      this.move = move;
+      this.eval = eval;
+    }
+  }
+}
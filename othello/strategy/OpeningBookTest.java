@@ -0,0 +1,90 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import othello.BitBoard;
+import othello.PieceType;
+import othello.Squares;
+import othello.Symmetry;
+
+class OpeningBookTest {
+
+  /**
+   * 作成する定石の手数.
+   */
+  private static final int PLIES = 3;
+
+  /**
+   * 作成した定石ファイルを開くと, 手数の範囲の置ける座標が2つ以上ある局面はすべて引け, 8通りの対称形でも対応する手が返ること.
+   * 範囲外の局面は引けないこと.
+   */
+  @Test
+  void lookupFollowsSymmetries(@TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("book.bin");
+    OpeningBookBuilder.main(new String[] {"-plies", String.valueOf(PLIES), "-depth", "2",
+        "-threads", "1", path.toString()});
+    final OpeningBook book = OpeningBook.open(path);
+    assertTrue(book.size() > 0);
+    assertLookups(book, new BitBoard(), 0);
+  }
+
+  /**
+   * 局面とその先の局面で定石を引き, 結果を確かめる.
+   *
+   * @param book  定石
+   * @param board 局面. 処理後は元の状態に戻る
+   * @param ply   初期局面からの手数
+   */
+  private static void assertLookups(final OpeningBook book, final BitBoard board, final int ply) {
+    final PieceType turn = board.getCurrentTurn();
+    final long own = board.getBits(turn);
+    final long opponent = board.getBits(PieceType.getEnemyType(turn));
+    final long moves = board.getLegalMoves();
+    final int move = book.lookup(own, opponent);
+    if (ply > PLIES || Long.bitCount(moves) < 2) {
+      assertEquals(TranspositionTable.NO_MOVE, move);
+      return;
+    }
+
+    assertNotEquals(TranspositionTable.NO_MOVE, move);
+    assertTrue((moves & 1L << move) != 0);
+    for (Symmetry symmetry : Symmetry.values()) {
+      final long transformedOwn = symmetry.apply(own);
+      final long transformedOpponent = symmetry.apply(opponent);
+      final int transformedMove = book.lookup(transformedOwn, transformedOpponent);
+      // 局面自体が対称な場合は同じ結果となる別のマスが返ることがあるため, 打った後の正規形で比べる.
+      assertArrayEquals(
+          canonicalAfter(transformedOwn, transformedOpponent, symmetry.apply(move)),
+          canonicalAfter(transformedOwn, transformedOpponent, transformedMove));
+    }
+
+    for (long rest = moves; rest != 0; rest = Squares.removeFirst(rest)) {
+      board.makeMove(Squares.first(rest));
+      assertLookups(book, board, ply + 1);
+      board.unmakeMove();
+    }
+  }
+
+  /**
+   * 手を打った後の局面の正規形を求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param square   手のマス番号
+   * @return 打った後の手番側と相手のコマの配置の正規形
+   */
+  private static long[] canonicalAfter(final long own, final long opponent, final int square) {
+    final long flipped = BitBoard.flips(own, opponent, square);
+    final long nextOwn = opponent & ~flipped;
+    final long nextOpponent = own | flipped | 1L << square;
+    final Symmetry canonical = Symmetry.canonical(nextOwn, nextOpponent);
+    return new long[] {canonical.apply(nextOwn), canonical.apply(nextOpponent)};
+  }
+}
@@ -0,0 +1,96 @@
+package othello.strategy;
+
+import java.util.concurrent.ExecutorService;
+import othello.BitBoard;
+import othello.PieceType;
+
+/**
+ * パターンの重みによる評価関数を用いるAI.
+ * <p>
+ * 探索は {@link PvsAI} と同じPVSで行い, 評価関数を {@link PatternEvaluator} に置き換えている. 重みファイルが見つからない場合は
+ * {@link StrongAI} と同じ評価関数を用いる.
+ */
+public class PatternAI extends PvsAI {
+
+  /**
+   * 自分のコマの種類.
+   */
+  private final PieceType me;
+  /**
+   * 評価器. 重みファイルが見つからなかった場合は {@code null}.
+   */
+  private final PatternEvaluator evaluator;
+
+  /**
+   * 既定の重みファイルを読み込み, 既定の条件で生成する. 定石は使用しない.
+   *
+   * @param me 自分のコマの種類
+   * @see PatternEvaluator#loadDefault()
+   * @see NormalAI#NormalAI(PieceType)
+   */
+  public PatternAI(PieceType me) {
+    super(me);
+    this.me = me;
+    this.evaluator = PatternEvaluator.loadDefault();
+  }
+
+  /**
+   * 使用する置換表, 定石と評価器を指定して生成する. 探索の条件は既定とする.
+   *
+   * @param me        自分のコマの種類
+   * @param table     置換表
+   * @param book      定石. {@code null} の場合は定石を使用しない
+   * @param evaluator 評価器. {@code null} の場合は {@link StrongAI} と同じ評価関数を用いる
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, OpeningBook)
+   */
+  public PatternAI(PieceType me, TranspositionTable table, OpeningBook book,
+      PatternEvaluator evaluator) {
+    super(me, table, book);
+    this.me = me;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * 評価器と探索の条件を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール
+   * @param endgameEmpties  読み切りを開始する空きマスの数
+   * @param evaluator       評価器. {@code null} の場合は {@link StrongAI} と同じ評価関数を用いる
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long, int, ExecutorService, int)
+   */
+  public PatternAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers, int endgameEmpties, PatternEvaluator evaluator) {
+    super(me, table, maxDepth, timeLimitMillis, threads, workers, endgameEmpties);
+    this.me = me;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * オセロの盤面を評価する.
+   * <p>
+   * 重みは手番側から見た石差で学習しているため, 手番側から評価し, 相手の手番では符号を反転して自分から見た値とする.
+   * 終局している場合は石差を {@link PatternEvaluator#WEIGHT_SCALE} 倍した値とする.
+   *
+   * @param othello 評価対象の盤面の情報を保持するオブジェクト
+   * @return 盤面の評価値
+   */
+  @Override
+  int evaluate(BitBoard othello) {
+    if (evaluator == null) {
+      return super.evaluate(othello);
+    }
+    final long own = othello.getBits(me);
+    final long opponent = othello.getBits(PieceType.getEnemyType(me));
+    if (othello.getLegalMoves() == 0 && othello.isGameOver()) {
+      return EndgameSolver.finalScore(own, opponent) * PatternEvaluator.WEIGHT_SCALE;
+    }
+    return othello.getCurrentTurn() == me
+        ? evaluator.evaluate(own, opponent)
+        : -evaluator.evaluate(opponent, own);
+  }
+}
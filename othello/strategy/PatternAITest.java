@@ -0,0 +1,43 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import othello.BitBoard;
+import othello.PieceType;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+
+class PatternAITest {
+
+  /**
+   * 評価器は手番側から引き, 相手の手番の局面では符号を反転した値を自分から見た評価値とすること.
+   */
+  @Test
+  void evaluatesFromSideToMove() {
+    final Random random = new Random(0);
+    final short[][] weights = new short[PatternEvaluator.PHASES][PatternEvaluator.tableSize()];
+    for (short[] table : weights) {
+      for (int i = 0; i < table.length; i++) {
+        table[i] = (short) (random.nextInt(2001) - 1000);
+      }
+    }
+    final PatternEvaluator evaluator = new PatternEvaluator(weights);
+    final PatternAI ai = new PatternAI(PieceType.BLACK,
+        new TranspositionTable(1, ReplacementPolicy.ALWAYS), NormalAI.DEFAULT_MAX_DEPTH,
+        NormalAI.NO_TIME_LIMIT, 1, null, 0, evaluator);
+
+    for (int i = 0; i < 100; i++) {
+      final long occupied = random.nextLong();
+      final long black = occupied & random.nextLong();
+      final long white = occupied & ~black;
+      final BitBoard blackToMove = new BitBoard(black, white, PieceType.BLACK);
+      final BitBoard whiteToMove = new BitBoard(black, white, PieceType.WHITE);
+      if (blackToMove.isGameOver()) {
+        continue;
+      }
+      assertEquals(evaluator.evaluate(black, white), ai.evaluate(blackToMove));
+      assertEquals(-evaluator.evaluate(white, black), ai.evaluate(whiteToMove));
+    }
+  }
+}
@@ -0,0 +1,476 @@
+package othello.strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import othello.Squares;
+import othello.Symmetry;
+
+/**
+ * 盤面の部分的なコマの並び(パターン)ごとの重みから評価値を求めるクラス.
+ * <p>
+ * 辺(角の斜め隣を含む), 角の3x3と2x5の領域, 各斜めの列, 2～4行目の直線をパターンとし, 盤面の8通りの対称形(回転と反転)に置いた
+ * 同じ形のパターンは重みを共有する. 各パターンのマスの状態(空き, 自分, 相手)を3進数の桁として並べた値を添字として重みの表を引き,
+ * その合計を評価値とする. 評価値は手番側から見た石差の {@link #WEIGHT_SCALE} 倍を目安とする. 3進数の各桁は基本形のマスに対応し,
+ * 対称形に置いたパターンでも基本形に重ねた際に同じ位置にあるマスが同じ桁となる.
+ * <p>
+ * 重みの表はゲームの進行度(盤上のコマの数)ごとに {@link #PHASES} 組を持ち, バイナリ形式の重みファイルから読み込む.
+ * ファイルの形式は以下の通り(数値はすべてビッグエンディアン).
+ * <ol>
+ *     <li>識別子 {@link #MAGIC} (int)</li>
+ *     <li>形式のバージョン {@link #VERSION} (int)</li>
+ *     <li>進行度の数 (int)</li>
+ *     <li>進行度1組あたりの重みの数 (int)</li>
+ *     <li>重み (short). 進行度の順に, 各進行度でパターンの順に並べる</li>
+ * </ol>
+ * 重みは読み込んだ後に変更しないため, 1つのインスタンスを複数のスレッドで共有できる.
+ */
+public final class PatternEvaluator {
+
+  /**
+   * 重みファイルの識別子.
+   */
+  public static final int MAGIC = 0x4f544850;
+  /**
+   * 重みファイルの形式のバージョン.
+   */
+  public static final int VERSION = 1;
+  /**
+   * 進行度の数.
+   */
+  public static final int PHASES = 15;
+  /**
+   * 1つの進行度に含まれるコマの数の幅.
+   */
+  private static final int PHASE_WIDTH = 4;
+  /**
+   * 石差1つあたりの評価値.
+   */
+  public static final int WEIGHT_SCALE = 64;
+  /**
+   * 既定の重みファイルのパスを指定するシステムプロパティ.
+   */
+  public static final String WEIGHTS_PROPERTY = "othello.weights";
+  /**
+   * 既定の重みファイルのパス.
+   */
+  public static final String DEFAULT_WEIGHTS_FILE = "pattern-weights.bin";
+  /**
+   * パターンの形: 辺と角の斜め隣.
+   */
+  private static final int EDGE = 0;
+  /**
+   * パターンの形: 角の3x3.
+   */
+  private static final int CORNER_3X3 = 1;
+  /**
+   * パターンの形: 角の2x5.
+   */
+  private static final int CORNER_2X5 = 2;
+  /**
+   * パターンの形: 2行目.
+   */
+  private static final int LINE_2 = 3;
+  /**
+   * パターンの形: 3行目.
+   */
+  private static final int LINE_3 = 4;
+  /**
+   * パターンの形: 4行目.
+   */
+  private static final int LINE_4 = 5;
+  /**
+   * パターンの形: 長さ8の斜めの列. 以降は長さ7～4の斜めの列が続く.
+   */
+  private static final int DIAGONAL_8 = 6;
+  /**
+   * 各パターンの形の基本形のマス. 1行目を辺, 1列目を左端とする.
+   */
+  private static final long[] SHAPE_MASKS = {
+      0x00000000000042ffL,
+      0x0000000000070707L,
+      0x0000000000001f1fL,
+      0x000000000000ff00L,
+      0x0000000000ff0000L,
+      0x00000000ff000000L,
+      0x8040201008040201L,
+      0x0080402010080402L,
+      0x0000804020100804L,
+      0x0000008040201008L,
+      0x0000000080402010L
+  };
+  /**
+   * 長さ8から4の斜めの列を左端へ寄せた場合のマス. 添字は寄せた列数.
+   */
+  private static final long[] DIAGONAL_MASKS = new long[SHAPE_MASKS.length - DIAGONAL_8];
+  /**
+   * 2進数の各桁を3進数の桁に置き換えた値. パターンのマスのコマの有無から3進数の添字を求めるために使用する.
+   */
+  private static final int[] TERNARY = new int[1 << 10];
+  /**
+   * 盤面に置いた各パターンの形.
+   */
+  private static final int[] INSTANCE_SHAPES;
+  /**
+   * 盤面に置いた各パターンの重みの表の開始位置.
+   */
+  private static final int[] OFFSETS;
+  /**
+   * 盤面の変換({@link Symmetry} の宣言の順番)ごとの, その変換で基本形に移るパターンの開始位置.
+   */
+  private static final int[] TRANSFORM_STARTS = new int[9];
+  /**
+   * 盤面の変換.
+   */
+  private static final Symmetry[] SYMMETRIES = Symmetry.values();
+  /**
+   * 基本形を盤面に置く際に試す変換の順番. 同じマスの組になる置き方は先に試した変換のみを用いる.
+   * 3進数の桁の並びは選んだ変換で決まるため, 既存の重みファイルと互換性を保つようこの順番を変えてはならない.
+   */
+  private static final Symmetry[] PLACEMENTS = {
+      Symmetry.IDENTITY, Symmetry.ROTATE_90, Symmetry.ROTATE_180, Symmetry.ROTATE_270,
+      Symmetry.FLIP_LEFT_RIGHT, Symmetry.ANTI_TRANSPOSE, Symmetry.FLIP_UP_DOWN, Symmetry.TRANSPOSE
+  };
+  /**
+   * 進行度1組あたりの重みの数.
+   */
+  private static final int TABLE_SIZE;
+  /**
+   * 既定の重みファイルから読み込んだ評価器. 読み込む前は {@code null}.
+   */
+  private static PatternEvaluator defaultEvaluator;
+  /**
+   * 既定の重みファイルの読み込みを試みた場合 {@code true}.
+   */
+  private static boolean isDefaultLoaded;
+
+  static {
+    for (int offset = 0; offset < DIAGONAL_MASKS.length; offset++) {
+      DIAGONAL_MASKS[offset] = SHAPE_MASKS[DIAGONAL_8] & -1L >>> 8 * offset;
+    }
+    for (int bits = 0; bits < TERNARY.length; bits++) {
+      int ternary = 0;
+      for (int digit = 9; digit >= 0; digit--) {
+        ternary = ternary * 3 + (bits >>> digit & 1);
+      }
+      TERNARY[bits] = ternary;
+    }
+
+    // 各形を8通りの対称形に置き, 盤面をどう変換すれば基本形に重なるかを調べる.
+    List<List<int[]>> byTransform = new ArrayList<>();
+    for (int code = 0; code < 8; code++) {
+      byTransform.add(new ArrayList<>());
+    }
+    int tableSize = 0;
+    for (int shape = 0; shape < SHAPE_MASKS.length; shape++) {
+      Set<Long> placed = new HashSet<>();
+      for (Symmetry placement : PLACEMENTS) {
+        // 対称形の中で同じマスの組になるものは1つとして数える.
+        if (placed.add(placement.apply(SHAPE_MASKS[shape]))) {
+          byTransform.get(toBaseTransform(SHAPE_MASKS[shape], placement))
+              .add(new int[]{shape, tableSize});
+        }
+      }
+      tableSize += pow3(Long.bitCount(SHAPE_MASKS[shape]));
+    }
+    TABLE_SIZE = tableSize;
+
+    List<int[]> instances = new ArrayList<>();
+    for (int code = 0; code < 8; code++) {
+      TRANSFORM_STARTS[code] = instances.size();
+      instances.addAll(byTransform.get(code));
+    }
+    TRANSFORM_STARTS[8] = instances.size();
+    INSTANCE_SHAPES = instances.stream().mapToInt(instance -> instance[0]).toArray();
+    OFFSETS = instances.stream().mapToInt(instance -> instance[1]).toArray();
+  }
+
+  /**
+   * 進行度ごとの重み.
+   */
+  private final short[][] weights;
+
+  /**
+   * 重みを指定して生成する.
+   *
+   * @param weights 進行度ごとの重み. 大きさは {@link #PHASES} x {@link #tableSize()}
+   * @throws IllegalArgumentException 重みの大きさが正しくない場合
+   */
+  public PatternEvaluator(final short[][] weights) {
+    if (weights.length != PHASES) {
+      throw new IllegalArgumentException("進行度の数が正しくありません");
+    }
+    this.weights = new short[PHASES][];
+    for (int phase = 0; phase < PHASES; phase++) {
+      if (weights[phase].length != TABLE_SIZE) {
+        throw new IllegalArgumentException("重みの数が正しくありません");
+      }
+      this.weights[phase] = weights[phase].clone();
+    }
+  }
+
+  /**
+   * 重みファイルを読み込む.
+   *
+   * @param path 重みファイルのパス
+   * @return 評価器
+   * @throws IOException 読み込みに失敗した場合, またはファイルの形式が正しくない場合
+   */
+  public static PatternEvaluator load(final Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      return read(in);
+    }
+  }
+
+  /**
+   * 重みファイルの形式のデータを読み込む.
+   *
+   * @param in 入力元. 閉じない
+   * @return 評価器
+   * @throws IOException 読み込みに失敗した場合, または形式が正しくない場合
+   */
+  public static PatternEvaluator read(final InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != MAGIC) {
+      throw new IOException("重みファイルではありません");
+    }
+    if (data.readInt() != VERSION) {
+      throw new IOException("重みファイルの形式のバージョンが異なります");
+    }
+    if (data.readInt() != PHASES || data.readInt() != TABLE_SIZE) {
+      throw new IOException("重みファイルのパターンの構成が異なります");
+    }
+    short[][] weights = new short[PHASES][TABLE_SIZE];
+    for (short[] table : weights) {
+      for (int i = 0; i < TABLE_SIZE; i++) {
+        table[i] = data.readShort();
+      }
+    }
+    return new PatternEvaluator(weights);
+  }
+
+  /**
+   * 重みを重みファイルに書き出す.
+   *
+   * @param path 重みファイルのパス. 既に存在する場合は上書きする
+   * @throws IOException 書き出しに失敗した場合
+   */
+  public void save(final Path path) throws IOException {
+    try (OutputStream out = Files.newOutputStream(path)) {
+      write(out);
+    }
+  }
+
+  /**
+   * 重みを重みファイルの形式で書き出す.
+   *
+   * @param out 出力先. 閉じない
+   * @throws IOException 書き出しに失敗した場合
+   */
+  public void write(final OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(PHASES);
+    data.writeInt(TABLE_SIZE);
+    for (short[] table : weights) {
+      for (short weight : table) {
+        data.writeShort(weight);
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * 既定の重みファイルを読み込む.
+   * <p>
+   * パスはシステムプロパティ {@value #WEIGHTS_PROPERTY} で指定し, 指定がなければ作業ディレクトリの {@value #DEFAULT_WEIGHTS_FILE}
+   * とする. 読み込みは最初の呼び出しでのみ行い, 以降は同じ評価器を返す.
+   *
+   * @return 評価器. ファイルが存在しない場合は {@code null}
+   * @throws IllegalStateException ファイルの読み込みに失敗した場合
+   */
+  public static synchronized PatternEvaluator loadDefault() {
+    if (!isDefaultLoaded) {
+      final Path path = Paths.get(System.getProperty(WEIGHTS_PROPERTY, DEFAULT_WEIGHTS_FILE));
+      try {
+        defaultEvaluator = load(path);
+      } catch (NoSuchFileException e) {
+        defaultEvaluator = null;
+      } catch (IOException e) {
+        throw new IllegalStateException("重みファイルを読み込めません: " + path, e);
+      }
+      isDefaultLoaded = true;
+    }
+    return defaultEvaluator;
+  }
+
+  /**
+   * 進行度1組あたりの重みの数を返す.
+   *
+   * @return 重みの数
+   */
+  public static int tableSize() {
+    return TABLE_SIZE;
+  }
+
+  /**
+   * 盤面に置いたパターンの数を返す.
+   *
+   * @return パターンの数
+   */
+  public static int featureCount() {
+    return INSTANCE_SHAPES.length;
+  }
+
+  /**
+   * 盤面の進行度を求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 進行度(0～{@link #PHASES} - 1)
+   */
+  public static int phase(final long own, final long opponent) {
+    final int pieces = Long.bitCount(own | opponent);
+    return Math.min(Math.max(pieces - 4, 0) / PHASE_WIDTH, PHASES - 1);
+  }
+
+  /**
+   * 盤面に置いた各パターンの重みの添字を求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param indices  添字の格納先. 大きさは {@link #featureCount()} 以上
+   */
+  public static void features(final long own, final long opponent, final int[] indices) {
+    for (int code = 0; code < SYMMETRIES.length; code++) {
+      final long ownBits = SYMMETRIES[code].apply(own);
+      final long opponentBits = SYMMETRIES[code].apply(opponent);
+      for (int i = TRANSFORM_STARTS[code]; i < TRANSFORM_STARTS[code + 1]; i++) {
+        indices[i] = OFFSETS[i] + index(INSTANCE_SHAPES[i], ownBits, opponentBits);
+      }
+    }
+  }
+
+  /**
+   * 盤面を評価する.
+   * <p>
+   * 盤面を8通りに変換し, 各パターンを基本形の位置に移してから添字を求める. 基本形のマスは数回のシフトとマスクで連続したビットに詰められるため,
+   * マスを1つずつ調べる必要がない.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 手番側から見た評価値
+   */
+  public int evaluate(final long own, final long opponent) {
+    final short[] table = weights[phase(own, opponent)];
+    int score = 0;
+    for (int code = 0; code < SYMMETRIES.length; code++) {
+      final long ownBits = SYMMETRIES[code].apply(own);
+      final long opponentBits = SYMMETRIES[code].apply(opponent);
+      for (int i = TRANSFORM_STARTS[code]; i < TRANSFORM_STARTS[code + 1]; i++) {
+        score += table[OFFSETS[i] + index(INSTANCE_SHAPES[i], ownBits, opponentBits)];
+      }
+    }
+    return score;
+  }
+
+  /**
+   * 指定した進行度の重みの複製を返す.
+   *
+   * @param phase 進行度
+   * @return 重み
+   */
+  public short[] getWeights(final int phase) {
+    return Arrays.copyOf(weights[phase], TABLE_SIZE);
+  }
+
+  /**
+   * 基本形の位置にあるパターンのマスの状態を3進数として並べた値を求める.
+   *
+   * @param shape    パターンの形
+   * @param own      基本形の位置に移した自分のコマの配置
+   * @param opponent 基本形の位置に移した相手のコマの配置
+   * @return 空きを0, 自分を1, 相手を2とした3進数の値
+   */
+  private static int index(final int shape, final long own, final long opponent) {
+    return TERNARY[extract(shape, own)] + 2 * TERNARY[extract(shape, opponent)];
+  }
+
+  /**
+   * 基本形のマスのビットを下位から詰めて取り出す.
+   *
+   * @param shape パターンの形
+   * @param bits  コマの配置
+   * @return 基本形のマスのビットを詰めた値
+   */
+  private static int extract(final int shape, final long bits) {
+    switch (shape) {
+      case EDGE:
+        return (int) ((bits & 0xff) | (bits >>> 1 & 0x100) | (bits >>> 5 & 0x200));
+      case CORNER_3X3:
+        return (int) ((bits & 0x7) | (bits >>> 5 & 0x38) | (bits >>> 10 & 0x1c0));
+      case CORNER_2X5:
+        return (int) ((bits & 0x1f) | (bits >>> 3 & 0x3e0));
+      case LINE_2:
+        return (int) (bits >>> 8 & 0xff);
+      case LINE_3:
+        return (int) (bits >>> 16 & 0xff);
+      case LINE_4:
+        return (int) (bits >>> 24 & 0xff);
+      default:
+        // 斜めの列を左端へ寄せて長さ8の斜めの列の位置に重ね, 掛け算で最上位のバイトに集める.
+        final int offset = shape - DIAGONAL_8;
+        return (int) (((bits >>> offset) & DIAGONAL_MASKS[offset]) * 0x0101010101010101L >>> 56);
+    }
+  }
+
+  /**
+   * 盤面に置いたパターンを基本形に重ねる盤面の変換を求める.
+   *
+   * @param mask      基本形のマス
+   * @param placement 基本形を盤面に置いた変換
+   * @return 変換の宣言の順番
+   * @throws IllegalStateException 該当する変換がない場合
+   */
+  private static int toBaseTransform(final long mask, final Symmetry placement) {
+    for (int code = 0; code < SYMMETRIES.length; code++) {
+      boolean isMatched = true;
+      for (long rest = mask; rest != 0; rest = Squares.removeFirst(rest)) {
+        final int square = Squares.first(rest);
+        isMatched &= SYMMETRIES[code].apply(placement.apply(square)) == square;
+      }
+      if (isMatched) {
+        return code;
+      }
+    }
+    throw new IllegalStateException("対称形を基本形に重ねる変換がありません");
+  }
+
+  /**
+   * 3の累乗を求める.
+   *
+   * @param exponent 指数
+   * @return 3の {@code exponent} 乗
+   */
+  private static int pow3(final int exponent) {
+    int result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= 3;
+    }
+    return result;
+  }
+}
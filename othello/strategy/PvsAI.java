@@ -0,0 +1,92 @@
+package othello.strategy;
+
+import java.util.concurrent.ExecutorService;
+import othello.PieceType;
+
+/**
+ * PVS(プリンシパルバリエーション探索)による評価値の計算用クラス.
+ * <p>
+ * 評価関数は {@link StrongAI} と同じだが, 探索をネガマックス法によるPVSに置き換えている. 最初の手以外は幅のない探索窓で読み,
+ * 反復深化の各深さでは前の深さの評価値を中心とした狭い探索窓から読み始めるため, 同じ深さでも読む局面の数が少なくなる.
+ */
+public class PvsAI extends StrongAI {
+
+  public PvsAI(PieceType me) {
+    super(me);
+  }
+
+  /**
+   * 使用する置換表を指定して生成する.
+   * <p>
+   * 置換表には {@link NormalAI} と同じく自分のコマから見た評価値が記録されるため, 置換表を別のコマのAIと共有してはならない.
+   *
+   * @param me    自分のコマの種類
+   * @param table 置換表
+   */
+  public PvsAI(PieceType me, TranspositionTable table) {
+    super(me, table);
+  }
+
+  /**
+   * 使用する置換表と定石を指定して生成する.
+   *
+   * @param me    自分のコマの種類
+   * @param table 置換表
+   * @param book  定石. {@code null} の場合は定石を使用しない
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, OpeningBook)
+   */
+  public PvsAI(PieceType me, TranspositionTable table, OpeningBook book) {
+    super(me, table, book);
+  }
+
+  /**
+   * 探索の深さと時間の上限を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long)
+   */
+  public PvsAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis) {
+    super(me, table, maxDepth, timeLimitMillis);
+  }
+
+  /**
+   * 探索の深さと時間の上限, 探索に使用するスレッド数を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long, int, ExecutorService)
+   */
+  public PvsAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers) {
+    super(me, table, maxDepth, timeLimitMillis, threads, workers);
+  }
+
+  /**
+   * 探索の深さと時間の上限, 探索に使用するスレッド数, 読み切りを開始する空きマスの数を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール
+   * @param endgameEmpties  読み切りを開始する空きマスの数
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long, int, ExecutorService, int)
+   */
+  public PvsAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers, int endgameEmpties) {
+    super(me, table, maxDepth, timeLimitMillis, threads, workers, endgameEmpties);
+  }
+
+  @Override
+  boolean usesPrincipalVariationSearch() {
+    return true;
+  }
+}
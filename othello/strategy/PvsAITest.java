@@ -0,0 +1,82 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import othello.Board;
+import othello.PieceType;
+import othello.Squares;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+
+class PvsAITest {
+
+  /**
+   * 探索の深さ.
+   */
+  private static final int DEPTH = 5;
+
+  /**
+   * PVSとアルファベータ法は同じ評価値を求め, 互いの置換表を引き継いでも評価値が変わらないこと.
+   */
+  @Test
+  void sharesTableWithAlphaBeta() {
+    final Random random = new Random(0);
+    for (int i = 0; i < 10; i++) {
+      final Board board = randomPosition(random, 10 + random.nextInt(20));
+      final PieceType me = board.getCurrentTurn();
+      final StrongAI alphaBeta = new StrongAI(me, newTable(), DEPTH, NormalAI.NO_TIME_LIMIT, 1,
+          null, 0);
+      alphaBeta.decideCoordinate(board);
+      final int expected = alphaBeta.getLastEval();
+
+      final TranspositionTable table = newTable();
+      final PvsAI pvs = new PvsAI(me, table, DEPTH, NormalAI.NO_TIME_LIMIT, 1, null, 0);
+      pvs.decideCoordinate(board);
+      assertEquals(expected, pvs.getLastEval());
+
+      // PVSの記録した置換表を使って読む.
+      final StrongAI sharing = new StrongAI(me, table, DEPTH, NormalAI.NO_TIME_LIMIT, 1, null, 0);
+      sharing.decideCoordinate(board);
+      assertEquals(expected, sharing.getLastEval());
+      pvs.decideCoordinate(board);
+      assertEquals(expected, pvs.getLastEval());
+    }
+  }
+
+  /**
+   * 置換表を生成する.
+   *
+   * @return 置換表
+   */
+  private static TranspositionTable newTable() {
+    return new TranspositionTable(1, ReplacementPolicy.DEPTH_PREFERRED);
+  }
+
+  /**
+   * ランダムに指定した手数だけ打った局面を作る. 途中で終局した場合は最初からやり直す.
+   *
+   * @param random 乱数
+   * @param plies  手数
+   * @return 局面
+   */
+  private static Board randomPosition(final Random random, final int plies) {
+    while (true) {
+      final Board board = new Board();
+      for (int ply = 0; ply < plies && !board.isGameOver(); ply++) {
+        if (!board.canPutForCurrentTurn()) {
+          board.nextTurn();
+        }
+        long moves = board.getLegalMoves();
+        for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+          moves = Squares.removeFirst(moves);
+        }
+        board.processToPutPiece(Squares.toCoordinate(Squares.first(moves)));
+        board.nextTurn();
+      }
+      if (!board.isGameOver() && Long.bitCount(board.getLegalMoves()) > 1) {
+        return board;
+      }
+    }
+  }
+}
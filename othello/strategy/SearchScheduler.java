@@ -0,0 +1,245 @@
+package othello.strategy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import othello.Board;
+import othello.Coordinate;
+
+/**
+ * AIへの思考の依頼を待ち行列に積み, 同時に行う探索の数を制限して順に実行するクラス.
+ * <p>
+ * 依頼はそれぞれ期限({@link System#nanoTime()} の値)を持つ. {@link NormalAI} の探索は期限までの残り時間を探索時間の上限とし,
+ * 待ち行列が長いほど探索の深さを下げて, 後ろに並んだ依頼の待ち時間を抑える. 取り出した時点で期限を過ぎていた依頼は深さ1で読む.
+ * それ以外の戦略は {@link StrategyInterface#decideCoordinate(Board)} をそのまま呼ぶ.
+ * <p>
+ * 待ち行列の長さには上限があり, 上限に達している間は新しい依頼を受け付けない(受付制御). 対局のように依頼を繰り返す利用者は,
+ * 始める前に {@link #tryReserve()} で枠を予約する. 予約の数は待ち行列の長さの上限までに制限されるため, 予約した利用者が同時に1つずつ
+ * 依頼する限り, 依頼が途中で拒否されることはない.
+ */
+public final class SearchScheduler implements AutoCloseable {
+
+  /**
+   * 同時に行う探索の数.
+   */
+  private final int threads;
+  /**
+   * 依頼を順に実行するスレッドプール.
+   */
+  private final ThreadPoolExecutor executor;
+  /**
+   * 探索中の依頼の数.
+   */
+  private final AtomicInteger inFlight = new AtomicInteger();
+  /**
+   * 実行を開始した依頼の数.
+   */
+  private final LongAdder started = new LongAdder();
+  /**
+   * 実行を開始した依頼の待ち時間の合計(ナノ秒).
+   */
+  private final LongAdder totalWaitNanos = new LongAdder();
+  /**
+   * 実行を開始した依頼の待ち時間の最大値(ナノ秒).
+   */
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  /**
+   * 待ち行列が一杯で受け付けなかった依頼と予約の数.
+   */
+  private final LongAdder rejected = new LongAdder();
+  /**
+   * 予約できる枠. 待ち行列の長さの上限と同じ数だけある.
+   */
+  private final Semaphore reservations;
+
+  /**
+   * 同時に行う探索の数と待ち行列の長さの上限を指定して生成する.
+   *
+   * @param threads       同時に行う探索の数. 通常はCPUのコア数
+   * @param queueCapacity 待ち行列の長さの上限
+   * @throws IllegalArgumentException 探索の数または待ち行列の長さの上限が1未満の場合
+   */
+  public SearchScheduler(final int threads, final int queueCapacity) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("スレッド数は1以上を指定してください");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("待ち行列の長さは1以上を指定してください");
+    }
+    this.threads = threads;
+    this.reservations = new Semaphore(queueCapacity);
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "SearchScheduler-worker");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * AIに座標を決めさせる依頼を待ち行列に積む.
+   * <p>
+   * 盤面は結果が出るまで変更しないこと. AIは同時に複数の依頼で使用しないこと.
+   *
+   * @param strategy      AI
+   * @param othello       盤面
+   * @param deadlineNanos 結果が必要な時刻({@link System#nanoTime()} の値)
+   * @return 決めた座標
+   * @throws RejectedExecutionException 待ち行列が一杯の場合, または終了している場合
+   */
+  public Future<Coordinate> submit(final StrategyInterface strategy, final Board othello,
+      final long deadlineNanos) {
+    return submit(() -> strategy, othello, deadlineNanos);
+  }
+
+  /**
+   * AIに座標を決めさせる依頼を待ち行列に積む.
+   * <p>
+   * AIは依頼を実行するスレッドで取得する. スレッドごとにAIを使い回す場合に使用する.
+   *
+   * @param strategy      実行するスレッドでAIを返す関数
+   * @param othello       盤面
+   * @param deadlineNanos 結果が必要な時刻({@link System#nanoTime()} の値)
+   * @return 決めた座標
+   * @throws RejectedExecutionException 待ち行列が一杯の場合, または終了している場合
+   */
+  public Future<Coordinate> submit(final Supplier<? extends StrategyInterface> strategy,
+      final Board othello, final long deadlineNanos) {
+    final long enqueued = System.nanoTime();
+    try {
+      return executor.submit(() -> run(strategy.get(), othello, enqueued, deadlineNanos));
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw e;
+    }
+  }
+
+  /**
+   * 依頼を繰り返す枠を予約する.
+   * <p>
+   * 予約した利用者は, 前の依頼の結果を受け取ってから次の依頼を積むこと. 使い終わったら {@link #release()} で枠を返す.
+   *
+   * @return 予約できた場合 {@code true}. 枠が残っていない場合は {@code false} を返し, 受け付けなかった依頼として数える
+   */
+  public boolean tryReserve() {
+    if (reservations.tryAcquire()) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  /**
+   * {@link #tryReserve()} で予約した枠を返す.
+   */
+  public void release() {
+    reservations.release();
+  }
+
+  /**
+   * 依頼を実行する.
+   *
+   * @param strategy      AI
+   * @param othello       盤面
+   * @param enqueued      依頼を積んだ時刻
+   * @param deadlineNanos 結果が必要な時刻
+   * @return 決めた座標
+   */
+  private Coordinate run(final StrategyInterface strategy, final Board othello,
+      final long enqueued, final long deadlineNanos) {
+    final long now = System.nanoTime();
+    final long waited = now - enqueued;
+    started.increment();
+    totalWaitNanos.add(waited);
+    maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+    inFlight.incrementAndGet();
+    try {
+      if (!(strategy instanceof NormalAI)) {
+        return strategy.decideCoordinate(othello);
+      }
+      final NormalAI ai = (NormalAI) strategy;
+      final long remainingMillis = (deadlineNanos - now) / 1_000_000;
+      if (remainingMillis <= 0) {
+        return ai.decideCoordinate(othello, 1, NormalAI.NO_TIME_LIMIT);
+      }
+      return ai.decideCoordinate(othello, reduceDepth(ai.getMaxDepth()), remainingMillis);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * 待ち行列の長さに応じて探索の深さを下げる.
+   * <p>
+   * 1つのスレッドが後に抱えている依頼の数だけ深さを下げる. 探索量は深さに対して指数的に増えるため, 待ち行列が長い間は
+   * 1手ごとの探索時間が大きく縮む.
+   *
+   * @param maxDepth 探索の深さの上限
+   * @return 探索の深さ
+   */
+  private int reduceDepth(final int maxDepth) {
+    return Math.max(1, maxDepth - executor.getQueue().size() / threads);
+  }
+
+  /**
+   * 実行を待っている依頼の数を返す.
+   *
+   * @return 待ち行列の長さ
+   */
+  public int getQueueLength() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * 探索中の依頼の数を返す.
+   *
+   * @return 探索中の依頼の数
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * 実行を開始した依頼の平均の待ち時間を返す.
+   *
+   * @return 待ち時間(ミリ秒). 依頼がない場合は0
+   */
+  public double getAverageWaitMillis() {
+    final long count = started.sum();
+    return count == 0 ? 0.0 : totalWaitNanos.sum() / 1e6 / count;
+  }
+
+  /**
+   * 実行を開始した依頼の最大の待ち時間を返す.
+   *
+   * @return 待ち時間(ミリ秒)
+   */
+  public double getMaxWaitMillis() {
+    return maxWaitNanos.get() / 1e6;
+  }
+
+  /**
+   * 待ち行列が一杯で受け付けなかった依頼と, 枠が残っておらず受け付けなかった予約の数を返す.
+   *
+   * @return 受け付けなかった依頼と予約の数
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * 待っている依頼を破棄し, 探索中の依頼に割り込んで終了する.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
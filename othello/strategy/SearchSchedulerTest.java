@@ -0,0 +1,161 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+import othello.Board;
+import othello.Coordinate;
+import othello.PieceType;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+
+class SearchSchedulerTest {
+
+  /**
+   * テストで使用するAIの探索の深さの上限.
+   */
+  private static final int MAX_DEPTH = 6;
+  /**
+   * 期限までに十分な時間がある場合の期限までの時間(ナノ秒).
+   */
+  private static final long LONG_DEADLINE_NANOS = 60_000_000_000L;
+
+  /**
+   * 待ち行列に残っている依頼の数だけ探索の深さを下げること.
+   */
+  @Test
+  void reducesDepthByQueueLength() throws Exception {
+    try (SearchScheduler scheduler = new SearchScheduler(1, 8)) {
+      final Blocker blocker = new Blocker();
+      final Future<Coordinate> blocked = scheduler.submit(blocker, new Board(), deadline());
+      blocker.started.await();
+
+      final RecordingAI ai = new RecordingAI();
+      final List<Future<Coordinate>> futures = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        futures.add(scheduler.submit(ai, new Board(), deadline()));
+      }
+      assertEquals(3, scheduler.getQueueLength());
+      blocker.release.countDown();
+      blocked.get();
+      for (Future<Coordinate> future : futures) {
+        future.get();
+      }
+      // 取り出した時点で後ろに残っている依頼は2, 1, 0.
+      assertEquals(List.of(MAX_DEPTH - 2, MAX_DEPTH - 1, MAX_DEPTH), ai.depths);
+      assertTrue(ai.timeLimits.stream().allMatch(limit -> limit > 0));
+    }
+  }
+
+  /**
+   * 取り出した時点で期限を過ぎている依頼は, 時間の上限なしに深さ1で読むこと.
+   */
+  @Test
+  void expiredDeadlineSearchesDepthOne() throws Exception {
+    try (SearchScheduler scheduler = new SearchScheduler(1, 8)) {
+      final RecordingAI ai = new RecordingAI();
+      scheduler.submit(ai, new Board(), System.nanoTime() - 1).get();
+      assertEquals(List.of(1), ai.depths);
+      assertEquals(List.of(NormalAI.NO_TIME_LIMIT), ai.timeLimits);
+    }
+  }
+
+  /**
+   * 待ち行列が一杯の場合は依頼を拒否して数え, 枠が残っていない場合は予約を拒否して数えること.
+   */
+  @Test
+  void countsRejections() throws Exception {
+    try (SearchScheduler scheduler = new SearchScheduler(1, 1)) {
+      final Blocker blocker = new Blocker();
+      final Future<Coordinate> blocked = scheduler.submit(blocker, new Board(), deadline());
+      blocker.started.await();
+      final Future<Coordinate> queued =
+          scheduler.submit(new RecordingAI(), new Board(), deadline());
+
+      assertThrows(RejectedExecutionException.class,
+          () -> scheduler.submit(new RecordingAI(), new Board(), deadline()));
+      assertEquals(1, scheduler.getRejected());
+
+      assertTrue(scheduler.tryReserve());
+      assertFalse(scheduler.tryReserve());
+      assertEquals(2, scheduler.getRejected());
+      scheduler.release();
+      assertTrue(scheduler.tryReserve());
+      assertEquals(2, scheduler.getRejected());
+
+      blocker.release.countDown();
+      blocked.get();
+      queued.get();
+    }
+  }
+
+  /**
+   * 期限までに十分な時間がある時刻を返す.
+   *
+   * @return 期限
+   */
+  private static long deadline() {
+    return System.nanoTime() + LONG_DEADLINE_NANOS;
+  }
+
+  /**
+   * 解放されるまで思考を終えずにスレッドを占有する戦略.
+   */
+  private static final class Blocker implements StrategyInterface {
+
+    /**
+     * 思考を始めたときに数え終わるラッチ.
+     */
+    private final CountDownLatch started = new CountDownLatch(1);
+    /**
+     * 思考を終えさせるラッチ.
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public Coordinate decideCoordinate(final Board othello) {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * 探索せずに, 指定された深さと時間の上限を記録するAI.
+   */
+  private static final class RecordingAI extends NormalAI {
+
+    /**
+     * 指定された探索の深さ.
+     */
+    private final List<Integer> depths = new ArrayList<>();
+    /**
+     * 指定された探索時間の上限.
+     */
+    private final List<Long> timeLimits = new ArrayList<>();
+
+    RecordingAI() {
+      super(PieceType.BLACK, new TranspositionTable(1, ReplacementPolicy.ALWAYS), MAX_DEPTH,
+          NormalAI.NO_TIME_LIMIT);
+    }
+
+    @Override
+    public Coordinate decideCoordinate(final Board othello, final int depthLimit,
+        final long timeLimitMillis) {
+      depths.add(depthLimit);
+      timeLimits.add(timeLimitMillis);
+      return null;
+    }
+  }
+}
@@ -4,6 +4,7 @@ import java.util.EnumMap;
 import othello.Board;
 import othello.Coordinate;
 import othello.PieceType;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
 
 /**
  * ゲームモードを管理するクラス.
@@ -17,10 +18,20 @@ public class StrategyMgr {
    */
   private EnumMap<PieceType, StrategyInterface> strategyForPiece;
 
+  /**
+   * AIに使用させる置換表を生成する.
+   *
+   * @return {@value NormalAI#DEFAULT_TABLE_MEGABYTES}MBの置換表
+   */
+  private static TranspositionTable newTable() {
+    return new TranspositionTable(NormalAI.DEFAULT_TABLE_MEGABYTES,
+        ReplacementPolicy.DEPTH_PREFERRED);
+  }
+
   /**
    * 指定されたゲームモードに対応して, それぞれのコマのプレイヤーに対応する戦略の管理を行う.
    * <p>
-   * 例えば黒のコマの戦略は人間が, 白のコマの戦略はAIが担当するなど.
+   * 例えば黒のコマの戦略は人間が, 白のコマの戦略はAIが担当するなど. 探索を行うAIは既定の定石ファイルがあれば序盤に定石を引く.
    *
    * @param gameMode 本プログラムによって選ぶことができるゲームモードの選択肢
    * @throws IllegalArgumentException ゲームモードが存在しない場合
@@ -38,15 +49,28 @@ public class StrategyMgr {
         break;
       case NORMAL_AI:
         strategyForPiece.put(PieceType.BLACK, new Player());
-        strategyForPiece.put(PieceType.WHITE, new NormalAI(PieceType.WHITE));
+        strategyForPiece.put(PieceType.WHITE, new NormalAI(PieceType.WHITE, newTable(),
+            OpeningBook.loadDefault()));
         break;
       case STRONG_AI:
         strategyForPiece.put(PieceType.BLACK, new Player());
-        strategyForPiece.put(PieceType.WHITE, new StrongAI(PieceType.WHITE));
+        strategyForPiece.put(PieceType.WHITE, new StrongAI(PieceType.WHITE, newTable(),
+            OpeningBook.loadDefault()));
         break;
       case AIS:
         strategyForPiece.put(PieceType.BLACK, new WeakAI());
-        strategyForPiece.put(PieceType.WHITE, new StrongAI(PieceType.WHITE));
+        strategyForPiece.put(PieceType.WHITE, new StrongAI(PieceType.WHITE, newTable(),
+            OpeningBook.loadDefault()));
+        break;
+      case PVS_AI:
+        strategyForPiece.put(PieceType.BLACK, new Player());
+        strategyForPiece.put(PieceType.WHITE, new PvsAI(PieceType.WHITE, newTable(),
+            OpeningBook.loadDefault()));
+        break;
+      case PATTERN_AI:
+        strategyForPiece.put(PieceType.BLACK, new Player());
+        strategyForPiece.put(PieceType.WHITE, new PatternAI(PieceType.WHITE, newTable(),
+            OpeningBook.loadDefault(), PatternEvaluator.loadDefault()));
         break;
       default:
         throw new IllegalArgumentException("指定したゲームモードはありません");
@@ -62,4 +86,14 @@ public class StrategyMgr {
   public Coordinate decideCoordinate(Board othello) {
     return strategyForPiece.get(othello.getCurrentTurn()).decideCoordinate(othello);
   }
+
+  /**
+   * 指定したコマを担当する戦略の名前を返す. 棋譜の対局者の名前に使用する.
+   *
+   * @param pieceType コマの種類
+   * @return 戦略のクラス名
+   */
+  public String getName(PieceType pieceType) {
+    return strategyForPiece.get(pieceType).getClass().getSimpleName();
+  }
 }
@@ -1,9 +1,10 @@
 package othello.strategy;
 
-import java.util.Map;
-import othello.Board;
-import othello.Piece;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import othello.BitBoard;
 import othello.PieceType;
+import othello.Squares;
 
 /**
  * アルファベータ法による評価値の計算用クラス.
@@ -21,9 +22,9 @@ public class StrongAI extends NormalAI {
    */
   private static final int COL = 8;
   /**
-   * 盤面評価に使用される盤位置の評価値
+   * 盤面評価に使用される盤位置の評価値. 手の並べ替えでもマスの優先度として使用する.
    */
-  private final int[][] PositionScore = {
+  static final int[][] POSITION_SCORE = {
       {45, -11, 4, -1, -1, 4, -11, 45},
       {-11, -16, -1, -3, -3, 2, -16, -11},
       {4, -1, 2, -1, -1, 2, -1, 4},
@@ -34,6 +35,36 @@ public class StrongAI extends NormalAI {
       {45, -11, 4, -1, -1, 4, -11, 45}
   };
 
+  /**
+   * 盤位置の評価値の種類ごとの, その評価値を持つマスのビットが立った値.
+   */
+  private static final long[] POSITION_MASKS;
+  /**
+   * {@link #POSITION_MASKS} の各要素に対応する評価値.
+   */
+  private static final int[] POSITION_WEIGHTS;
+
+  static {
+    // 同じ評価値のマスをまとめておき, 評価時はまとまりごとのコマの数から盤位置の評価値を求める.
+    long[] masks = new long[Squares.SIZE];
+    int[] weights = new int[Squares.SIZE];
+    int kinds = 0;
+    for (int r = 0; r < ROW; r++) {
+      for (int c = 0; c < COL; c++) {
+        int kind = 0;
+        while (kind < kinds && weights[kind] != POSITION_SCORE[r][c]) {
+          kind++;
+        }
+        if (kind == kinds) {
+          weights[kinds++] = POSITION_SCORE[r][c];
+        }
+        masks[kind] |= 1L << Squares.toSquare(r, c);
+      }
+    }
+    POSITION_MASKS = Arrays.copyOf(masks, kinds);
+    POSITION_WEIGHTS = Arrays.copyOf(weights, kinds);
+  }
+
   /**
    * 自分のコマの種類.
    */
@@ -44,27 +75,105 @@ public class StrongAI extends NormalAI {
     this.me = me;
   }
 
+  /**
+   * 使用する置換表を指定して生成する.
+   *
+   * @param me    自分のコマの種類
+   * @param table 置換表
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable)
+   */
+  public StrongAI(PieceType me, TranspositionTable table) {
+    super(me, table);
+    this.me = me;
+  }
+
+  /**
+   * 使用する置換表と定石を指定して生成する.
+   *
+   * @param me    自分のコマの種類
+   * @param table 置換表
+   * @param book  定石. {@code null} の場合は定石を使用しない
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, OpeningBook)
+   */
+  public StrongAI(PieceType me, TranspositionTable table, OpeningBook book) {
+    super(me, table, book);
+    this.me = me;
+  }
+
+  /**
+   * 探索の深さと時間の上限を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long)
+   */
+  public StrongAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis) {
+    super(me, table, maxDepth, timeLimitMillis);
+    this.me = me;
+  }
+
+  /**
+   * 探索の深さと時間の上限, 探索に使用するスレッド数を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long, int, ExecutorService)
+   */
+  public StrongAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers) {
+    super(me, table, maxDepth, timeLimitMillis, threads, workers);
+    this.me = me;
+  }
+
+  /**
+   * 探索の深さと時間の上限, 探索に使用するスレッド数, 読み切りを開始する空きマスの数を指定して生成する.
+   *
+   * @param me              自分のコマの種類
+   * @param table           置換表
+   * @param maxDepth        探索の深さの上限
+   * @param timeLimitMillis 1手あたりの探索時間の上限(ミリ秒)
+   * @param threads         探索に使用するスレッド数
+   * @param workers         2つ目以降の探索器を動かすスレッドプール
+   * @param endgameEmpties  読み切りを開始する空きマスの数
+   * @see NormalAI#NormalAI(PieceType, TranspositionTable, int, long, int, ExecutorService, int)
+   */
+  public StrongAI(PieceType me, TranspositionTable table, int maxDepth, long timeLimitMillis,
+      int threads, ExecutorService workers, int endgameEmpties) {
+    super(me, table, maxDepth, timeLimitMillis, threads, workers, endgameEmpties);
+    this.me = me;
+  }
+
   /**
    * オセロの盤面を評価する.
+   * <p>
+   * 盤面の複製やコレクションを生成せず, ビットボードのコマの配置に対するビット演算とビット数の計算のみで求める.
    *
    * @param othello 評価対象の盤面の情報を保持するオブジェクト
    * @return 盤面の評価値
    */
   @Override
-  int evaluate(Board othello) {
-    Piece[][] field = othello.cloneField();
+  int evaluate(BitBoard othello) {
+    final long own = othello.getBits(me);
+    final long opponent = othello.getBits(PieceType.getEnemyType(me));
+    final long candidates = othello.getLegalMoves();
 
     // 盤位置(BoardPosition)の評価値を計算する.
-    int scoreBP = calcBoardPosition(field);
+    int scoreBP = calcBoardPosition(own, opponent);
 
     // 候補数(CandidateNumber)の評価値を計算する.
-    int scoreCN = calcCandidatesNumber(othello);
+    int scoreCN = Long.bitCount(candidates);
 
     // 自石の数(HavingNumber)に基づいて評価値を計算する.
-    int scoreHN = super.calcHavingNumber(othello);
+    int scoreHN = Long.bitCount(own);
 
     // ゲームが終了している場合の評価値を計算する.
-    int scoreAbsolute = calcAbsolute(othello);
+    int scoreAbsolute = calcAbsolute(othello, own, opponent, candidates);
 
     return scoreBP * 3 + scoreCN * 10 + scoreHN * 3 + scoreAbsolute;
   }
@@ -72,61 +181,42 @@ public class StrongAI extends NormalAI {
   /**
    * 盤面を盤位置に基づいて全体評価する.
    * <p>
-   * 評価値を計算するために使用される.
+   * 評価値を計算するために使用される. 自分のコマがあるマスの評価値を加え, 相手のコマがあるマスの評価値を引いた値となる.
    *
-   * @param field 盤面
+   * @param own      自分のコマの配置
+   * @param opponent 相手のコマの配置
    * @return 評価値
    */
-  private int calcBoardPosition(Piece[][] field) {
+  private int calcBoardPosition(final long own, final long opponent) {
     int scoreBP = 0;
-    for (int r = 0; r < ROW; r++) {
-      for (int c = 0; c < COL; c++) {
-        scoreBP += PositionScore[r][c] * toIntForPiece(field[r][c]);
-      }
+    for (int kind = 0; kind < POSITION_MASKS.length; kind++) {
+      final long mask = POSITION_MASKS[kind];
+      scoreBP += POSITION_WEIGHTS[kind]
+          * (Long.bitCount(own & mask) - Long.bitCount(opponent & mask));
     }
     return scoreBP;
   }
 
-  /**
-   * 自分が置くことができるコマの数を返す.
-   *
-   * @param othello 盤面の状態を保持するオブジェクト
-   * @return 置くことが可能なコマの数
-   */
-  private int calcCandidatesNumber(Board othello) {
-    return super.getAllCandidatesToPut(othello).size();
-  }
-
-  /**
-   * コマの状態を判定しコマ単位の評価値を計算する.
-   *
-   * @param target 対象のコマ
-   * @return 評価値
-   */
-  private int toIntForPiece(Piece target) {
-    if (target.getState() == me) {
-      return 1;
-    } else if (target.isEmpty()) {
-      return 0;
-    } else {
-      return -1;
-    }
-  }
-
   /**
    * ゲームが終了している場合の評価値を計算する. 自分が勝利している場合は評価値をほぼ最大に, 相手が勝利している場合は評価値をほぼ最小にする
    *
-   * @param othello 盤面を保持しているオブジェクト
+   * @param othello    盤面を保持しているオブジェクト
+   * @param own        自分のコマの配置
+   * @param opponent   相手のコマの配置
+   * @param candidates 手番側が置くことができるマス
    * @return 勝利している場合最大の評価値, 敗北している場合最小の評価値
    */
-  private int calcAbsolute(Board othello) {
-    if (!othello.isGameOver()) {
+  private int calcAbsolute(BitBoard othello, final long own, final long opponent,
+      final long candidates) {
+    // 手番側が置ける場合は終局していない.
+    if (candidates != 0 || !othello.isGameOver()) {
       return 0;
     }
-    Map<PieceType, Integer> eachPiecesCnt = othello.getEachPiecesCnt();
-    if (eachPiecesCnt.get(me) > eachPiecesCnt.get(PieceType.getEnemyType(me))) {
+    final int ownCount = Long.bitCount(own);
+    final int opponentCount = Long.bitCount(opponent);
+    if (ownCount > opponentCount) {
       return 99999;
-    } else if (eachPiecesCnt.get(me).equals(eachPiecesCnt.get(PieceType.getEnemyType(me)))) {
+    } else if (ownCount == opponentCount) {
       return 0;
     }
     return -99999;
@@ -0,0 +1,249 @@
+package othello.strategy;
+
+import java.util.Arrays;
+
+/**
+ * 探索済みの局面の結果を保持する置換表.
+ * <p>
+ * 局面のハッシュ値をキーとし, 探索した深さ, 評価値の種類(確定値, 下限, 上限), 評価値, 最善手を記録する. 表の大きさは指定したメモリ量に収まる最大の2の累乗のエントリ数に固定され,
+ * ハッシュ値の下位ビットで格納位置を決める. 同じ位置に別の局面が入る場合は {@link ReplacementPolicy} に従って置き換える.
+ * <p>
+ * {@link NormalAI} は探索の方法によらず, 局面の手番にかかわらずAI自身のコマから見た評価値と種類を記録する.
+ * <p>
+ * 各エントリはキーとデータの2つの {@code long} で構成する. キーにはハッシュ値とデータの排他的論理和を格納し, 読み出し時に照合するため,
+ * 複数のスレッドから同時に読み書きしても書き込み途中のエントリを誤って使用することはない.
+ */
+public class TranspositionTable {
+
+  /**
+   * 評価値の種類.
+   */
+  public enum Bound {
+    /**
+     * 評価値が確定している.
+     */
+    EXACT,
+    /**
+     * 真の評価値は記録した値以上である(β値によるカットが起きた).
+     */
+    LOWER,
+    /**
+     * 真の評価値は記録した値以下である(α値を超える手がなかった).
+     */
+    UPPER;
+
+    /**
+     * 評価値の符号を反転した場合の種類を返す. 下限は上限に, 上限は下限になる.
+     *
+     * @return 符号を反転した評価値の種類
+     */
+    public Bound negate() {
+      switch (this) {
+        case LOWER:
+          return UPPER;
+        case UPPER:
+          return LOWER;
+        default:
+          return EXACT;
+      }
+    }
+  }
+
+  /**
+   * 同じ格納位置に別の局面が記録されている場合の置き換え方針.
+   */
+  public enum ReplacementPolicy {
+    /**
+     * 常に新しい結果で置き換える.
+     */
+    ALWAYS,
+    /**
+     * 記録済みの結果より深く探索した場合, または記録済みの結果が以前の探索のものである場合のみ置き換える.
+     */
+    DEPTH_PREFERRED
+  }
+
+  /**
+   * 評価値の種類の一覧. 取り出しのたびに配列を生成しないよう保持しておく.
+   */
+  private static final Bound[] BOUNDS = Bound.values();
+  /**
+   * 1エントリあたりのバイト数.
+   */
+  private static final int ENTRY_BYTES = 16;
+  /**
+   * 最善手がないことを表す値.
+   */
+  public static final int NO_MOVE = 64;
+  /**
+   * 検索で局面が見つからなかったことを表す値.
+   */
+  public static final long MISS = 0L;
+  /**
+   * データが有効であることを表すビット. {@link #MISS} と区別するために常に立てる.
+   */
+  private static final long VALID_BIT = 1L << 63;
+  /**
+   * 局面のハッシュ値とデータの排他的論理和.
+   */
+  private final long[] keys;
+  /**
+   * 評価値, 深さ, 評価値の種類, 最善手, 世代を詰めたデータ.
+   */
+  private final long[] data;
+  /**
+   * 格納位置を求めるためのマスク.
+   */
+  private final int mask;
+  /**
+   * 置き換え方針.
+   */
+  private final ReplacementPolicy policy;
+  /**
+   * 現在の探索の世代. 探索を開始するたびに進める.
+   */
+  private int generation;
+
+  /**
+   * 置換表を生成する.
+   *
+   * @param megabytes 使用するメモリ量(MB)
+   * @param policy    置き換え方針
+   * @throws IllegalArgumentException メモリ量が1未満の場合
+   */
+  public TranspositionTable(final int megabytes, final ReplacementPolicy policy) {
+    if (megabytes < 1) {
+      throw new IllegalArgumentException("メモリ量は1MB以上を指定してください");
+    }
+    final long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+    final int size = (int) Math.min(entries, 1 << 30);
+    this.keys = new long[size];
+    this.data = new long[size];
+    this.mask = size - 1;
+    this.policy = policy;
+    this.generation = 0;
+  }
+
+  /**
+   * 記録されたデータから評価値を取り出す.
+   *
+   * @param entry {@link #probe(long)} で取得したデータ
+   * @return 評価値
+   */
+  public static int score(final long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * 記録されたデータから探索した深さを取り出す.
+   *
+   * @param entry {@link #probe(long)} で取得したデータ
+   * @return 深さ
+   */
+  public static int depth(final long entry) {
+    return (int) (entry >>> 32) & 0xff;
+  }
+
+  /**
+   * 記録されたデータから評価値の種類を取り出す.
+   *
+   * @param entry {@link #probe(long)} で取得したデータ
+   * @return 評価値の種類
+   */
+  public static Bound bound(final long entry) {
+    return BOUNDS[(int) (entry >>> 40) & 0x3];
+  }
+
+  /**
+   * 記録されたデータから最善手のマス番号を取り出す.
+   *
+   * @param entry {@link #probe(long)} で取得したデータ
+   * @return 最善手のマス番号. 最善手がない場合は {@link #NO_MOVE}
+   */
+  public static int bestMove(final long entry) {
+    return (int) (entry >>> 42) & 0x7f;
+  }
+
+  /**
+   * 記録されたデータから世代を取り出す.
+   *
+   * @param entry 記録されたデータ
+   * @return 世代
+   */
+  private static int generation(final long entry) {
+    return (int) (entry >>> 49) & 0xff;
+  }
+
+  /**
+   * 新しい探索を開始する.
+   * <p>
+   * 以前の探索で記録されたエントリは {@link ReplacementPolicy#DEPTH_PREFERRED} でも優先的に置き換えられるようになる.
+   */
+  public void newSearch() {
+    generation = (generation + 1) & 0xff;
+  }
+
+  /**
+   * 局面を検索する.
+   *
+   * @param hash 局面のハッシュ値
+   * @return 記録されたデータ. 見つからなかった場合は {@link #MISS}
+   */
+  public long probe(final long hash) {
+    final int index = (int) hash & mask;
+    final long entry = data[index];
+    if ((keys[index] ^ entry) != hash) {
+      return MISS;
+    }
+    return entry;
+  }
+
+  /**
+   * 局面の探索結果を記録する.
+   *
+   * @param hash     局面のハッシュ値
+   * @param depth    探索した深さ(0～255)
+   * @param bound    評価値の種類
+   * @param score    評価値
+   * @param bestMove 最善手のマス番号. 最善手がない場合は {@link #NO_MOVE}
+   */
+  public void store(final long hash, final int depth, final Bound bound, final int score,
+      final int bestMove) {
+    final int index = (int) hash & mask;
+    final long current = data[index];
+    if (policy == ReplacementPolicy.DEPTH_PREFERRED
+        && current != MISS
+        && generation(current) == generation
+        && (keys[index] ^ current) != hash
+        && depth(current) > depth) {
+      // 同じ探索でより深く調べた別の局面は残す.
+      return;
+    }
+
+    final long entry = VALID_BIT
+        | (long) generation << 49
+        | (long) bestMove << 42
+        | (long) bound.ordinal() << 40
+        | (long) depth << 32
+        | score & 0xffffffffL;
+    data[index] = entry;
+    keys[index] = hash ^ entry;
+  }
+
+  /**
+   * 記録をすべて消去する.
+   */
+  public void clear() {
+    Arrays.fill(keys, 0L);
+    Arrays.fill(data, 0L);
+  }
+
+  /**
+   * 格納できるエントリ数を返す.
+   *
+   * @return エントリ数
+   */
+  public int capacity() {
+    return keys.length;
+  }
+}
@@ -0,0 +1,77 @@
+package othello.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import othello.strategy.TranspositionTable.Bound;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+
+class TranspositionTableTest {
+
+  /**
+   * 記録した深さ, 評価値の種類, 評価値, 最善手がそのまま取り出せ, 格納位置が同じ別の局面は見つからないこと.
+   */
+  @Test
+  void probeReturnsStoredEntryOnlyForSameHash() {
+    final TranspositionTable table = new TranspositionTable(1, ReplacementPolicy.ALWAYS);
+    final long hash = 0x123456789abcdefL;
+    // 下位ビットが等しいため同じ格納位置となる.
+    final long colliding = hash + table.capacity();
+
+    assertEquals(TranspositionTable.MISS, table.probe(hash));
+    table.store(hash, 7, Bound.UPPER, -1234, 63);
+    final long entry = table.probe(hash);
+    assertEquals(7, TranspositionTable.depth(entry));
+    assertEquals(Bound.UPPER, TranspositionTable.bound(entry));
+    assertEquals(-1234, TranspositionTable.score(entry));
+    assertEquals(63, TranspositionTable.bestMove(entry));
+    assertEquals(TranspositionTable.MISS, table.probe(colliding));
+
+    table.store(hash, 0, Bound.EXACT, 0, TranspositionTable.NO_MOVE);
+    assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.bestMove(table.probe(hash)));
+
+    table.clear();
+    assertEquals(TranspositionTable.MISS, table.probe(hash));
+  }
+
+  /**
+   * 深さ優先の置き換えでは, 同じ探索でより深く読んだ別の局面は残り, 以前の探索の結果や同じ局面は置き換えられること.
+   */
+  @Test
+  void depthPreferredKeepsDeeperEntryOfCurrentSearch() {
+    final TranspositionTable table = new TranspositionTable(1, ReplacementPolicy.DEPTH_PREFERRED);
+    final long deep = 42L;
+    final long shallow = deep + table.capacity();
+
+    table.newSearch();
+    table.store(deep, 8, Bound.EXACT, 10, 1);
+    table.store(shallow, 3, Bound.LOWER, 20, 2);
+    assertEquals(8, TranspositionTable.depth(table.probe(deep)));
+    assertEquals(TranspositionTable.MISS, table.probe(shallow));
+
+    // 同じ局面は浅い結果でも置き換える.
+    table.store(deep, 2, Bound.LOWER, 30, 3);
+    assertEquals(2, TranspositionTable.depth(table.probe(deep)));
+
+    table.store(deep, 8, Bound.EXACT, 10, 1);
+    table.newSearch();
+    table.store(shallow, 3, Bound.LOWER, 20, 2);
+    assertEquals(TranspositionTable.MISS, table.probe(deep));
+    assertEquals(20, TranspositionTable.score(table.probe(shallow)));
+  }
+
+  /**
+   * 常に置き換える方針では, 浅い結果でも別の局面を置き換えること.
+   */
+  @Test
+  void alwaysReplacesDeeperEntry() {
+    final TranspositionTable table = new TranspositionTable(1, ReplacementPolicy.ALWAYS);
+    final long deep = 42L;
+    final long shallow = deep + table.capacity();
+
+    table.store(deep, 8, Bound.EXACT, 10, 1);
+    table.store(shallow, 3, Bound.LOWER, 20, 2);
+    assertEquals(TranspositionTable.MISS, table.probe(deep));
+    assertEquals(3, TranspositionTable.depth(table.probe(shallow)));
+  }
+}
@@ -1,22 +1,12 @@
 package othello.strategy;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import othello.Board;
 import othello.Coordinate;
+import othello.Squares;
 
 public class WeakAI implements StrategyInterface {
 
-  /**
-   * フィールドの行数.
-   */
-  private static final int ROW = 8;
-  /**
-   * フィールドの列数.
-   */
-  private static final int COL = 8;
-
   public WeakAI() {
     // 処理なし
   }
@@ -29,15 +19,13 @@ public class WeakAI implements StrategyInterface {
    */
   @Override
   public Coordinate decideCoordinate(final Board othello) {
-    List<Coordinate> candidates = new ArrayList<>();
-    for (int r = 0; r < ROW; r++) {
-      for (int c = 0; c < COL; c++) {
-        if (othello.canPutPiece(Coordinate.valueOf(r, c))) {
-          candidates.add(Coordinate.valueOf(r, c));
-        }
-      }
+    long candidates = othello.getLegalMoves();
+
+    // 置くことができるマスの中から何番目のマスを選ぶかをランダムに決める.
+    int index = ThreadLocalRandom.current().nextInt(Long.bitCount(candidates));
+    for (int i = 0; i < index; i++) {
+      candidates = Squares.removeFirst(candidates);
     }
-    Collections.shuffle(candidates);
-    return candidates.get(0);
+    return Squares.toCoordinate(Squares.first(candidates));
   }
 }
@@ -0,0 +1,105 @@
+package othello.training;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 局面ファイルから学習用の局面を先頭から順に読み込むクラス.
+ * <p>
+ * 局面は1つずつ読み込み, 読み込んだ局面は {@link #next()} を呼ぶたびに上書きされるため, 局面の数によらず使用するメモリは一定となる.
+ * ファイルの形式は {@link PositionWriter} を参照.
+ */
+public final class PositionReader implements Closeable {
+
+  /**
+   * 読み込み元.
+   */
+  private final DataInputStream in;
+  /**
+   * 読み込んだ局面の手番側のコマの配置.
+   */
+  private long own;
+  /**
+   * 読み込んだ局面の相手のコマの配置.
+   */
+  private long opponent;
+  /**
+   * 読み込んだ局面の手番側から見た最終的な石差.
+   */
+  private int score;
+
+  /**
+   * 局面ファイルを開く.
+   *
+   * @param path 局面ファイルのパス
+   * @throws IOException 読み込みに失敗した場合, またはファイルの形式が正しくない場合
+   */
+  public PositionReader(final Path path) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+    try {
+      if (in.readInt() != PositionWriter.MAGIC) {
+        throw new IOException("局面ファイルではありません");
+      }
+      if (in.readInt() != PositionWriter.VERSION) {
+        throw new IOException("局面ファイルの形式のバージョンが異なります");
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * 次の局面を読み込む.
+   *
+   * @return 局面を読み込んだ場合 {@code true}. ファイルの終わりに達した場合 {@code false}
+   * @throws IOException 読み込みに失敗した場合, または局面の途中でファイルが終わっている場合
+   */
+  public boolean next() throws IOException {
+    try {
+      own = in.readLong();
+    } catch (EOFException e) {
+      return false;
+    }
+    opponent = in.readLong();
+    score = in.readByte();
+    return true;
+  }
+
+  /**
+   * 読み込んだ局面の手番側のコマの配置を返す.
+   *
+   * @return コマの配置
+   */
+  public long getOwn() {
+    return own;
+  }
+
+  /**
+   * 読み込んだ局面の相手のコマの配置を返す.
+   *
+   * @return コマの配置
+   */
+  public long getOpponent() {
+    return opponent;
+  }
+
+  /**
+   * 読み込んだ局面の手番側から見た最終的な石差を返す.
+   *
+   * @return 石差
+   */
+  public int getScore() {
+    return score;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
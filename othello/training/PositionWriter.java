@@ -0,0 +1,88 @@
+package othello.training;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 学習用の局面を局面ファイルに書き出すクラス.
+ * <p>
+ * 局面ファイルの形式は以下の通り(数値はすべてビッグエンディアン). 局面はメモリに溜めずに書き出すため, 局面の数によらず使用するメモリは一定となる.
+ * <ol>
+ *     <li>識別子 {@link #MAGIC} (int)</li>
+ *     <li>形式のバージョン {@link #VERSION} (int)</li>
+ *     <li>局面 ({@link #RECORD_BYTES} バイト). 手番側のコマの配置(long), 相手のコマの配置(long),
+ *     手番側から見た最終的な石差(byte)の順に並べ, ファイルの終わりまで続く</li>
+ * </ol>
+ * 書き出しは同期しているため, 1つのインスタンスに複数のスレッドから書き出すことができる.
+ *
+ * @see PositionReader
+ */
+public final class PositionWriter implements Closeable {
+
+  /**
+   * 局面ファイルの識別子.
+   */
+  public static final int MAGIC = 0x4f545053;
+  /**
+   * 局面ファイルの形式のバージョン.
+   */
+  public static final int VERSION = 1;
+  /**
+   * 局面1つあたりのバイト数.
+   */
+  public static final int RECORD_BYTES = Long.BYTES * 2 + Byte.BYTES;
+  /**
+   * 書き出し先.
+   */
+  private final DataOutputStream out;
+  /**
+   * 書き出した局面の数.
+   */
+  private long count;
+
+  /**
+   * 局面ファイルを作成する. 既に存在する場合は上書きする.
+   *
+   * @param path 局面ファイルのパス
+   * @throws IOException 作成に失敗した場合
+   */
+  public PositionWriter(final Path path) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+  }
+
+  /**
+   * 局面を1つ書き出す.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param score    手番側から見た最終的な石差
+   * @throws IOException 書き出しに失敗した場合
+   */
+  public synchronized void write(final long own, final long opponent, final int score)
+      throws IOException {
+    out.writeLong(own);
+    out.writeLong(opponent);
+    out.writeByte(score);
+    count++;
+  }
+
+  /**
+   * 書き出した局面の数を返す.
+   *
+   * @return 局面の数
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,203 @@
+package othello.training;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import othello.Board;
+import othello.BoardSnapshot;
+import othello.Coordinate;
+import othello.PieceType;
+import othello.Squares;
+import othello.strategy.EndgameSolver;
+import othello.strategy.NormalAI;
+import othello.strategy.StrategyInterface;
+import othello.strategy.StrongAI;
+import othello.strategy.TranspositionTable;
+import othello.strategy.TranspositionTable.ReplacementPolicy;
+import othello.strategy.WeakAI;
+
+/**
+ * 既存のAI同士を対戦させ, 学習用の局面を生成するクラス.
+ * <p>
+ * 黒と白それぞれに {@link WeakAI}, {@link NormalAI}, {@link StrongAI} から1つを対局ごとに無作為に選ぶ. 同じ局面ばかりにならないよう,
+ * 序盤の数手は合法手から無作為に選ぶ. 手番側が置ける局面をすべて記録し, 以下の値を手番側から見た石差として付ける.
+ * <ul>
+ *     <li>空きマスが読み切りの数以下の局面: 読み切りによる最終的な石差</li>
+ *     <li>それより前の局面: 初めて読み切りの数以下になった局面の読み切りの結果. 以降を双方が最善に打った場合の石差となる</li>
+ *     <li>読み切りの数以下になる前に終局した場合: 対局の最終的な石差</li>
+ * </ul>
+ * 1つのインスタンスは1スレッドからのみ使用する.
+ */
+public final class SelfPlay {
+
+  /**
+   * 1対局で記録する局面の数の上限.
+   */
+  private static final int MAX_POSITIONS = Squares.SIZE;
+  /**
+   * AIが使用する置換表のメモリ量(MB).
+   */
+  private static final int TABLE_MEGABYTES = 4;
+  /**
+   * 序盤に無作為に打つ手数.
+   */
+  private final int randomMoves;
+  /**
+   * 空きマスがこの数以下の局面を読み切る.
+   */
+  private final int solveEmpties;
+  /**
+   * 黒のAIの候補.
+   */
+  private final StrategyInterface[] blackPlayers;
+  /**
+   * 白のAIの候補.
+   */
+  private final StrategyInterface[] whitePlayers;
+  /**
+   * 序盤に無作為に打つためのAI.
+   */
+  private final WeakAI randomPlayer = new WeakAI();
+  /**
+   * 読み切りに使用する.
+   */
+  private final EndgameSolver solver = new EndgameSolver();
+  /**
+   * 記録した局面の手番側のコマの配置.
+   */
+  private final long[] owns = new long[MAX_POSITIONS];
+  /**
+   * 記録した局面の相手のコマの配置.
+   */
+  private final long[] opponents = new long[MAX_POSITIONS];
+  /**
+   * 記録した局面の手番が黒の場合 {@code true}.
+   */
+  private final boolean[] isBlackTurns = new boolean[MAX_POSITIONS];
+
+  /**
+   * 対局の条件を指定して生成する.
+   *
+   * @param searchDepth  {@link NormalAI}, {@link StrongAI} の探索の深さ
+   * @param randomMoves  序盤に無作為に打つ手数
+   * @param solveEmpties 読み切りを行う空きマスの数. 0の場合は読み切りを行わず, 対局の結果のみを用いる
+   * @throws IllegalArgumentException 探索の深さが1未満の場合, 手数または空きマスの数が負の場合
+   */
+  public SelfPlay(final int searchDepth, final int randomMoves, final int solveEmpties) {
+    if (randomMoves < 0) {
+      throw new IllegalArgumentException("無作為に打つ手数は0以上を指定してください");
+    }
+    if (solveEmpties < 0) {
+      throw new IllegalArgumentException("読み切りを行う空きマスの数は0以上を指定してください");
+    }
+    this.randomMoves = randomMoves;
+    this.solveEmpties = solveEmpties;
+    this.blackPlayers = createPlayers(PieceType.BLACK, searchDepth);
+    this.whitePlayers = createPlayers(PieceType.WHITE, searchDepth);
+  }
+
+  /**
+   * 1つのコマの種類に対するAIの候補を生成する.
+   * <p>
+   * 記録する局面の石差は読み切りで求めるため, AI自身は読み切りを行わない.
+   *
+   * @param me          コマの種類
+   * @param searchDepth 探索の深さ
+   * @return AIの候補
+   */
+  private static StrategyInterface[] createPlayers(final PieceType me, final int searchDepth) {
+    return new StrategyInterface[] {
+        new WeakAI(),
+        new NormalAI(me, new TranspositionTable(TABLE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED),
+            searchDepth, NormalAI.NO_TIME_LIMIT, 1, null, 0),
+        new StrongAI(me, new TranspositionTable(TABLE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED),
+            searchDepth, NormalAI.NO_TIME_LIMIT, 1, null, 0)
+    };
+  }
+
+  /**
+   * 1局対戦し, 石差を付けた局面を書き出す.
+   *
+   * @param writer 書き出し先
+   * @return 書き出した局面の数
+   * @throws IOException 書き出しに失敗した場合
+   */
+  public int play(final PositionWriter writer) throws IOException {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final StrategyInterface black = blackPlayers[random.nextInt(blackPlayers.length)];
+    final StrategyInterface white = whitePlayers[random.nextInt(whitePlayers.length)];
+    final Board board = new Board();
+    int count = 0;
+    int solvedIndex = -1;
+
+    for (int moves = 0; !board.isGameOver(); moves++) {
+      if (!board.canPutForCurrentTurn()) {
+        board.nextTurn();
+      }
+      final PieceType turn = board.getCurrentTurn();
+      final BoardSnapshot snapshot = board.snapshot();
+      owns[count] = snapshot.getBits(turn);
+      opponents[count] = snapshot.getBits(PieceType.getEnemyType(turn));
+      isBlackTurns[count] = turn == PieceType.BLACK;
+      if (solvedIndex < 0 && countEmpties(owns[count], opponents[count]) <= solveEmpties) {
+        solvedIndex = count;
+      }
+      count++;
+
+      final Coordinate coordinate;
+      if (moves < randomMoves) {
+        coordinate = randomPlayer.decideCoordinate(board);
+      } else if (turn == PieceType.BLACK) {
+        coordinate = black.decideCoordinate(board);
+      } else {
+        coordinate = white.decideCoordinate(board);
+      }
+      board.processToPutPiece(coordinate);
+      board.nextTurn();
+    }
+
+    // 読み切った局面より前の局面には, その局面の読み切りの結果を黒から見た石差として付ける.
+    final int solvedScore = solvedIndex >= 0 ? solve(solvedIndex) : 0;
+    final int blackScore;
+    if (solvedIndex >= 0) {
+      blackScore = isBlackTurns[solvedIndex] ? solvedScore : -solvedScore;
+    } else {
+      final BoardSnapshot snapshot = board.snapshot();
+      blackScore = EndgameSolver.finalScore(snapshot.getBits(PieceType.BLACK),
+          snapshot.getBits(PieceType.WHITE));
+    }
+    for (int i = 0; i < count; i++) {
+      final int score;
+      if (solvedIndex >= 0 && i > solvedIndex) {
+        score = solve(i);
+      } else if (i == solvedIndex) {
+        score = solvedScore;
+      } else {
+        score = isBlackTurns[i] ? blackScore : -blackScore;
+      }
+      writer.write(owns[i], opponents[i], score);
+    }
+    return count;
+  }
+
+  /**
+   * 記録した局面を読み切る.
+   *
+   * @param index 局面の番号
+   * @return 手番側から見た最終的な石差
+   */
+  private int solve(final int index) {
+    return solver.solve(owns[index], opponents[index], -EndgameSolver.MAX_SCORE - 1,
+        EndgameSolver.MAX_SCORE + 1, Long.MAX_VALUE);
+  }
+
+  /**
+   * 空きマスの数を数える.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 空きマスの数
+   */
+  private static int countEmpties(final long own, final long opponent) {
+    return Squares.SIZE - Long.bitCount(own | opponent);
+  }
+}
@@ -0,0 +1,240 @@
+package othello.training;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import othello.strategy.NormalAI;
+import othello.strategy.PatternEvaluator;
+
+/**
+ * {@link othello.strategy.PatternAI} の評価関数の重みを対局から学習するツール.
+ * <p>
+ * 以下の2段階で重みファイルを作成する. 局面は局面ファイルを介して受け渡し, どちらの段階でも局面をメモリに溜めない.
+ * <ol>
+ *     <li>generate: 既存のAI同士の対局を複数のスレッドで並列に行い, 石差を付けた局面を局面ファイルに書き出す({@link SelfPlay})</li>
+ *     <li>fit: 局面ファイルを繰り返し読み, パターンの重みを求めて重みファイルに書き出す({@link WeightFitter})</li>
+ * </ol>
+ * <p>
+ * 使い方:
+ * <pre>
+ * java othello.training.Trainer generate [-threads スレッド数] [-depth 深さ] [-random 手数] [-solve 空きマス数] 対局数 局面ファイル
+ * java othello.training.Trainer fit [-epochs 回数] [-rate 学習率] [-init 重みファイル] 局面ファイル 重みファイル
+ * </pre>
+ * <ul>
+ * <li>-threads: 対局に使用するスレッド数. 既定はCPUのコア数</li>
+ * <li>-depth: {@link othello.strategy.NormalAI}, {@link othello.strategy.StrongAI} の探索の深さ. 既定は {@value #DEFAULT_DEPTH}</li>
+ * <li>-random: 序盤に無作為に打つ手数. 既定は {@value #DEFAULT_RANDOM_MOVES}</li>
+ * <li>-solve: 読み切りを行う空きマスの数. 既定は {@link NormalAI#DEFAULT_ENDGAME_EMPTIES}</li>
+ * <li>-epochs: 局面ファイルを読む回数. 既定は {@value #DEFAULT_EPOCHS}</li>
+ * <li>-rate: 学習率. 既定は {@value #DEFAULT_RATE}</li>
+ * <li>-init: 学習を始める重みファイル. 指定しない場合はすべての重みを0から始める</li>
+ * </ul>
+ * 作成した重みファイルは, システムプロパティ {@value PatternEvaluator#WEIGHTS_PROPERTY} で指定するか作業ディレクトリに
+ * {@value PatternEvaluator#DEFAULT_WEIGHTS_FILE} として置くと {@link othello.strategy.PatternAI} が読み込む.
+ */
+public final class Trainer {
+
+  /**
+   * 既定の探索の深さ.
+   */
+  private static final int DEFAULT_DEPTH = 2;
+  /**
+   * 既定の序盤に無作為に打つ手数.
+   */
+  private static final int DEFAULT_RANDOM_MOVES = 8;
+  /**
+   * 既定の局面ファイルを読む回数.
+   */
+  private static final int DEFAULT_EPOCHS = 10;
+  /**
+   * 既定の学習率.
+   */
+  private static final double DEFAULT_RATE = 0.005;
+  /**
+   * 進捗を表示する間隔(対局数).
+   */
+  private static final int PROGRESS_INTERVAL = 1000;
+
+  private Trainer() {
+    // インスタンス化しない
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      printUsage();
+      return;
+    }
+    switch (args[0]) {
+      case "generate":
+        generate(args);
+        break;
+      case "fit":
+        fit(args);
+        break;
+      default:
+        printUsage();
+    }
+  }
+
+  /**
+   * 対局を行い, 局面ファイルを作成する.
+   *
+   * @param args コマンドライン引数
+   * @throws IOException 書き出しに失敗した場合
+   */
+  private static void generate(final String[] args) throws IOException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    int depth = DEFAULT_DEPTH;
+    int randomMoves = DEFAULT_RANDOM_MOVES;
+    int solveEmpties = NormalAI.DEFAULT_ENDGAME_EMPTIES;
+    final List<String> operands = new ArrayList<>();
+    for (int i = 1; i < args.length; i++) {
+      switch (args[i]) {
+        case "-threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        case "-depth":
+          depth = Integer.parseInt(args[++i]);
+          break;
+        case "-random":
+          randomMoves = Integer.parseInt(args[++i]);
+          break;
+        case "-solve":
+          solveEmpties = Integer.parseInt(args[++i]);
+          break;
+        default:
+          operands.add(args[i]);
+      }
+    }
+    if (operands.size() != 2) {
+      printUsage();
+      return;
+    }
+    final int games = Integer.parseInt(operands.get(0));
+    final Path output = Paths.get(operands.get(1));
+
+    final long start = System.nanoTime();
+    final AtomicInteger remaining = new AtomicInteger(games);
+    final AtomicInteger finished = new AtomicInteger();
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try (PositionWriter writer = new PositionWriter(output)) {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        final SelfPlay selfPlay = new SelfPlay(depth, randomMoves, solveEmpties);
+        futures.add(pool.submit(() -> {
+          while (remaining.getAndDecrement() > 0) {
+            selfPlay.play(writer);
+            final int count = finished.incrementAndGet();
+            if (count % PROGRESS_INTERVAL == 0) {
+              System.out.println(count + " 局終了");
+            }
+          }
+          return null;
+        }));
+      }
+      await(futures);
+      final double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.println(String.format(Locale.ROOT, "%d 局, %d 局面 (%.1f 秒, %.1f 局/秒)",
+          finished.get(), writer.getCount(), seconds, finished.get() / Math.max(seconds, 1e-9)));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * 局面ファイルから重みを求め, 重みファイルを作成する.
+   *
+   * @param args コマンドライン引数
+   * @throws IOException 読み込みまたは書き出しに失敗した場合
+   */
+  private static void fit(final String[] args) throws IOException {
+    int epochs = DEFAULT_EPOCHS;
+    double rate = DEFAULT_RATE;
+    Path initial = null;
+    final List<String> operands = new ArrayList<>();
+    for (int i = 1; i < args.length; i++) {
+      switch (args[i]) {
+        case "-epochs":
+          epochs = Integer.parseInt(args[++i]);
+          break;
+        case "-rate":
+          rate = Double.parseDouble(args[++i]);
+          break;
+        case "-init":
+          initial = Paths.get(args[++i]);
+          break;
+        default:
+          operands.add(args[i]);
+      }
+    }
+    if (operands.size() != 2) {
+      printUsage();
+      return;
+    }
+    final Path positions = Paths.get(operands.get(0));
+    final Path output = Paths.get(operands.get(1));
+
+    final WeightFitter fitter = new WeightFitter(rate);
+    if (initial != null) {
+      fitter.initialize(PatternEvaluator.load(initial));
+    }
+    for (int epoch = 1; epoch <= epochs; epoch++) {
+      final long start = System.nanoTime();
+      final double error;
+      try (PositionReader reader = new PositionReader(positions)) {
+        error = fitter.epoch(reader);
+      }
+      final double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.println(String.format(Locale.ROOT, "%d 回目: 誤差 %.3f 石 (%.1f 秒)",
+          epoch, error, seconds));
+    }
+    final double error;
+    try (PositionReader reader = new PositionReader(positions)) {
+      error = fitter.measure(reader);
+    }
+    System.out.println(String.format(Locale.ROOT, "学習後: 誤差 %.3f 石", error));
+    fitter.toEvaluator().save(output);
+    System.out.println(output + " に書き出しました");
+  }
+
+  /**
+   * すべての対局の終了を待つ.
+   *
+   * @param futures 対局を行うタスク
+   * @throws IOException いずれかのタスクで書き出しに失敗した場合
+   */
+  private static void await(final List<Future<?>> futures) throws IOException {
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("対局が中断されました", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("対局に失敗しました", e.getCause());
+    }
+  }
+
+  /**
+   * 使い方を表示する.
+   */
+  private static void printUsage() {
+    System.out.println("使い方:");
+    System.out.println("  java othello.training.Trainer generate [-threads スレッド数] [-depth 深さ]"
+        + " [-random 手数] [-solve 空きマス数] 対局数 局面ファイル");
+    System.out.println("  java othello.training.Trainer fit [-epochs 回数] [-rate 学習率]"
+        + " [-init 重みファイル] 局面ファイル 重みファイル");
+  }
+}
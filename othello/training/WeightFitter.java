@@ -0,0 +1,154 @@
+package othello.training;
+
+import java.io.IOException;
+import othello.strategy.PatternEvaluator;
+
+/**
+ * 局面ファイルの石差に {@link PatternEvaluator} の評価値が近づくよう, パターンの重みを確率的勾配降下法で求めるクラス.
+ * <p>
+ * 評価値と石差の差の2乗を損失とし, 局面を1つ読むたびにその局面に現れたパターンの重みを更新する. 評価値は各パターンの重みの和であるため,
+ * 局面ごとの勾配は現れたパターンの重みに対してすべて等しく, 誤差に学習率を掛けた値を加えればよい. 重みは石差の単位で浮動小数点数として保持し,
+ * 書き出す際に {@link PatternEvaluator#WEIGHT_SCALE} 倍して丸める.
+ */
+public final class WeightFitter {
+
+  /**
+   * 進行度ごとの重み. 単位は石差.
+   */
+  private final float[][] weights = new float[PatternEvaluator.PHASES][PatternEvaluator.tableSize()];
+  /**
+   * 局面に現れたパターンの重みの添字の作業領域.
+   */
+  private final int[] indices = new int[PatternEvaluator.featureCount()];
+  /**
+   * 学習率.
+   */
+  private final float rate;
+
+  /**
+   * 重みをすべて0として生成する.
+   *
+   * @param rate 学習率. 1局面あたりの評価値は誤差のおよそ {@code rate * }{@link PatternEvaluator#featureCount()} 倍だけ変化する
+   * @throws IllegalArgumentException 学習率が正でない場合
+   */
+  public WeightFitter(final double rate) {
+    if (!(rate > 0)) {
+      throw new IllegalArgumentException("学習率は正の値を指定してください");
+    }
+    this.rate = (float) rate;
+  }
+
+  /**
+   * 既存の評価器の重みから学習を始める.
+   *
+   * @param evaluator 評価器
+   */
+  public void initialize(final PatternEvaluator evaluator) {
+    for (int phase = 0; phase < PatternEvaluator.PHASES; phase++) {
+      final short[] source = evaluator.getWeights(phase);
+      for (int i = 0; i < source.length; i++) {
+        weights[phase][i] = (float) source[i] / PatternEvaluator.WEIGHT_SCALE;
+      }
+    }
+  }
+
+  /**
+   * 局面ファイルの局面を先頭から順に1度ずつ学習する.
+   *
+   * @param reader 局面ファイル
+   * @return 学習前の評価値と石差の差の2乗平均平方根(石差の単位). 局面がない場合は0
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public double epoch(final PositionReader reader) throws IOException {
+    double squaredError = 0;
+    long count = 0;
+    while (reader.next()) {
+      final float error = learn(reader.getOwn(), reader.getOpponent(), reader.getScore());
+      squaredError += (double) error * error;
+      count++;
+    }
+    return count == 0 ? 0 : Math.sqrt(squaredError / count);
+  }
+
+  /**
+   * 局面ファイルの局面に対する評価値と石差の差を, 重みを更新せずに求める.
+   *
+   * @param reader 局面ファイル
+   * @return 評価値と石差の差の2乗平均平方根(石差の単位). 局面がない場合は0
+   * @throws IOException 読み込みに失敗した場合
+   */
+  public double measure(final PositionReader reader) throws IOException {
+    double squaredError = 0;
+    long count = 0;
+    while (reader.next()) {
+      final long own = reader.getOwn();
+      final long opponent = reader.getOpponent();
+      PatternEvaluator.features(own, opponent, indices);
+      final float error = reader.getScore() - predict(weights[PatternEvaluator.phase(own, opponent)]);
+      squaredError += (double) error * error;
+      count++;
+    }
+    return count == 0 ? 0 : Math.sqrt(squaredError / count);
+  }
+
+  /**
+   * 現在の重みで局面の評価値を求める.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @return 手番側から見た評価値(石差の単位)
+   */
+  float predict(final long own, final long opponent) {
+    PatternEvaluator.features(own, opponent, indices);
+    return predict(weights[PatternEvaluator.phase(own, opponent)]);
+  }
+
+  /**
+   * 求めた重みから評価器を生成する.
+   *
+   * @return 評価器
+   */
+  public PatternEvaluator toEvaluator() {
+    final short[][] scaled = new short[PatternEvaluator.PHASES][PatternEvaluator.tableSize()];
+    for (int phase = 0; phase < PatternEvaluator.PHASES; phase++) {
+      for (int i = 0; i < scaled[phase].length; i++) {
+        final long value = Math.round(weights[phase][i] * PatternEvaluator.WEIGHT_SCALE);
+        scaled[phase][i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+      }
+    }
+    return new PatternEvaluator(scaled);
+  }
+
+  /**
+   * 1つの局面を学習する.
+   *
+   * @param own      手番側のコマの配置
+   * @param opponent 相手のコマの配置
+   * @param score    手番側から見た最終的な石差
+   * @return 更新前の評価値と石差の差
+   */
+  private float learn(final long own, final long opponent, final int score) {
+    final float[] table = weights[PatternEvaluator.phase(own, opponent)];
+    PatternEvaluator.features(own, opponent, indices);
+    final float error = score - predict(table);
+    final float delta = rate * error;
+    for (int index : indices) {
+      table[index] += delta;
+    }
+    return error;
+  }
+
+  /**
+   * 直前に求めたパターンの添字から評価値を求める.
+   *
+   * @param table 局面の進行度の重み
+   * @return 評価値(石差の単位)
+   */
+  private float predict(final float[] table) {
+    float sum = 0;
+    for (int index : indices) {
+      sum += table[index];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,103 @@
+package othello.training;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import othello.BitBoard;
+import othello.PieceType;
+import othello.Squares;
+import othello.strategy.EndgameSolver;
+import othello.strategy.PatternEvaluator;
+
+class WeightFitterTest {
+
+  /**
+   * 学習した重みを書き出して読み込んだ評価器が, 学習時の評価値を丸めの誤差の範囲で再現し, 学習前より石差に近づいていること.
+   */
+  @Test
+  void savedEvaluatorReproducesFittedPredictions(@TempDir Path directory) throws IOException {
+    final Path positions = directory.resolve("positions.bin");
+    final List<long[]> samples = new ArrayList<>();
+    final Random random = new Random(0);
+    try (PositionWriter writer = new PositionWriter(positions)) {
+      for (int game = 0; game < 200; game++) {
+        playRandomGame(random, writer, samples);
+      }
+    }
+
+    final WeightFitter fitter = new WeightFitter(0.005);
+    double initialError = Double.NaN;
+    double error = Double.NaN;
+    for (int epoch = 0; epoch < 5; epoch++) {
+      try (PositionReader reader = new PositionReader(positions)) {
+        error = fitter.epoch(reader);
+      }
+      if (epoch == 0) {
+        initialError = error;
+      }
+    }
+    assertTrue(error < initialError, error + " >= " + initialError);
+
+    final PatternEvaluator fitted = fitter.toEvaluator();
+    final Path weights = directory.resolve("weights.bin");
+    fitted.save(weights);
+    final PatternEvaluator loaded = PatternEvaluator.load(weights);
+    for (int phase = 0; phase < PatternEvaluator.PHASES; phase++) {
+      assertArrayEquals(fitted.getWeights(phase), loaded.getWeights(phase));
+    }
+
+    // 重みを丸めると, 1つのパターンあたり最大で0.5/WEIGHT_SCALEだけずれる.
+    final double tolerance = PatternEvaluator.featureCount() * 0.5 / PatternEvaluator.WEIGHT_SCALE;
+    for (long[] sample : samples) {
+      final double expected = fitter.predict(sample[0], sample[1]);
+      final double actual = (double) loaded.evaluate(sample[0], sample[1])
+          / PatternEvaluator.WEIGHT_SCALE;
+      assertEquals(expected, actual, tolerance);
+    }
+  }
+
+  /**
+   * ランダムに1局打ち, 各局面を手番側から見た最終的な石差とともに書き出す.
+   *
+   * @param random  乱数
+   * @param writer  書き出し先
+   * @param samples 書き出した局面(手番側と相手のコマの配置)の格納先
+   * @throws IOException 書き出しに失敗した場合
+   */
+  private static void playRandomGame(final Random random, final PositionWriter writer,
+      final List<long[]> samples) throws IOException {
+    final BitBoard board = new BitBoard();
+    final List<long[]> positions = new ArrayList<>();
+    final List<PieceType> turns = new ArrayList<>();
+    while (!board.isGameOver()) {
+      long moves = board.getLegalMoves();
+      if (moves == 0) {
+        board.makePass();
+        moves = board.getLegalMoves();
+      }
+      final PieceType turn = board.getCurrentTurn();
+      positions.add(new long[] {board.getBits(turn), board.getBits(PieceType.getEnemyType(turn))});
+      turns.add(turn);
+      for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+        moves = Squares.removeFirst(moves);
+      }
+      board.makeMove(Squares.first(moves));
+    }
+    final int blackScore = EndgameSolver.finalScore(board.getBits(PieceType.BLACK),
+        board.getBits(PieceType.WHITE));
+    for (int i = 0; i < positions.size(); i++) {
+      final long[] position = positions.get(i);
+      writer.write(position[0], position[1],
+          turns.get(i) == PieceType.BLACK ? blackScore : -blackScore);
+      samples.add(position);
+    }
+  }
+}